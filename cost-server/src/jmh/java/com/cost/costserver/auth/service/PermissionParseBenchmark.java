@@ -0,0 +1,90 @@
+package com.cost.costserver.auth.service;
+
+import com.cost.costserver.auth.dto.ColumnPermission;
+import com.cost.costserver.auth.dto.RowFilter;
+import com.cost.costserver.auth.mapper.RolePageMapper;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 角色页面权限解析：列权限 JSON 与行权限 SQL（占位符编译为绑定变量）
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PermissionParseBenchmark {
+
+    private PermissionService service;
+    private String columnPolicy;
+    private String visualRowPolicy;
+    private RowFilter compiledRowFilter;
+    private String sqlRowPolicy;
+
+    @Setup
+    public void setup() {
+        service = new PermissionService(Mockito.mock(RolePageMapper.class));
+
+        // 当前线程的登录用户（RowFilter.bindValues 读取 SecurityContext）
+        UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(1001L, null, List.of());
+        auth.setDetails("zhangsan");
+        SecurityContextHolder.getContext().setAuthentication(auth);
+
+        StringBuilder sb = new StringBuilder("{");
+        String[] grids = {"masterGrid", "material", "process"};
+        for (int g = 0; g < grids.length; g++) {
+            if (g > 0) {
+                sb.append(',');
+            }
+            sb.append('"').append(grids[g]).append("\":{");
+            for (int i = 1; i <= 30; i++) {
+                if (i > 1) {
+                    sb.append(',');
+                }
+                sb.append('"').append(g * 1000 + i).append("\":{\"columnName\":\"COL_").append(i)
+                        .append("\",\"visible\":").append(i % 7 != 0)
+                        .append(",\"editable\":").append(i % 3 != 0).append('}');
+            }
+            sb.append('}');
+        }
+        columnPolicy = sb.append('}').toString();
+
+        visualRowPolicy = "{\"mode\":\"visual\",\"conditions\":[{\"field\":\"DEPT_ID\",\"op\":\"eq\",\"value\":\"${userId}\"}],"
+                + "\"sql\":\"DEPT_ID IN (SELECT DEPT_ID FROM T_COST_USER_DEPT WHERE USER_ID = ${userId}) OR CREATE_BY = ${username}\"}";
+        sqlRowPolicy = "CREATE_BY = ${username} OR ORG_ID IN (SELECT ORG_ID FROM T_COST_USER_ORG WHERE USER_ID = ${userId})";
+        compiledRowFilter = service.parseRowFilter(visualRowPolicy);
+    }
+
+    @TearDown
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public Map<String, ColumnPermission> parseColumns() {
+        return service.parseColumns(columnPolicy);
+    }
+
+    @Benchmark
+    public RowFilter parseVisualRowFilter() {
+        return service.parseRowFilter(visualRowPolicy);
+    }
+
+    @Benchmark
+    public RowFilter parseSqlRowFilter() {
+        return service.parseRowFilter(sqlRowPolicy);
+    }
+
+    @Benchmark
+    public Object[] bindRowFilterValues() {
+        return compiledRowFilter.bindValues();
+    }
+}
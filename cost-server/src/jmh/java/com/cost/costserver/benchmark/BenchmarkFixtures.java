@@ -0,0 +1,178 @@
+package com.cost.costserver.benchmark;
+
+import com.cost.costserver.dynamic.dto.QueryParam;
+import com.cost.costserver.dynamic.jdbc.DynamicJdbcExecutor;
+import com.cost.costserver.metadata.dto.ColumnMetadataDTO;
+import com.cost.costserver.metadata.dto.TableMetadataDTO;
+import com.cost.costserver.metadata.entity.ColumnMetadata;
+import org.mockito.Mockito;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 基准测试公共数据：按典型成本单据构造的表元数据、查询条件和查询结果
+ */
+public final class BenchmarkFixtures {
+
+    public static final String MASTER_TABLE = "COST_PRICE";
+    public static final String DETAIL_TABLE = "COST_PRICE_MATERIAL";
+    public static final String PAGE_CODE = "cost-price";
+
+    /** 普通字符串列数量（另有数字、日期、对比列） */
+    private static final int TEXT_COLUMNS = 20;
+    private static final int NUMBER_COLUMNS = 12;
+    private static final int DATE_COLUMNS = 4;
+    private static final int COMPARE_COLUMNS = 4;
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * 列元数据实体（rulesConfig/cellEditor 覆盖 ColumnMetadataDTO.from 的各个分支）
+     */
+    public static List<ColumnMetadata> columnEntities(long tableId) {
+        List<ColumnMetadata> list = new ArrayList<>();
+        long id = tableId * 1000;
+        list.add(entity(++id, tableId, "ID", "number", null, null));
+        for (int i = 1; i <= TEXT_COLUMNS; i++) {
+            String editor = i % 5 == 0 ? "lookup" : null;
+            String rules = i % 5 == 0
+                    ? "{\"cellEditorParams\":{\"lookupCode\":\"goods\",\"mapping\":{\"GOODS_ID\":\"ID\"}}}"
+                    : i % 3 == 0 ? "{\"required\":true,\"maxLength\":100}" : null;
+            list.add(entity(++id, tableId, "TEXT_COL_" + i, "text", rules, editor));
+        }
+        for (int i = 1; i <= NUMBER_COLUMNS; i++) {
+            String rules = i % 4 == 0 ? "{\"calculate\":{\"expression\":\"QTY * PRICE\",\"triggerFields\":[\"QTY\",\"PRICE\"]}}" : null;
+            list.add(entity(++id, tableId, "NUM_COL_" + i, "number", rules, null));
+        }
+        for (int i = 1; i <= DATE_COLUMNS; i++) {
+            list.add(entity(++id, tableId, "DATE_COL_" + i, "datetime", null, null));
+        }
+        for (int i = 1; i <= COMPARE_COLUMNS; i++) {
+            list.add(entity(++id, tableId, "PRICE_" + i, "number",
+                    "{\"compare\":{\"enabled\":true,\"mode\":\"viewField\",\"compareField\":\"LAST_PRICE_" + i
+                            + "\",\"format\":\"percent\"}}", null));
+        }
+        list.add(entity(++id, tableId, "MASTER_ID", "number", null, null));
+        return list;
+    }
+
+    private static ColumnMetadata entity(long id, long tableId, String name, String dataType, String rules, String editor) {
+        ColumnMetadata c = new ColumnMetadata();
+        c.setId(id);
+        c.setTableMetadataId(tableId);
+        c.setColumnName(name);
+        c.setTargetColumn(name);
+        c.setHeaderText(name);
+        c.setDataType(dataType);
+        c.setDisplayOrder((int) (id % 1000));
+        c.setWidth(120);
+        c.setVisible(1);
+        c.setEditable(1);
+        c.setSearchable(1);
+        c.setSortable(1);
+        c.setRulesConfig(rules);
+        c.setCellEditor(editor);
+        return c;
+    }
+
+    public static TableMetadataDTO masterMetadata() {
+        return new TableMetadataDTO(1L, MASTER_TABLE, "成本价格", "V_COST_PRICE", "T_COST_PRICE",
+                "SEQ_COST_PRICE", "ID", null, null, null,
+                columnEntities(1).stream().map(ColumnMetadataDTO::from).toList());
+    }
+
+    public static TableMetadataDTO detailMetadata() {
+        return new TableMetadataDTO(2L, DETAIL_TABLE, "成本价格明细", "V_COST_PRICE_MATERIAL", "T_COST_PRICE_MATERIAL",
+                "SEQ_COST_PRICE_MATERIAL", "ID", MASTER_TABLE, "MASTER_ID", null,
+                columnEntities(2).stream().map(ColumnMetadataDTO::from).toList());
+    }
+
+    /**
+     * 典型的高级查询：主表 8 个条件 + 从表 2 个条件（走 EXISTS 子查询）
+     */
+    public static QueryParam searchParam(boolean withDetailConditions) {
+        List<QueryParam.QueryCondition> conditions = new ArrayList<>();
+        conditions.add(new QueryParam.QueryCondition("masterGrid", "TEXT_COL_1", "like", "钢材", null));
+        conditions.add(new QueryParam.QueryCondition("masterGrid", "TEXT_COL_2", "eq", "A01", null));
+        conditions.add(new QueryParam.QueryCondition("masterGrid", "TEXT_COL_3", "in", List.of("X", "Y", "Z"), null));
+        conditions.add(new QueryParam.QueryCondition("masterGrid", "NUM_COL_1", "ge", "100", null));
+        conditions.add(new QueryParam.QueryCondition("masterGrid", "NUM_COL_2", "between", "1", "9999.5"));
+        conditions.add(new QueryParam.QueryCondition("masterGrid", "DATE_COL_1", "between",
+                "2025-01-01 00:00:00", "2025-12-31 23:59:59"));
+        conditions.add(new QueryParam.QueryCondition("masterGrid", "TEXT_COL_4", "isNotNull", null, null));
+        conditions.add(new QueryParam.QueryCondition("masterGrid", "TEXT_COL_5", "likeLeft", "O'Neil", null));
+        if (withDetailConditions) {
+            conditions.add(new QueryParam.QueryCondition("material", "TEXT_COL_1", "like", "螺丝", null));
+            conditions.add(new QueryParam.QueryCondition("material", "NUM_COL_3", "gt", "0", null));
+        }
+        QueryParam param = new QueryParam();
+        param.setPage(1);
+        param.setPageSize(50);
+        param.setSortField("NUM_COL_1");
+        param.setSortOrder("desc");
+        param.setPageCode(withDetailConditions ? PAGE_CODE : null);
+        param.setConditions(conditions);
+        return param;
+    }
+
+    /**
+     * 模拟 Oracle 返回的原始行（大写列名、Timestamp、BigDecimal）
+     */
+    public static List<Map<String, Object>> rawRows(int count) {
+        List<Map<String, Object>> rows = new ArrayList<>(count);
+        Timestamp ts = Timestamp.valueOf(LocalDateTime.of(2025, 6, 1, 8, 30));
+        for (int r = 0; r < count; r++) {
+            Map<String, Object> row = new HashMap<>();
+            row.put("ID", BigDecimal.valueOf(r + 1L));
+            for (int i = 1; i <= TEXT_COLUMNS; i++) {
+                row.put("TEXT_COL_" + i, "value-" + r + "-" + i);
+            }
+            for (int i = 1; i <= NUMBER_COLUMNS; i++) {
+                row.put("NUM_COL_" + i, BigDecimal.valueOf(r * 10L + i, 2));
+            }
+            for (int i = 1; i <= DATE_COLUMNS; i++) {
+                row.put("DATE_COL_" + i, ts);
+            }
+            for (int i = 1; i <= COMPARE_COLUMNS; i++) {
+                row.put("PRICE_" + i, BigDecimal.valueOf(100 + r % 17));
+                row.put("LAST_PRICE_" + i, BigDecimal.valueOf(95 + r % 13));
+            }
+            row.put("MASTER_ID", BigDecimal.valueOf(r / 10 + 1L));
+            row.put("DELETED", BigDecimal.ZERO);
+            row.put("CREATE_TIME", ts);
+            row.put("UPDATE_TIME", ts);
+            row.put("CREATE_BY", "admin");
+            row.put("UPDATE_BY", "admin");
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    /**
+     * 只返回页面组件配置的 DynamicJdbcExecutor 桩（buildQueryWhereClause 中 loadPageQueryScopes 使用）
+     */
+    public static DynamicJdbcExecutor pageComponentExecutor() {
+        List<Map<String, Object>> components = List.of(
+                component("masterGrid", "GRID", MASTER_TABLE),
+                component("material", "DETAIL_GRID", DETAIL_TABLE));
+        DynamicJdbcExecutor executor = Mockito.mock(DynamicJdbcExecutor.class);
+        Mockito.when(executor.queryRows(Mockito.anyString())).thenReturn(components);
+        return executor;
+    }
+
+    private static Map<String, Object> component(String key, String type, String tableCode) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("COMPONENT_KEY", key);
+        row.put("COMPONENT_TYPE", type);
+        row.put("REF_TABLE_CODE", tableCode);
+        return row;
+    }
+}
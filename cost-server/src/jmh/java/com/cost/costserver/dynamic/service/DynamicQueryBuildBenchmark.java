@@ -0,0 +1,75 @@
+package com.cost.costserver.dynamic.service;
+
+import com.cost.costserver.auth.service.PermissionService;
+import com.cost.costserver.auth.service.RowPermissionKeyService;
+import com.cost.costserver.benchmark.BenchmarkFixtures;
+import com.cost.costserver.dynamic.dto.QueryParam;
+import com.cost.costserver.log.AuditLogService;
+import com.cost.costserver.log.OperationLogService;
+import com.cost.costserver.metadata.dto.ColumnMetadataDTO;
+import com.cost.costserver.metadata.dto.TableMetadataDTO;
+import com.cost.costserver.metadata.dto.TableMetadataIndex;
+import com.cost.costserver.metadata.service.MetadataService;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 查询 SQL 拼装：WHERE（含从表 EXISTS）与 ORDER BY
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DynamicQueryBuildBenchmark {
+
+    private DynamicDataService service;
+    private TableMetadataDTO metadata;
+    private TableMetadataIndex index;
+    private Map<String, ColumnMetadataDTO> columnMap;
+    private QueryParam localParam;
+    private QueryParam detailParam;
+
+    @Setup
+    public void setup() {
+        MetadataService metadataService = Mockito.mock(MetadataService.class);
+        Mockito.when(metadataService.getTableIndex(BenchmarkFixtures.DETAIL_TABLE))
+                .thenReturn(TableMetadataIndex.of(BenchmarkFixtures.detailMetadata()));
+        service = new DynamicDataService(BenchmarkFixtures.pageComponentExecutor(), metadataService,
+                Mockito.mock(ValidationService.class), Mockito.mock(OperationLogService.class),
+                Mockito.mock(AuditLogService.class), Mockito.mock(PermissionService.class),
+                Mockito.mock(RowPermissionKeyService.class));
+        metadata = BenchmarkFixtures.masterMetadata();
+        index = TableMetadataIndex.of(metadata);
+        columnMap = index.columnsByRuntimeName();
+        localParam = BenchmarkFixtures.searchParam(false);
+        detailParam = BenchmarkFixtures.searchParam(true);
+    }
+
+    @Benchmark
+    public String whereClause() {
+        return service.buildQueryWhereClause(index, localParam);
+    }
+
+    @Benchmark
+    public String whereClauseWithDetailExists() {
+        return service.buildQueryWhereClause(index, detailParam);
+    }
+
+    @Benchmark
+    public String orderClause() {
+        return service.buildOrderClause(localParam.getSortField(), localParam.getSortOrder(), columnMap, metadata.pkColumn());
+    }
+
+    /**
+     * 索引随元数据缓存加载构建一次，此处为单次构建开销
+     */
+    @Benchmark
+    public TableMetadataIndex tableIndex() {
+        return TableMetadataIndex.of(metadata);
+    }
+}
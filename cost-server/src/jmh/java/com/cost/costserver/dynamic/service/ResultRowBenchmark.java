@@ -0,0 +1,81 @@
+package com.cost.costserver.dynamic.service;
+
+import com.cost.costserver.auth.service.PermissionService;
+import com.cost.costserver.auth.service.RowPermissionKeyService;
+import com.cost.costserver.benchmark.BenchmarkFixtures;
+import com.cost.costserver.dynamic.jdbc.DynamicJdbcExecutor;
+import com.cost.costserver.dynamic.jdbc.DynamicRowExtractor;
+import com.cost.costserver.log.AuditLogService;
+import com.cost.costserver.log.OperationLogService;
+import com.cost.costserver.metadata.dto.ColumnMetadataDTO;
+import com.cost.costserver.metadata.dto.TableMetadataDTO;
+import com.cost.costserver.metadata.dto.TableMetadataIndex;
+import com.cost.costserver.metadata.service.MetadataService;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 查询结果后处理：历史对比数据合并（行归一化已在 DynamicRowExtractor 取数时完成）
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ResultRowBenchmark {
+
+    @Param({"5000"})
+    public int rows;
+
+    private DynamicDataService service;
+    private TableMetadataDTO metadata;
+    private Map<String, ColumnMetadataDTO> columnMap;
+    private List<Map<String, Object>> rawRows;
+    private List<Map<String, Object>> normalizedRows;
+
+    @Setup
+    public void setup() {
+        service = new DynamicDataService(Mockito.mock(DynamicJdbcExecutor.class), Mockito.mock(MetadataService.class),
+                Mockito.mock(ValidationService.class), Mockito.mock(OperationLogService.class),
+                Mockito.mock(AuditLogService.class), Mockito.mock(PermissionService.class),
+                Mockito.mock(RowPermissionKeyService.class));
+        metadata = BenchmarkFixtures.masterMetadata();
+        columnMap = TableMetadataIndex.of(metadata).columnsByRuntimeName();
+        rawRows = BenchmarkFixtures.rawRows(rows);
+        normalizedRows = new ArrayList<>(rows);
+        for (Map<String, Object> row : rawRows) {
+            Map<String, Object> normalized = new LinkedHashMap<>();
+            row.forEach((key, value) -> normalized.put(key.toUpperCase(), DynamicRowExtractor.convertValue(value)));
+            normalizedRows.add(normalized);
+        }
+    }
+
+    /**
+     * mergeHistoryData 会就地写入对比字段，每次调用前重新准备数据，准备开销不计入
+     */
+    @State(Scope.Thread)
+    public static class MergeInput {
+        List<Map<String, Object>> rows;
+
+        @Setup(Level.Invocation)
+        public void copy(ResultRowBenchmark bench) {
+            rows = new ArrayList<>(bench.normalizedRows.size());
+            for (Map<String, Object> row : bench.normalizedRows) {
+                rows.add(new LinkedHashMap<>(row));
+            }
+        }
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> mergeHistoryData(MergeInput input) {
+        service.mergeHistoryData(input.rows, metadata, columnMap);
+        return input.rows;
+    }
+}
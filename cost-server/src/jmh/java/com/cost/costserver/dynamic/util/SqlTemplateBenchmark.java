@@ -0,0 +1,46 @@
+package com.cost.costserver.dynamic.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 规则 / Action SQL 模板参数替换
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SqlTemplateBenchmark {
+
+    private String template;
+    private Map<String, Object> data;
+
+    @Setup
+    public void setup() {
+        template = "SELECT COUNT(*) FROM T_COST_PRICE_MATERIAL WHERE MASTER_ID = :masterId "
+                + "AND GOODS_ID = :goodsId AND ID <> NVL(:id, -1) AND DELETED = 0 "
+                + "AND (PRICE > :price OR REMARK = :remark) AND CREATE_TIME >= TO_DATE('2025-01-01 00:00:00', 'YYYY-MM-DD HH24:MI:SS')";
+        data = new HashMap<>();
+        data.put("masterId", 1024L);
+        data.put("goodsId", 88L);
+        data.put("id", null);
+        data.put("price", new BigDecimal("12.50"));
+        data.put("remark", "O'Neil 规格");
+    }
+
+    @Benchmark
+    public String buildSql() {
+        return SqlTemplateUtils.buildSql(template, data);
+    }
+
+    @Benchmark
+    public Object[] toBindSqlAndArgs() {
+        return SqlTemplateUtils.bindArgs(SqlTemplateUtils.toBindSql(template), data);
+    }
+}
@@ -0,0 +1,32 @@
+package com.cost.costserver.metadata.dto;
+
+import com.cost.costserver.benchmark.BenchmarkFixtures;
+import com.cost.costserver.metadata.entity.ColumnMetadata;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 列元数据实体转 DTO（含 rulesConfig / cellEditor 合并）
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ColumnMetadataBenchmark {
+
+    private List<ColumnMetadata> columns;
+
+    @Setup
+    public void setup() {
+        columns = BenchmarkFixtures.columnEntities(1);
+    }
+
+    @Benchmark
+    public List<ColumnMetadataDTO> fromTable() {
+        return columns.stream().map(ColumnMetadataDTO::from).toList();
+    }
+}
@@ -0,0 +1,39 @@
+package com.cost.costserver.loadtest;
+
+import com.cost.costserver.log.sql.LatencyHistogram;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个接口的压测统计（线程安全）
+ */
+public class EndpointStats {
+
+    private final String endpoint;
+    private final LatencyHistogram histogram = new LatencyHistogram();
+    private final LongAdder count = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    public EndpointStats(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public void record(long nanos, boolean success) {
+        histogram.record(nanos);
+        count.increment();
+        if (!success) {
+            errors.increment();
+        }
+    }
+
+    public Report report(double elapsedSeconds) {
+        long total = count.sum();
+        return new Report(endpoint, total, errors.sum(), elapsedSeconds > 0 ? total / elapsedSeconds : 0,
+                histogram.percentileMs(0.5), histogram.percentileMs(0.9),
+                histogram.percentileMs(0.99), histogram.maxMs());
+    }
+
+    public record Report(String endpoint, long count, long errors, double throughput,
+                         double p50Ms, double p90Ms, double p99Ms, double maxMs) {
+    }
+}
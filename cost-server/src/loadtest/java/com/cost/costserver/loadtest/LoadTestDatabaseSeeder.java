@@ -0,0 +1,295 @@
+package com.cost.costserver.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * 压测环境数据库初始化（仅 loadtest profile）
+ * 在 DataSource 初始化后、任何业务 Bean 使用前执行：
+ * 1. 依次执行 db/init 下的表结构、序列、视图脚本，loadtest/h2-fixups.sql 中的兼容性修正，
+ *    再执行元数据、业务数据脚本和 loadtest/seed.sql（H2 不支持的语句跳过并计数）
+ * 2. 查询视图缺失（依赖 DB Link）的表，按目标表创建兜底视图
+ * 3. 为每个主表生成合成数据，从表按主表生成明细
+ */
+@Slf4j
+@Component
+@Profile("loadtest")
+public class LoadTestDatabaseSeeder implements BeanPostProcessor, EnvironmentAware {
+
+    private static final String[] SCRIPT_LOCATIONS = {
+            "classpath:db/init/00_DDL/00_*.sql",
+            "classpath:db/init/00_DDL/01_*.sql",
+            "classpath:db/init/00_DDL/02_*.sql",
+            "classpath:loadtest/h2-fixups.sql",
+            "classpath:db/init/01_元数据/*.sql",
+            "classpath:db/init/02_业务数据/*.sql",
+            "classpath:loadtest/seed.sql"
+    };
+
+    private Environment environment;
+    private boolean seeded;
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !seeded) {
+            seeded = true;
+            seed(new JdbcTemplate(dataSource));
+        }
+        return bean;
+    }
+
+    private void seed(JdbcTemplate jdbc) {
+        long start = System.currentTimeMillis();
+        int executed = 0;
+        List<String> failures = new ArrayList<>();
+        PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+        try {
+            for (String location : SCRIPT_LOCATIONS) {
+                Resource[] resources = resolver.getResources(location);
+                Arrays.sort(resources, Comparator.comparing(Resource::getFilename));
+                for (Resource resource : resources) {
+                    String script = resource.getContentAsString(StandardCharsets.UTF_8);
+                    for (String sql : OracleScriptLoader.split(script)) {
+                        try {
+                            jdbc.execute(sql);
+                            executed++;
+                        } catch (Exception e) {
+                            failures.add(resource.getFilename() + ": " + firstLine(sql) + " -> " + rootMessage(e));
+                        }
+                    }
+                    syncSequences(jdbc);
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("读取初始化脚本失败", e);
+        }
+        log.info("[LOADTEST] 脚本执行完成: 成功 {} 条, 跳过/失败 {} 条", executed, failures.size());
+        failures.forEach(f -> log.debug("[LOADTEST] {}", f));
+
+        createFallbackViews(jdbc);
+        int masterRows = environment.getProperty("loadtest.seed.master-rows", Integer.class, 2000);
+        int detailRows = environment.getProperty("loadtest.seed.detail-rows", Integer.class, 5);
+        seedBusinessRows(jdbc, masterRows, detailRows);
+        log.info("[LOADTEST] 数据库初始化耗时 {}ms", System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 查询视图依赖远程库时无法创建，直接以目标表作为查询视图
+     */
+    private void createFallbackViews(JdbcTemplate jdbc) {
+        List<Map<String, Object>> tables = jdbc.queryForList(
+                "SELECT DISTINCT QUERY_VIEW, TARGET_TABLE FROM T_COST_TABLE_METADATA WHERE DELETED = 0");
+        for (Map<String, Object> row : tables) {
+            String view = (String) row.get("QUERY_VIEW");
+            String target = (String) row.get("TARGET_TABLE");
+            if (view == null || target == null || view.equalsIgnoreCase(target)
+                    || exists(jdbc, view) || !exists(jdbc, target)) {
+                continue;
+            }
+            jdbc.execute("CREATE VIEW " + view + " AS SELECT * FROM " + target);
+            log.info("[LOADTEST] 兜底视图 {} -> {}", view, target);
+        }
+    }
+
+    private void seedBusinessRows(JdbcTemplate jdbc, int masterRows, int detailRows) {
+        List<Map<String, Object>> tables = jdbc.queryForList(
+                "SELECT TABLE_CODE, TARGET_TABLE, SEQUENCE_NAME, PK_COLUMN, PARENT_TABLE_CODE, PARENT_FK_COLUMN "
+                        + "FROM T_COST_TABLE_METADATA WHERE DELETED = 0 ORDER BY ID");
+        Map<String, Map<String, Object>> byCode = new HashMap<>();
+        tables.forEach(t -> byCode.put((String) t.get("TABLE_CODE"), t));
+
+        // 同一目标表只生成一次；记录主表已生成的主键范围供从表引用
+        Map<String, Long> nextIdByTable = new HashMap<>();
+        Map<String, long[]> masterIdRange = new HashMap<>();
+        for (Map<String, Object> t : tables) {
+            if (t.get("PARENT_TABLE_CODE") != null) {
+                continue;
+            }
+            String target = (String) t.get("TARGET_TABLE");
+            if (target == null || nextIdByTable.containsKey(target) || !exists(jdbc, target) || count(jdbc, target) > 0) {
+                continue;
+            }
+            long first = 1_000_000L;
+            insertRows(jdbc, target, (String) t.get("PK_COLUMN"), null, first, masterRows, i -> null);
+            nextIdByTable.put(target, first + masterRows);
+            masterIdRange.put((String) t.get("TABLE_CODE"), new long[]{first, first + masterRows});
+            restartSequence(jdbc, (String) t.get("SEQUENCE_NAME"), first + masterRows);
+        }
+        for (Map<String, Object> t : tables) {
+            String parent = (String) t.get("PARENT_TABLE_CODE");
+            long[] range = parent != null ? masterIdRange.get(parent) : null;
+            String target = (String) t.get("TARGET_TABLE");
+            if (range == null || target == null || !exists(jdbc, target)) {
+                continue;
+            }
+            long first = nextIdByTable.getOrDefault(target, 1_000_000L);
+            int total = (int) (range[1] - range[0]) * detailRows;
+            insertRows(jdbc, target, (String) t.get("PK_COLUMN"), (String) t.get("PARENT_FK_COLUMN"), first, total,
+                    i -> range[0] + i / detailRows);
+            nextIdByTable.put(target, first + total);
+            restartSequence(jdbc, (String) t.get("SEQUENCE_NAME"), first + total);
+        }
+        log.info("[LOADTEST] 合成数据: {} 个目标表", nextIdByTable.size());
+    }
+
+    private void insertRows(JdbcTemplate jdbc, String table, String pkColumn, String fkColumn,
+                            long firstId, int count, java.util.function.IntFunction<Long> fkValue) {
+        List<Map<String, Object>> columns = jdbc.queryForList(
+                "SELECT COLUMN_NAME, DATA_TYPE, CHARACTER_MAXIMUM_LENGTH, NUMERIC_PRECISION, NUMERIC_SCALE "
+                        + "FROM INFORMATION_SCHEMA.COLUMNS WHERE TABLE_SCHEMA = 'PUBLIC' AND TABLE_NAME = ? "
+                        + "ORDER BY ORDINAL_POSITION", table.toUpperCase(Locale.ROOT));
+        if (columns.isEmpty()) {
+            return;
+        }
+        StringJoiner names = new StringJoiner(", ");
+        StringJoiner marks = new StringJoiner(", ");
+        columns.forEach(c -> {
+            names.add((String) c.get("COLUMN_NAME"));
+            marks.add("?");
+        });
+        String sql = "INSERT INTO " + table + " (" + names + ") VALUES (" + marks + ")";
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        List<Object[]> batch = new ArrayList<>(500);
+        for (int i = 0; i < count; i++) {
+            Object[] args = new Object[columns.size()];
+            for (int c = 0; c < columns.size(); c++) {
+                Map<String, Object> col = columns.get(c);
+                String name = (String) col.get("COLUMN_NAME");
+                if (name.equalsIgnoreCase(pkColumn)) {
+                    args[c] = firstId + i;
+                } else if (name.equalsIgnoreCase(fkColumn)) {
+                    args[c] = fkValue.apply(i);
+                } else {
+                    args[c] = syntheticValue(name, col, i, now);
+                }
+            }
+            batch.add(args);
+            if (batch.size() == 500) {
+                jdbc.batchUpdate(sql, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbc.batchUpdate(sql, batch);
+        }
+    }
+
+    private Object syntheticValue(String name, Map<String, Object> col, int i, Timestamp now) {
+        String type = String.valueOf(col.get("DATA_TYPE")).toUpperCase(Locale.ROOT);
+        switch (name) {
+            case "DELETED":
+                return 0;
+            case "CREATE_BY":
+            case "UPDATE_BY":
+                return "admin";
+            default:
+                break;
+        }
+        if (type.contains("LARGE OBJECT")) {
+            return null;
+        }
+        if (type.contains("CHAR")) {
+            Number max = (Number) col.get("CHARACTER_MAXIMUM_LENGTH");
+            String value = name + "-" + i;
+            return max != null && value.length() > max.longValue() ? value.substring(value.length() - max.intValue()) : value;
+        }
+        if (type.contains("NUMERIC") || type.contains("DECIMAL") || type.contains("INT")
+                || type.contains("DOUBLE") || type.contains("REAL")) {
+            Number precision = (Number) col.get("NUMERIC_PRECISION");
+            Number scale = (Number) col.get("NUMERIC_SCALE");
+            int digits = precision == null ? 9 : precision.intValue() - (scale == null ? 0 : scale.intValue());
+            long bound = (long) Math.pow(10, Math.max(1, Math.min(digits, 9)));
+            return BigDecimal.valueOf(i % bound);
+        }
+        if (type.contains("TIMESTAMP") || type.contains("DATE")) {
+            return new Timestamp(now.getTime() - i * 60_000L);
+        }
+        return null;
+    }
+
+    /**
+     * 初始化脚本混用显式 ID 与 SEQ_XXX.NEXTVAL，Oracle 上序列起点远大于显式 ID，
+     * H2 新建序列从 1 开始，每个脚本执行后把 SEQ_COST_XXX 推进到 T_COST_XXX 的 MAX(ID) 之后
+     */
+    private void syncSequences(JdbcTemplate jdbc) {
+        List<String> sequences = jdbc.queryForList(
+                "SELECT SEQUENCE_NAME FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_SCHEMA = 'PUBLIC' AND SEQUENCE_NAME LIKE 'SEQ_%'",
+                String.class);
+        for (String sequence : sequences) {
+            String table = "T_" + sequence.substring("SEQ_".length());
+            if (!exists(jdbc, table)) {
+                continue;
+            }
+            try {
+                Long max = jdbc.queryForObject("SELECT MAX(ID) FROM " + table, Long.class);
+                Long next = jdbc.queryForObject(
+                        "SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_SCHEMA = 'PUBLIC' AND SEQUENCE_NAME = ?",
+                        Long.class, sequence);
+                if (max != null && next != null && next <= max) {
+                    restartSequence(jdbc, sequence, max + 1);
+                }
+            } catch (Exception e) {
+                // 主键不叫 ID 的业务表，由 seedBusinessRows 按主键列重置
+            }
+        }
+    }
+
+    private void restartSequence(JdbcTemplate jdbc, String sequence, long next) {
+        if (sequence == null) {
+            return;
+        }
+        try {
+            jdbc.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + next);
+        } catch (Exception e) {
+            log.debug("[LOADTEST] 重置序列失败 {}: {}", sequence, rootMessage(e));
+        }
+    }
+
+    private boolean exists(JdbcTemplate jdbc, String table) {
+        Integer n = jdbc.queryForObject(
+                "SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_SCHEMA = 'PUBLIC' AND TABLE_NAME = ?",
+                Integer.class, table.toUpperCase(Locale.ROOT));
+        return n != null && n > 0;
+    }
+
+    private long count(JdbcTemplate jdbc, String table) {
+        Long n = jdbc.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+        return n == null ? 0 : n;
+    }
+
+    private static String firstLine(String sql) {
+        int nl = sql.indexOf('\n');
+        String line = nl > 0 ? sql.substring(0, nl) : sql;
+        return line.length() > 120 ? line.substring(0, 120) : line;
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null) {
+            root = root.getCause();
+        }
+        String message = root.getMessage();
+        return message == null ? root.getClass().getSimpleName() : message.split("\n")[0];
+    }
+}
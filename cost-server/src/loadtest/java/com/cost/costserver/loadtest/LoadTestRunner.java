@@ -0,0 +1,224 @@
+package com.cost.costserver.loadtest;
+
+import com.cost.costserver.CostServerApplication;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 端到端压测驱动
+ * 以 loadtest profile 启动完整应用（内嵌 H2），登录 admin 后按权重回放典型请求：
+ * 表格分页查询、Lookup 查询、主从表保存、自定义导出，输出各接口吞吐量与延迟分位数
+ *
+ * 参数（系统属性）：
+ *   loadtest.threads   并发线程数，默认 16
+ *   loadtest.duration  压测时长（秒），默认 60
+ *   loadtest.warmup    预热时长（秒），默认 10
+ *   loadtest.mix       场景权重，默认 grid:60,lookup:20,save:15,export:5
+ *   loadtest.report    JSON 报告路径，默认 target/loadtest/report-时间戳.json
+ */
+public class LoadTestRunner {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+    private final String baseUrl;
+    private final String token;
+    private final Map<String, EndpointStats> stats = new ConcurrentHashMap<>();
+
+    record Scenario(String name, int weight, List<RequestSpec> requests) {
+    }
+
+    record RequestSpec(String endpoint, String method, String path, String body) {
+    }
+
+    LoadTestRunner(String baseUrl, String token) {
+        this.baseUrl = baseUrl;
+        this.token = token;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int threads = Integer.getInteger("loadtest.threads", 16);
+        int duration = Integer.getInteger("loadtest.duration", 60);
+        int warmup = Integer.getInteger("loadtest.warmup", 10);
+        String mix = System.getProperty("loadtest.mix", "grid:60,lookup:20,save:15,export:5");
+
+        System.setProperty("spring.profiles.active", "loadtest");
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(CostServerApplication.class)
+                .run("--server.port=0");
+        int exitCode = 0;
+        try {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            String baseUrl = "http://localhost:" + port;
+            LoadTestRunner runner = new LoadTestRunner(baseUrl, login(baseUrl));
+            List<Scenario> scenarios = ScenarioCatalog.discover(context.getBean(JdbcTemplate.class), parseMix(mix));
+            if (scenarios.isEmpty()) {
+                throw new IllegalStateException("未发现可用场景，请检查 db/init 元数据");
+            }
+            scenarios.forEach(s -> System.out.printf("场景 %-8s 权重 %3d, 请求模板 %d 个%n", s.name(), s.weight(), s.requests().size()));
+
+            System.out.printf("预热 %ds ...%n", warmup);
+            runner.run(scenarios, threads, warmup);
+            runner.stats.clear();
+
+            System.out.printf("压测 %ds, %d 线程 ...%n", duration, threads);
+            long start = System.nanoTime();
+            runner.run(scenarios, threads, duration);
+            double elapsed = (System.nanoTime() - start) / 1e9;
+            runner.report(elapsed, threads, mix);
+        } catch (Exception e) {
+            e.printStackTrace();
+            exitCode = 1;
+        } finally {
+            context.close();
+        }
+        System.exit(exitCode);
+    }
+
+    private static String login(String baseUrl) throws Exception {
+        HttpResponse<String> response = HttpClient.newHttpClient().send(HttpRequest.newBuilder(URI.create(baseUrl + "/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"userName\":\"admin\",\"password\":\"admin123..\"}"))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        JsonNode token = MAPPER.readTree(response.body()).path("data").path("token");
+        if (token.isMissingNode() || token.isNull()) {
+            throw new IllegalStateException("登录失败: " + response.body());
+        }
+        return token.asText();
+    }
+
+    private static Map<String, Integer> parseMix(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String part : mix.split(",")) {
+            String[] kv = part.trim().split(":");
+            if (kv.length == 2) {
+                weights.put(kv[0].trim(), Integer.parseInt(kv[1].trim()));
+            }
+        }
+        return weights;
+    }
+
+    private void run(List<Scenario> scenarios, int threads, int seconds) throws InterruptedException {
+        int totalWeight = scenarios.stream().mapToInt(Scenario::weight).sum();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < deadline) {
+                        Scenario scenario = pick(scenarios, random.nextInt(totalWeight));
+                        RequestSpec spec = scenario.requests().get(random.nextInt(scenario.requests().size()));
+                        execute(scenario.name(), spec);
+                    }
+                } finally {
+                    done.countDown();
+                }
+            }, "loadtest-" + t);
+            worker.start();
+        }
+        done.await();
+    }
+
+    private static Scenario pick(List<Scenario> scenarios, int ticket) {
+        for (Scenario s : scenarios) {
+            ticket -= s.weight();
+            if (ticket < 0) {
+                return s;
+            }
+        }
+        return scenarios.get(scenarios.size() - 1);
+    }
+
+    private void execute(String scenario, RequestSpec spec) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + spec.path()))
+                .timeout(Duration.ofSeconds(60))
+                .header("Authorization", "Bearer " + token);
+        if ("POST".equals(spec.method())) {
+            builder.header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(spec.body() == null ? "{}" : spec.body()));
+        } else {
+            builder.GET();
+        }
+        long start = System.nanoTime();
+        boolean success;
+        try {
+            HttpResponse<byte[]> response = http.send(builder.build(), HttpResponse.BodyHandlers.ofByteArray());
+            success = response.statusCode() < 400 && !isBusinessError(response);
+        } catch (Exception e) {
+            success = false;
+        }
+        stats.computeIfAbsent(scenario + " " + spec.endpoint(), EndpointStats::new)
+                .record(System.nanoTime() - start, success);
+    }
+
+    /**
+     * 接口统一返回 Result，HTTP 200 时通过 code 判断业务是否成功（导出为文件流，无 code）
+     */
+    private static boolean isBusinessError(HttpResponse<byte[]> response) {
+        String contentType = response.headers().firstValue("Content-Type").orElse("");
+        if (!contentType.contains("json")) {
+            return false;
+        }
+        try {
+            JsonNode code = MAPPER.readTree(response.body()).path("code");
+            return code.isNumber() && code.asInt() != 200;
+        } catch (Exception e) {
+            return true;
+        }
+    }
+
+    private void report(double elapsed, int threads, String mix) throws Exception {
+        List<EndpointStats.Report> reports = stats.values().stream()
+                .map(s -> s.report(elapsed))
+                .sorted(Comparator.comparing(EndpointStats.Report::endpoint))
+                .toList();
+
+        System.out.println();
+        System.out.printf("%-60s %8s %6s %9s %9s %9s %9s %9s%n",
+                "endpoint", "count", "err", "req/s", "p50(ms)", "p90(ms)", "p99(ms)", "max(ms)");
+        long total = 0;
+        for (EndpointStats.Report r : reports) {
+            total += r.count();
+            System.out.printf("%-60s %8d %6d %9.1f %9.1f %9.1f %9.1f %9.1f%n", r.endpoint(), r.count(), r.errors(),
+                    r.throughput(), r.p50Ms(), r.p90Ms(), r.p99Ms(), r.maxMs());
+        }
+        System.out.printf("合计 %d 请求, %.1f req/s%n", total, total / elapsed);
+
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        Path path = Path.of(System.getProperty("loadtest.report", "target/loadtest/report-" + timestamp + ".json"));
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("timestamp", timestamp);
+        json.put("threads", threads);
+        json.put("durationSeconds", elapsed);
+        json.put("mix", mix);
+        json.put("endpoints", reports);
+        Files.writeString(path, MAPPER.writeValueAsString(json));
+        System.out.println("报告已写入 " + path.toAbsolutePath());
+    }
+
+    static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
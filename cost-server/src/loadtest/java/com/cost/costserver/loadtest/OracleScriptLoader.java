@@ -0,0 +1,114 @@
+package com.cost.costserver.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * 将 db/init 下的 Oracle 脚本拆分为可在 H2（Oracle 兼容模式）执行的语句
+ * 1. 去掉整行注释和 BOM，按行尾分号拆分（忽略字符串内的分号）
+ * 2. 跳过以 "/" 结束的 PL/SQL 块（存储过程、包、触发器、匿名块）
+ * 3. 跳过 H2 不支持的语句（引用 DB Link 的对象、存储过程调用、GRANT 等）
+ * 4. 改写 H2 不识别的 Oracle 语法（IDENTITY 列的 ON NULL 子句）
+ */
+public final class OracleScriptLoader {
+
+    private static final Pattern PLSQL_START = Pattern.compile(
+            "^(CREATE\\s+(OR\\s+REPLACE\\s+)?(EDITIONABLE\\s+)?(PROCEDURE|FUNCTION|PACKAGE|TRIGGER|TYPE)\\b|BEGIN\\b|DECLARE\\b).*",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final Pattern DB_LINK = Pattern.compile("\\w@\\w", Pattern.CASE_INSENSITIVE);
+    private static final Pattern UNSUPPORTED = Pattern.compile(
+            "^(GRANT|REVOKE|EXEC|EXECUTE|CALL|SET|SPOOL|PROMPT|WHENEVER|@)\\b.*",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final Pattern IDENTITY_ON_NULL = Pattern.compile(
+            "GENERATED\\s+BY\\s+DEFAULT\\s+ON\\s+NULL\\s+AS\\s+IDENTITY", Pattern.CASE_INSENSITIVE);
+
+    private OracleScriptLoader() {
+    }
+
+    public static List<String> split(String script) {
+        if (script.startsWith("﻿")) {
+            script = script.substring(1);
+        }
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean inQuote = false;
+        boolean inPlsql = false;
+
+        for (String line : script.split("\\r?\\n")) {
+            String trimmed = line.trim();
+            if (inPlsql) {
+                // PL/SQL 块以单独一行 "/" 结束
+                if ("/".equals(trimmed)) {
+                    inPlsql = false;
+                    current.setLength(0);
+                }
+                continue;
+            }
+            if (!inQuote && current.isEmpty()) {
+                if (trimmed.isEmpty() || trimmed.startsWith("--") || "/".equals(trimmed)) {
+                    continue;
+                }
+                if (PLSQL_START.matcher(trimmed).matches()) {
+                    inPlsql = true;
+                    continue;
+                }
+            }
+            if (!inQuote && trimmed.startsWith("--")) {
+                continue;
+            }
+
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (c == '\'') {
+                    inQuote = !inQuote;
+                } else if (!inQuote && c == '-' && i + 1 < line.length() && line.charAt(i + 1) == '-') {
+                    // 行尾注释
+                    break;
+                } else if (!inQuote && c == ';') {
+                    add(statements, current.toString());
+                    current.setLength(0);
+                    continue;
+                }
+                current.append(c);
+            }
+            if (!current.isEmpty()) {
+                current.append('\n');
+            }
+        }
+        add(statements, current.toString());
+        return statements;
+    }
+
+    private static void add(List<String> statements, String statement) {
+        String sql = statement.trim();
+        if (sql.isEmpty() || UNSUPPORTED.matcher(sql).matches()) {
+            return;
+        }
+        // 依赖远程库（DB Link）的对象无法在本地创建，相关视图由 Seeder 按目标表兜底
+        if (DB_LINK.matcher(stripLiterals(sql)).find()) {
+            return;
+        }
+        if (sql.toUpperCase(Locale.ROOT).startsWith("COMMIT")) {
+            return;
+        }
+        statements.add(IDENTITY_ON_NULL.matcher(sql).replaceAll("GENERATED BY DEFAULT AS IDENTITY"));
+    }
+
+    private static String stripLiterals(String sql) {
+        StringBuilder sb = new StringBuilder(sql.length());
+        boolean inQuote = false;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                inQuote = !inQuote;
+                continue;
+            }
+            if (!inQuote) {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
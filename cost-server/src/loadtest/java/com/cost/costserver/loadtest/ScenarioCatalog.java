@@ -0,0 +1,168 @@
+package com.cost.costserver.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.*;
+
+/**
+ * 根据初始化后的元数据生成压测场景
+ * grid：页面主表格分页查询（随机页码/排序）
+ * lookup：Lookup 数据源对应表的查询（lookup=true，不走页面权限）
+ * save：主从表新增保存（主表 1 行 + 每个从表 3 行）
+ * export：自定义导出全量
+ */
+final class ScenarioCatalog {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final int PAGE_SIZE = 50;
+
+    private ScenarioCatalog() {
+    }
+
+    static List<LoadTestRunner.Scenario> discover(JdbcTemplate jdbc, Map<String, Integer> weights) {
+        List<LoadTestRunner.Scenario> scenarios = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+            if (entry.getValue() <= 0) {
+                continue;
+            }
+            List<LoadTestRunner.RequestSpec> requests = switch (entry.getKey()) {
+                case "grid" -> gridRequests(jdbc);
+                case "lookup" -> lookupRequests(jdbc);
+                case "save" -> saveRequests(jdbc);
+                case "export" -> exportRequests(jdbc);
+                default -> throw new IllegalArgumentException("未知场景: " + entry.getKey());
+            };
+            if (requests.isEmpty()) {
+                System.out.println("场景 " + entry.getKey() + " 无可用数据，跳过");
+                continue;
+            }
+            scenarios.add(new LoadTestRunner.Scenario(entry.getKey(), entry.getValue(), requests));
+        }
+        return scenarios;
+    }
+
+    private static List<Map<String, Object>> masterGrids(JdbcTemplate jdbc) {
+        return jdbc.queryForList(
+                "SELECT DISTINCT c.PAGE_CODE, c.REF_TABLE_CODE, t.TARGET_TABLE FROM T_COST_PAGE_COMPONENT c "
+                        + "JOIN T_COST_TABLE_METADATA t ON t.TABLE_CODE = c.REF_TABLE_CODE AND t.DELETED = 0 "
+                        + "WHERE c.DELETED = 0 AND c.COMPONENT_TYPE = 'GRID' AND t.PARENT_TABLE_CODE IS NULL "
+                        // 查询视图依赖远程库且目标表也不存在的页面无法在本地压测
+                        + "AND EXISTS (SELECT 1 FROM INFORMATION_SCHEMA.TABLES i "
+                        + "WHERE i.TABLE_SCHEMA = 'PUBLIC' AND i.TABLE_NAME = UPPER(t.QUERY_VIEW)) "
+                        + "ORDER BY c.PAGE_CODE");
+    }
+
+    private static List<LoadTestRunner.RequestSpec> gridRequests(JdbcTemplate jdbc) {
+        List<LoadTestRunner.RequestSpec> requests = new ArrayList<>();
+        for (Map<String, Object> grid : masterGrids(jdbc)) {
+            String pageCode = (String) grid.get("PAGE_CODE");
+            String tableCode = (String) grid.get("REF_TABLE_CODE");
+            List<String> sortable = jdbc.queryForList(
+                    "SELECT c.COLUMN_NAME FROM T_COST_COLUMN_METADATA c JOIN T_COST_TABLE_METADATA t ON t.ID = c.TABLE_METADATA_ID "
+                            + "WHERE t.TABLE_CODE = ? AND c.SORTABLE = 1 AND NVL(c.IS_VIRTUAL, 0) = 0 AND c.DELETED = 0 "
+                            + "ORDER BY c.DISPLAY_ORDER", String.class, tableCode);
+            String base = "/api/data/" + LoadTestRunner.encode(tableCode) + "?pageCode=" + LoadTestRunner.encode(pageCode)
+                    + "&pageSize=" + PAGE_SIZE;
+            String endpoint = "GET /api/data/" + tableCode;
+            for (int page = 1; page <= 5; page++) {
+                requests.add(new LoadTestRunner.RequestSpec(endpoint, "GET", base + "&page=" + page, null));
+            }
+            for (int i = 0; i < Math.min(3, sortable.size()); i++) {
+                requests.add(new LoadTestRunner.RequestSpec(endpoint, "GET",
+                        base + "&page=1&sortField=" + LoadTestRunner.encode(sortable.get(i)) + "&sortOrder=desc", null));
+            }
+        }
+        return requests;
+    }
+
+    private static List<LoadTestRunner.RequestSpec> lookupRequests(JdbcTemplate jdbc) {
+        List<Map<String, Object>> rows = jdbc.queryForList(
+                "SELECT DISTINCT t.TABLE_CODE FROM T_COST_LOOKUP_CONFIG l "
+                        + "JOIN T_COST_TABLE_METADATA t ON UPPER(t.QUERY_VIEW) = UPPER(l.DATA_SOURCE) AND t.DELETED = 0 "
+                        + "WHERE l.DELETED = 0");
+        List<LoadTestRunner.RequestSpec> requests = new ArrayList<>();
+        for (Map<String, Object> row : rows) {
+            String tableCode = (String) row.get("TABLE_CODE");
+            requests.add(new LoadTestRunner.RequestSpec("GET /api/data/" + tableCode + "?lookup", "GET",
+                    "/api/data/" + LoadTestRunner.encode(tableCode) + "?lookup=true&page=1&pageSize=20", null));
+        }
+        return requests;
+    }
+
+    private static List<LoadTestRunner.RequestSpec> saveRequests(JdbcTemplate jdbc) {
+        List<LoadTestRunner.RequestSpec> requests = new ArrayList<>();
+        for (Map<String, Object> grid : masterGrids(jdbc)) {
+            String pageCode = (String) grid.get("PAGE_CODE");
+            String tableCode = (String) grid.get("REF_TABLE_CODE");
+            List<String> details = jdbc.queryForList(
+                    "SELECT TABLE_CODE FROM T_COST_TABLE_METADATA WHERE PARENT_TABLE_CODE = ? AND DELETED = 0",
+                    String.class, tableCode);
+            if (details.isEmpty()) {
+                continue;
+            }
+            Map<String, Object> param = new LinkedHashMap<>();
+            param.put("pageCode", pageCode);
+            Map<String, Object> masterData = sampleData(jdbc, tableCode);
+            masterData.put("_tableCode", tableCode);
+            param.put("master", record(masterData));
+            Map<String, List<Map<String, Object>>> detailMap = new LinkedHashMap<>();
+            for (String detail : details) {
+                List<Map<String, Object>> items = new ArrayList<>();
+                for (int i = 0; i < 3; i++) {
+                    items.add(record(sampleData(jdbc, detail)));
+                }
+                detailMap.put(detail, items);
+            }
+            param.put("details", detailMap);
+            try {
+                requests.add(new LoadTestRunner.RequestSpec("POST /api/data/save " + tableCode, "POST",
+                        "/api/data/save", MAPPER.writeValueAsString(param)));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return requests;
+    }
+
+    private static Map<String, Object> record(Map<String, Object> data) {
+        Map<String, Object> item = new LinkedHashMap<>();
+        item.put("status", "added");
+        item.put("data", data);
+        return item;
+    }
+
+    /**
+     * 按列元数据生成一行新增数据（主键、外键由保存逻辑填充）
+     */
+    private static Map<String, Object> sampleData(JdbcTemplate jdbc, String tableCode) {
+        Map<String, Object> meta = jdbc.queryForMap(
+                "SELECT ID, QUERY_VIEW, PK_COLUMN, PARENT_FK_COLUMN FROM T_COST_TABLE_METADATA WHERE TABLE_CODE = ?", tableCode);
+        List<Map<String, Object>> columns = jdbc.queryForList(
+                "SELECT COLUMN_NAME, DATA_TYPE FROM T_COST_COLUMN_METADATA "
+                        + "WHERE TABLE_METADATA_ID = ? AND NVL(IS_VIRTUAL, 0) = 0 AND DELETED = 0", meta.get("ID"));
+        Map<String, Object> data = new LinkedHashMap<>();
+        for (Map<String, Object> col : columns) {
+            String name = (String) col.get("COLUMN_NAME");
+            if (name.equalsIgnoreCase((String) meta.get("PK_COLUMN"))
+                    || name.equalsIgnoreCase((String) meta.get("PARENT_FK_COLUMN"))) {
+                continue;
+            }
+            String type = (String) col.get("DATA_TYPE");
+            data.put(name, "number".equals(type) ? 1 : "date".equals(type) || "datetime".equals(type)
+                    ? "2025-01-01 00:00:00" : "LT");
+        }
+        return data;
+    }
+
+    private static List<LoadTestRunner.RequestSpec> exportRequests(JdbcTemplate jdbc) {
+        List<String> codes = jdbc.queryForList(
+                "SELECT EXPORT_CODE FROM T_COST_EXPORT_CONFIG WHERE DELETED = 0", String.class);
+        List<LoadTestRunner.RequestSpec> requests = new ArrayList<>();
+        for (String code : codes) {
+            requests.add(new LoadTestRunner.RequestSpec("POST /api/export-config/custom/" + code + "/export", "POST",
+                    "/api/export-config/custom/" + LoadTestRunner.encode(code) + "/export", "{\"mode\":\"all\"}"));
+        }
+        return requests;
+    }
+}
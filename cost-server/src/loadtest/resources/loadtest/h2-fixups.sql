@@ -0,0 +1,22 @@
+-- ============================================================
+-- H2 压测库兼容性修正（在 db/init 脚本之后执行）
+-- ============================================================
+
+-- admin 用户初始化脚本未写入密码，由 AdminPasswordInitializer 启动时设置
+ALTER TABLE T_COST_USER ALTER COLUMN PASSWORD SET NULL;
+
+-- db/migration/02_ddl_add_columns.sql 中 PL/SQL 的 safe_add_column 在 H2 下被跳过，这里等价补齐
+ALTER TABLE T_COST_COLUMN_METADATA ADD COLUMN IF NOT EXISTS VISIBLE NUMBER(1);
+ALTER TABLE T_COST_COLUMN_METADATA ADD COLUMN IF NOT EXISTS EDITABLE NUMBER(1);
+ALTER TABLE T_COST_COLUMN_METADATA ADD COLUMN IF NOT EXISTS REQUIRED NUMBER(1);
+ALTER TABLE T_COST_COLUMN_METADATA ADD COLUMN IF NOT EXISTS SEARCHABLE NUMBER(1);
+ALTER TABLE T_COST_COLUMN_METADATA ADD COLUMN IF NOT EXISTS WIDTH NUMBER(5);
+ALTER TABLE T_COST_COLUMN_METADATA ADD COLUMN IF NOT EXISTS PINNED VARCHAR2(10);
+ALTER TABLE T_COST_COLUMN_METADATA ADD COLUMN IF NOT EXISTS CELL_EDITOR VARCHAR2(64);
+ALTER TABLE T_COST_COLUMN_METADATA ADD COLUMN IF NOT EXISTS DEFAULT_VALUE VARCHAR2(1000);
+ALTER TABLE T_COST_COLUMN_METADATA ADD COLUMN IF NOT EXISTS RULES_CONFIG CLOB;
+ALTER TABLE T_COST_COLUMN_METADATA ADD COLUMN IF NOT EXISTS MIGRATED NUMBER(1) DEFAULT 0;
+ALTER TABLE T_COST_TABLE_METADATA ADD COLUMN IF NOT EXISTS PAGE_CODE VARCHAR2(64);
+ALTER TABLE T_COST_TABLE_METADATA ADD COLUMN IF NOT EXISTS COMPONENT_KEY VARCHAR2(64);
+ALTER TABLE T_COST_TABLE_METADATA ADD COLUMN IF NOT EXISTS SOURCE_TABLE_CODE VARCHAR2(64);
+ALTER TABLE WF_FLOW_NODE ADD COLUMN IF NOT EXISTS ACTION_CONFIG CLOB;
@@ -0,0 +1,25 @@
+-- ============================================================
+-- 压测补充数据（在 db/init 元数据与业务数据之后执行）
+-- ============================================================
+
+-- 压测账号（admin）的角色补齐所有页面的全部按钮权限，确保各场景不被权限拦截
+INSERT INTO T_COST_ROLE_PAGE (ID, ROLE_ID, PAGE_CODE, BUTTON_POLICY, COLUMN_POLICY, ROW_POLICY)
+SELECT SEQ_COST_ROLE_PAGE.NEXTVAL, t.ROLE_ID, t.PAGE_CODE, '["*"]', NULL, NULL
+FROM (
+  SELECT DISTINCT ur.ROLE_ID, p.PAGE_CODE
+  FROM T_COST_USER u
+  JOIN T_COST_USER_ROLE ur ON ur.USER_ID = u.ID
+  CROSS JOIN (
+    SELECT PAGE_CODE FROM T_COST_RESOURCE WHERE PAGE_CODE IS NOT NULL
+    UNION
+    SELECT PAGE_CODE FROM T_COST_PAGE_COMPONENT
+  ) p
+  WHERE u.USERNAME = 'admin'
+    AND NOT EXISTS (SELECT 1 FROM T_COST_ROLE_PAGE rp WHERE rp.ROLE_ID = ur.ROLE_ID AND rp.PAGE_CODE = p.PAGE_CODE)
+) t;
+UPDATE T_COST_ROLE_PAGE SET BUTTON_POLICY = '["*"]'
+WHERE ROLE_ID IN (SELECT ur.ROLE_ID FROM T_COST_USER u JOIN T_COST_USER_ROLE ur ON ur.USER_ID = u.ID WHERE u.USERNAME = 'admin');
+
+-- 压测用自定义导出配置（物料成本核算表全量导出）
+INSERT INTO T_COST_EXPORT_CONFIG (ID, EXPORT_CODE, EXPORT_NAME, PAGE_CODE, MASTER_SQL, MASTER_TABLE_ALIAS, PK_COLUMN, DISPLAY_ORDER, DELETED, CREATE_BY)
+VALUES (900001, 'loadtest-pinggu', '压测导出-物料成本核算表', 'cost-pinggu', 'SELECT a.* FROM T_COST_PINGGU a WHERE a.DELETED = 0', 'a', 'DOCID', 0, 0, 'system');
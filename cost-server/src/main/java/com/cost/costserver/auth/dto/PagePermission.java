@@ -10,7 +10,7 @@ public record PagePermission(
     String pageCode,
     Set<String> buttons,
     Map<String, ColumnPermission> columns,
-    String rowFilter
+    RowFilter rowFilter   // 行级过滤（绑定变量条件），null 表示不过滤
 ) {
     public boolean hasButton(String button) {
         return buttons != null && (buttons.contains("*") || buttons.contains(button));
@@ -0,0 +1,141 @@
+package com.cost.costserver.auth.dto;
+
+import com.cost.costserver.common.SecurityUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 编译后的行权限条件
+ * 占位符 ${userId}/${username} 编译为 ? 绑定变量，SQL 文本与用户无关，
+ * 同一角色组合的用户共享同一条 SQL（同一游标），绑定值在查询时按当前登录用户取。
+ * 出现在字符串字面量内的占位符编译为 '...' || ? || '...' 拼接。
+ * 物化模式下条件为对键集表的半连接，键集编号（keySet 参数）在查询时由 RowPermissionKeyService 解析
+ */
+public record RowFilter(
+    String sql,
+    List<String> params,   // 按 ? 顺序的占位符名
+    List<KeySet> keySets   // 按顺序对应 params 中的 keySet
+) {
+    public static final String USER_ID = "userId";
+    public static final String USERNAME = "username";
+    public static final String KEY_SET = "keySet";
+
+    private static final Object[] NO_ARGS = new Object[0];
+
+    /**
+     * 物化键集：column 的取值限定在 query 查出的键集内，键集按 ttl 刷新
+     */
+    public record KeySet(String column, RowFilter query, Duration ttl) {
+    }
+
+    /**
+     * 编译行权限 SQL 模板，未知占位符保持原样
+     */
+    public static RowFilter compile(String template) {
+        if (template == null || !template.contains("${")) {
+            return new RowFilter(template, List.of(), List.of());
+        }
+        StringBuilder sql = new StringBuilder(template.length());
+        List<String> params = new ArrayList<>(2);
+        boolean inQuote = false;
+        int i = 0;
+        while (i < template.length()) {
+            char c = template.charAt(i);
+            if (c == '$' && i + 1 < template.length() && template.charAt(i + 1) == '{') {
+                int end = template.indexOf('}', i + 2);
+                String name = end > 0 ? template.substring(i + 2, end) : null;
+                if (USER_ID.equals(name) || USERNAME.equals(name)) {
+                    params.add(name);
+                    int next = end + 1;
+                    if (inQuote && endsWithQuote(sql) && next < template.length() && template.charAt(next) == '\'') {
+                        // '${name}' 整体替换为 ?
+                        sql.setLength(sql.length() - 1);
+                        sql.append('?');
+                        inQuote = false;
+                        next++;
+                    } else if (inQuote) {
+                        sql.append("' || ? || '");
+                    } else {
+                        sql.append('?');
+                    }
+                    i = next;
+                    continue;
+                }
+            }
+            if (c == '\'') {
+                inQuote = !inQuote;
+            }
+            sql.append(c);
+            i++;
+        }
+        return new RowFilter(sql.toString(), List.copyOf(params), List.of());
+    }
+
+    /**
+     * 物化模式：column IN (键集)
+     */
+    public static RowFilter materialized(String column, RowFilter query, Duration ttl) {
+        return new RowFilter(column + " IN (SELECT KEY_VALUE FROM T_COST_ROW_PERM_KEY WHERE SET_KEY = ?)",
+                List.of(KEY_SET), List.of(new KeySet(column, query, ttl)));
+    }
+
+    private static boolean endsWithQuote(StringBuilder sql) {
+        return sql.length() > 0 && sql.charAt(sql.length() - 1) == '\'';
+    }
+
+    /**
+     * 当前登录用户的绑定值（与 params 一一对应），不含物化键集
+     */
+    public Object[] bindValues() {
+        return bindValues(keySet -> {
+            throw new IllegalStateException("物化行权限需要解析键集: " + keySet.column());
+        });
+    }
+
+    /**
+     * 当前登录用户的绑定值，物化键集由 keySetResolver 解析为键集编号
+     */
+    public Object[] bindValues(Function<KeySet, String> keySetResolver) {
+        if (params.isEmpty()) {
+            return NO_ARGS;
+        }
+        Object[] values = new Object[params.size()];
+        int keySetIndex = 0;
+        for (int i = 0; i < values.length; i++) {
+            String param = params.get(i);
+            if (KEY_SET.equals(param)) {
+                values[i] = keySetResolver.apply(keySets.get(keySetIndex++));
+            } else if (USER_ID.equals(param)) {
+                values[i] = SecurityUtils.getCurrentUserId();
+            } else {
+                values[i] = SecurityUtils.getCurrentUsername();
+            }
+        }
+        return values;
+    }
+
+    /**
+     * 多角色合并：各条件 OR 连接
+     */
+    public static RowFilter or(List<RowFilter> filters) {
+        if (filters.size() == 1) {
+            RowFilter only = filters.get(0);
+            return new RowFilter("(" + only.sql() + ")", only.params(), only.keySets());
+        }
+        StringBuilder sql = new StringBuilder();
+        List<String> params = new ArrayList<>();
+        List<KeySet> keySets = new ArrayList<>();
+        for (RowFilter filter : filters) {
+            if (sql.length() > 0) {
+                sql.append(" OR ");
+            }
+            sql.append('(').append(filter.sql()).append(')');
+            params.addAll(filter.params());
+            keySets.addAll(filter.keySets());
+        }
+        return new RowFilter(sql.toString(), List.copyOf(params), List.copyOf(keySets));
+    }
+}
@@ -1,6 +1,7 @@
 package com.cost.costserver.auth.filter;
 
 import com.cost.costserver.common.JwtUtil;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -28,15 +29,17 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         String token = extractToken(request);
 
-        if (StringUtils.hasText(token) && jwtUtil.validateToken(token)) {
+        // 已验签的 Token 由 JwtUtil 按摘要缓存，重复请求不再验签
+        Claims claims = StringUtils.hasText(token) ? jwtUtil.verify(token) : null;
+        if (claims != null) {
             // 只允许 AccessToken，不允许 RefreshToken
-            if (jwtUtil.isRefreshToken(token)) {
+            if (JwtUtil.isRefreshToken(claims)) {
                 filterChain.doFilter(request, response);
                 return;
             }
 
-            Long userId = jwtUtil.getUserId(token);
-            String username = jwtUtil.getUsername(token);
+            Long userId = JwtUtil.getUserId(claims);
+            String username = claims.getSubject();
 
             // 创建认证对象
             UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
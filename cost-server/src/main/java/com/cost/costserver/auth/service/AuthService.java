@@ -12,6 +12,7 @@ import com.cost.costserver.auth.mapper.RoleMapper;
 import com.cost.costserver.auth.mapper.UserMapper;
 import com.cost.costserver.common.BusinessException;
 import com.cost.costserver.common.JwtUtil;
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -60,12 +61,13 @@ public class AuthService {
      * 获取用户信息
      */
     public UserInfo getUserInfo(String token) {
-        if (!jwtUtil.validateToken(token)) {
+        Claims claims = jwtUtil.verify(token);
+        if (claims == null) {
             throw new BusinessException(401, "Token无效");
         }
 
-        Long userId = jwtUtil.getUserId(token);
-        String username = jwtUtil.getUsername(token);
+        Long userId = JwtUtil.getUserId(claims);
+        String username = claims.getSubject();
         User user = userMapper.selectById(userId);
 
         // 查询用户角色
@@ -88,16 +90,17 @@ public class AuthService {
      * 刷新 Token
      */
     public LoginToken refreshToken(String refreshToken) {
-        if (!jwtUtil.validateToken(refreshToken)) {
+        Claims claims = jwtUtil.verify(refreshToken);
+        if (claims == null) {
             throw new BusinessException(401, "RefreshToken无效");
         }
 
-        if (!jwtUtil.isRefreshToken(refreshToken)) {
+        if (!JwtUtil.isRefreshToken(claims)) {
             throw new BusinessException(401, "不是有效的RefreshToken");
         }
 
-        Long userId = jwtUtil.getUserId(refreshToken);
-        String username = jwtUtil.getUsername(refreshToken);
+        Long userId = JwtUtil.getUserId(claims);
+        String username = claims.getSubject();
 
         String newAccessToken = jwtUtil.generateAccessToken(userId, username);
         String newRefreshToken = jwtUtil.generateRefreshToken(userId, username);
@@ -109,12 +112,13 @@ public class AuthService {
      * 修改当前登录用户密码
      */
     public void changePassword(String token, String newPassword) {
-        if (!jwtUtil.validateToken(token)) {
+        Claims claims = jwtUtil.verify(token);
+        if (claims == null) {
             throw new BusinessException(401, "Token无效");
         }
 
-        Long userId = jwtUtil.getUserId(token);
-        String username = jwtUtil.getUsername(token);
+        Long userId = JwtUtil.getUserId(claims);
+        String username = claims.getSubject();
 
         User user = userMapper.selectById(userId);
         if (user == null) {
@@ -2,31 +2,48 @@ package com.cost.costserver.auth.service;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.cost.costserver.auth.dto.MenuRoute;
-import com.cost.costserver.auth.dto.UserPermissionContext;
 import com.cost.costserver.auth.dto.UserRoute;
-import com.cost.costserver.auth.entity.Role;
 import com.cost.costserver.auth.entity.Resource;
 import com.cost.costserver.auth.mapper.ResourceMapper;
-import com.cost.costserver.auth.mapper.RoleMapper;
 import com.cost.costserver.common.SecurityUtils;
+import com.cost.costserver.monitor.CacheMetrics;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
+/**
+ * 用户菜单服务
+ * 菜单树只取决于用户可访问的页面集合（由角色组合决定）和资源配置，
+ * 按该集合的指纹缓存构建好的路由树，同一角色组合的用户共享；
+ * 资源、角色、页面授权变更时由调用方失效（存在事务时在提交后失效）
+ */
 @Service
 @RequiredArgsConstructor
 public class MenuService {
 
     private final ResourceMapper resourceMapper;
     private final PermissionService permissionService;
-    private final RoleMapper roleMapper;
     private static final String SUPER_ADMIN_USERNAME = "admin";
     private static final Set<String> ADMIN_ONLY_PAGES = Set.of("meta-config");
 
+    /**
+     * 页面集合指纹 -> 路由树（只读，勿修改）
+     */
+    private final Map<String, UserRoute> routeCache = new ConcurrentHashMap<>();
+    /**
+     * 失效代数：加载期间发生失效时不回填，避免旧数据覆盖
+     */
+    private final AtomicLong generation = new AtomicLong();
+
     /**
      * 获取用户菜单（根据权限过滤）
      */
@@ -34,28 +51,59 @@ public class MenuService {
         if (userId == null) {
             return new UserRoute(List.of(), "home");
         }
+        String currentUsername = SecurityUtils.getCurrentUsername();
+
+        // 获取用户有权限的 pageCode 集合（已按用户缓存）
+        Set<String> allowedPageCodes = permissionService.getPageCodes(userId);
+
+        String fingerprint = (isAdminUsername(currentUsername) ? "admin:" : "user:")
+                + String.join(",", new TreeSet<>(allowedPageCodes));
+        UserRoute cached = routeCache.get(fingerprint);
+        if (cached != null) {
+            CacheMetrics.hit("user-routes");
+            return cached;
+        }
+        CacheMetrics.miss("user-routes");
+        long gen = generation.get();
+
         // 查询所有菜单资源
         List<Resource> resources = resourceMapper.selectList(
             new LambdaQueryWrapper<Resource>()
                 .orderByAsc(Resource::getSortOrder)
         );
 
-        // 获取用户角色
-        List<Role> roles = roleMapper.selectByUserId(userId);
-        List<String> roleCodes = roles.stream().map(Role::getRoleCode).toList();
-        String currentUsername = SecurityUtils.getCurrentUsername();
-
-        // 获取用户有权限的 pageCode 集合
-        UserPermissionContext permContext = permissionService.buildUserPermissionContext(userId, currentUsername, roleCodes);
-        Set<String> allowedPageCodes = permContext.pageCodes();
-
         // 过滤菜单：PAGE 类型必须有权限，DIRECTORY 类型保留（后续根据子菜单决定）
         List<Resource> filteredResources = filterResourcesByPermission(resources, allowedPageCodes, currentUsername);
 
         // 构建树形结构
         List<MenuRoute> routes = buildMenuTree(filteredResources);
 
-        return new UserRoute(routes, "home");
+        UserRoute userRoute = new UserRoute(routes, "home");
+        if (generation.get() == gen) {
+            routeCache.put(fingerprint, userRoute);
+        }
+        return userRoute;
+    }
+
+    /**
+     * 失效全部菜单缓存（资源、角色、页面授权变更）
+     */
+    public void evictAll() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    clear();
+                }
+            });
+        } else {
+            clear();
+        }
+    }
+
+    private void clear() {
+        generation.incrementAndGet();
+        routeCache.clear();
     }
 
     /**
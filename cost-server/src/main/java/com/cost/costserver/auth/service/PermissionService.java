@@ -6,96 +6,179 @@ import cn.hutool.json.JSONUtil;
 import com.cost.costserver.auth.dto.*;
 import com.cost.costserver.auth.entity.RolePage;
 import com.cost.costserver.auth.mapper.RolePageMapper;
-import com.cost.costserver.common.SecurityUtils;
+import com.cost.costserver.dynamic.util.SqlTemplateUtils;
+import com.cost.costserver.monitor.CacheMetrics;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 权限组装服务
- * 负责将分散的权限配置组装为完整的用户权限上下文
+ * 负责将分散的权限配置组装为完整的用户权限上下文。
+ * 按用户缓存编译后的页面权限（按钮、列权限已解析，行权限编译为绑定变量条件），
+ * 角色/页面授权/用户角色变更时由调用方失效（存在事务时在提交后失效）
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class PermissionService {
 
+    public static final String MATERIALIZED_MODE = "materialized";
+    public static final long DEFAULT_KEY_SET_TTL_SECONDS = 300;
+    public static final long MAX_KEY_SET_TTL_SECONDS = 3600;
+
     private final RolePageMapper rolePageMapper;
 
+    private final Map<Long, Map<String, PagePermission>> cache = new ConcurrentHashMap<>();
+    /**
+     * 失效代数：加载期间发生失效时不回填，避免旧数据覆盖
+     */
+    private final AtomicLong generation = new AtomicLong();
+    /**
+     * 页面 + 角色组合 -> 合并后的行权限（无行权限时为 empty）
+     */
+    private final Map<String, Optional<RowFilter>> rowFilters = new ConcurrentHashMap<>();
+
+    /**
+     * 失效代数，每次权限缓存失效时递增；须在读取权限之前读取，用作依赖权限的响应版本
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+
     /**
      * 组装用户完整权限上下文
      */
     public UserPermissionContext buildUserPermissionContext(Long userId, String username, List<String> roles) {
-        // 查询用户所有页面权限
-        List<RolePage> rolePages = rolePageMapper.selectByUserId(userId);
-        
-        // 组装页面权限（多角色合并：取并集）
-        Map<String, PagePermission> pagePermissions = new HashMap<>();
-        Set<String> pageCodes = new HashSet<>();
-        
-        for (RolePage rp : rolePages) {
-            String pageCode = rp.getPageCode();
-            pageCodes.add(pageCode);
-            
-            // 解析按钮权限
-            Set<String> buttons = parseButtons(rp.getButtonPolicy());
-            
-            // 解析列权限
-            Map<String, ColumnPermission> columns = parseColumns(rp.getColumnPolicy());
-            
-            // 行权限直接使用 SQL 条件字符串
-            String rowFilter = parseRowFilter(rp.getRowPolicy());
-            
-            // 合并权限（多角色取并集）
-            PagePermission existing = pagePermissions.get(pageCode);
-            if (existing == null) {
-                pagePermissions.put(pageCode, new PagePermission(pageCode, buttons, columns, rowFilter));
-            } else {
-                pagePermissions.put(pageCode, mergePagePermission(existing, buttons, columns, rowFilter));
-            }
-        }
-        
-        return new UserPermissionContext(userId, username, roles, pageCodes, pagePermissions);
+        Map<String, PagePermission> compiled = getCompiledPermissions(userId);
+        return new UserPermissionContext(userId, username, roles, compiled.keySet(), compiled);
+    }
+
+    /**
+     * 用户有权限的 pageCode 集合
+     */
+    public Set<String> getPageCodes(Long userId) {
+        return getCompiledPermissions(userId).keySet();
     }
 
     /**
      * 获取指定页面的权限
      */
     public PagePermission getPagePermission(Long userId, String pageCode) {
-        List<RolePage> rolePages = rolePageMapper.selectByUserId(userId);
-        
-        boolean hasPage = false;
-        Set<String> mergedButtons = new HashSet<>();
-        Map<String, ColumnPermission> mergedColumns = new HashMap<>();
-        StringBuilder mergedRowFilter = new StringBuilder();
-        
-        for (RolePage rp : rolePages) {
-            if (!pageCode.equals(rp.getPageCode())) continue;
-            hasPage = true;
-            
-            Set<String> buttons = parseButtons(rp.getButtonPolicy());
-            mergedButtons.addAll(buttons);
-            
-            Map<String, ColumnPermission> columns = parseColumns(rp.getColumnPolicy());
-            mergeColumns(mergedColumns, columns);
-            
-            String rowFilter = parseRowFilter(rp.getRowPolicy());
-            if (StrUtil.isNotBlank(rowFilter)) {
-                if (mergedRowFilter.length() > 0) {
-                    mergedRowFilter.append(" OR ");
+        return getCompiledPermissions(userId).get(pageCode); // null 表示无页面权限
+    }
+
+    /**
+     * 失效单个用户的权限缓存（用户角色变更）
+     */
+    public void evictUser(Long userId) {
+        afterCommit(() -> {
+            generation.incrementAndGet();
+            cache.remove(userId);
+        });
+    }
+
+    /**
+     * 失效全部权限缓存（角色、页面授权变更）
+     */
+    public void evictAll() {
+        afterCommit(() -> {
+            generation.incrementAndGet();
+            cache.clear();
+            rowFilters.clear();
+        });
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
                 }
-                mergedRowFilter.append("(").append(rowFilter).append(")");
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private Map<String, PagePermission> getCompiledPermissions(Long userId) {
+        Map<String, PagePermission> cached = cache.get(userId);
+        if (cached != null) {
+            CacheMetrics.hit("page-permission");
+            return cached;
+        }
+        CacheMetrics.miss("page-permission");
+
+        long gen = generation.get();
+        Map<String, PagePermission> compiled = compile(rolePageMapper.selectByUserId(userId), gen);
+        if (generation.get() == gen) {
+            cache.put(userId, compiled);
+        }
+        return compiled;
+    }
+
+    /**
+     * 编译用户所有页面权限（多角色合并：按钮取并集，列权限取并集，行权限 OR 合并）
+     */
+    private Map<String, PagePermission> compile(List<RolePage> rolePages, long gen) {
+        Map<String, List<RolePage>> rolePagesByPage = new HashMap<>();
+        for (RolePage rp : rolePages) {
+            rolePagesByPage.computeIfAbsent(rp.getPageCode(), k -> new ArrayList<>()).add(rp);
+        }
+
+        Map<String, PagePermission> result = new HashMap<>(rolePagesByPage.size() * 2);
+        for (Map.Entry<String, List<RolePage>> entry : rolePagesByPage.entrySet()) {
+            String pageCode = entry.getKey();
+            List<RolePage> pageRoles = entry.getValue();
+            Set<String> buttons = new HashSet<>();
+            Map<String, ColumnPermission> columns = new HashMap<>();
+            for (RolePage rp : pageRoles) {
+                buttons.addAll(parseButtons(rp.getButtonPolicy()));
+                mergeColumns(columns, parseColumns(rp.getColumnPolicy()));
             }
+            result.put(pageCode, new PagePermission(pageCode,
+                    Collections.unmodifiableSet(buttons),
+                    Collections.unmodifiableMap(columns),
+                    getRowFilter(pageCode, pageRoles, gen)));
         }
-        
-        if (!hasPage) {
-            return null; // 无页面权限
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * 行权限按 页面 + 角色组合 缓存，角色相同的用户共享同一 RowFilter（同一 SQL 文本）
+     */
+    private RowFilter getRowFilter(String pageCode, List<RolePage> pageRoles, long gen) {
+        pageRoles.sort(Comparator.comparing(RolePage::getRoleId, Comparator.nullsLast(Comparator.naturalOrder())));
+        StringBuilder key = new StringBuilder(pageCode);
+        for (RolePage rp : pageRoles) {
+            key.append(':').append(rp.getRoleId());
         }
-        
-        String finalRowFilter = mergedRowFilter.length() > 0 ? mergedRowFilter.toString() : null;
-        return new PagePermission(pageCode, mergedButtons, mergedColumns, finalRowFilter);
+        String roleSetKey = key.toString();
+        Optional<RowFilter> cached = rowFilters.get(roleSetKey);
+        if (cached != null) {
+            return cached.orElse(null);
+        }
+
+        List<RowFilter> filters = new ArrayList<>(pageRoles.size());
+        for (RolePage rp : pageRoles) {
+            RowFilter filter = parseRowFilter(rp.getRowPolicy());
+            if (filter != null) {
+                filters.add(filter);
+            }
+        }
+        RowFilter merged = filters.isEmpty() ? null : RowFilter.or(filters);
+        if (generation.get() == gen) {
+            rowFilters.put(roleSetKey, Optional.ofNullable(merged));
+        }
+        return merged;
     }
 
     /**
@@ -129,7 +212,7 @@ public class PermissionService {
      * {"masterGrid": {"GOODSNAME": {"visible": true, "editable": false}}, "material": {...}}
      * {"GOODSNAME": {"visible": true, "editable": false}, ...}
      */
-    private Map<String, ColumnPermission> parseColumns(String columnPolicy) {
+    Map<String, ColumnPermission> parseColumns(String columnPolicy) {
         if (StrUtil.isBlank(columnPolicy)) {
             return Collections.emptyMap();
         }
@@ -233,12 +316,13 @@ public class PermissionService {
 
     /**
      * 解析行权限 SQL 条件
-     * 支持两种格式：
+     * 支持三种格式：
      * 1. 可视化模式 JSON：{"mode":"visual","conditions":[...],"sql":"..."}
      * 2. 自定义 SQL 模式：直接是 SQL 字符串
-     * 支持占位符：${userId}, ${username}
+     * 3. 物化模式 JSON：{"mode":"materialized",...}，见 parseMaterialized
+     * 支持占位符：${userId}, ${username}（编译为绑定变量，见 RowFilter）
      */
-    private String parseRowFilter(String rowPolicy) {
+    RowFilter parseRowFilter(String rowPolicy) {
         if (StrUtil.isBlank(rowPolicy)) {
             return null;
         }
@@ -249,6 +333,9 @@ public class PermissionService {
         if (rowPolicy.trim().startsWith("{")) {
             try {
                 JSONObject json = JSONUtil.parseObj(rowPolicy);
+                if (MATERIALIZED_MODE.equals(json.getStr("mode"))) {
+                    return parseMaterialized(json);
+                }
                 sql = json.getStr("sql");
                 if (StrUtil.isBlank(sql)) {
                     return null;
@@ -259,44 +346,27 @@ public class PermissionService {
             }
         }
         
-        // 解析占位符
-        Long userId = SecurityUtils.getCurrentUserId();
-        String username = SecurityUtils.getCurrentUsername();
-        
-        if (userId != null) {
-            sql = sql.replace("${userId}", userId.toString());
-        }
-        if (username != null) {
-            sql = sql.replace("${username}", "'" + username.replace("'", "''") + "'");
-        }
-        
-        return sql;
+        // 占位符编译为绑定变量
+        return RowFilter.compile(sql);
     }
 
     /**
-     * 合并页面权限（多角色取并集）
+     * 物化模式：{"mode":"materialized","column":"DEPT_ID","keySql":"SELECT ...","ttlSeconds":300,"sql":"..."}
+     * keySql 返回单列键值（可含占位符），按 ttlSeconds 物化到 T_COST_ROW_PERM_KEY；
+     * 配置无效（含 keySql 的选择列不是恰好一列）时退回 sql 字段作为普通条件，两者都不可用时拒绝访问全部行
      */
-    private PagePermission mergePagePermission(PagePermission existing, Set<String> buttons, 
-                                                Map<String, ColumnPermission> columns, String rowFilter) {
-        // 按钮取并集
-        Set<String> mergedButtons = new HashSet<>(existing.buttons());
-        mergedButtons.addAll(buttons);
-        
-        // 列权限取并集（visible/editable 任一为 true 则为 true）
-        Map<String, ColumnPermission> mergedColumns = new HashMap<>(existing.columns());
-        mergeColumns(mergedColumns, columns);
-        
-        // 行权限用 OR 合并
-        String mergedRowFilter = existing.rowFilter();
-        if (StrUtil.isNotBlank(rowFilter)) {
-            if (StrUtil.isNotBlank(mergedRowFilter)) {
-                mergedRowFilter = "(" + mergedRowFilter + ") OR (" + rowFilter + ")";
-            } else {
-                mergedRowFilter = rowFilter;
-            }
+    private RowFilter parseMaterialized(JSONObject json) {
+        String column = json.getStr("column");
+        String keySql = json.getStr("keySql");
+        long ttlSeconds = json.getLong("ttlSeconds", DEFAULT_KEY_SET_TTL_SECONDS);
+        if (StrUtil.isNotBlank(column) && column.matches("^[A-Za-z][A-Za-z0-9_]*$") && StrUtil.isNotBlank(keySql)
+                && SqlTemplateUtils.selectColumnCount(keySql) == 1 && ttlSeconds > 0 && ttlSeconds <= MAX_KEY_SET_TTL_SECONDS) {
+            return RowFilter.materialized(column.toUpperCase(Locale.ROOT), RowFilter.compile(keySql),
+                    Duration.ofSeconds(ttlSeconds));
         }
-        
-        return new PagePermission(existing.pageCode(), mergedButtons, mergedColumns, mergedRowFilter);
+        log.warn("物化行权限配置无效，退回普通条件: {}", json);
+        String sql = json.getStr("sql");
+        return RowFilter.compile(StrUtil.isNotBlank(sql) ? sql : "1 = 0");
     }
 
     /**
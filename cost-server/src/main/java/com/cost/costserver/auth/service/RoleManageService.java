@@ -36,6 +36,8 @@ public class RoleManageService {
     private final DynamicMapper dynamicMapper;
     private final ExportConfigMapper exportConfigMapper;
     private final MetadataService metadataService;
+    private final PermissionService permissionService;
+    private final MenuService menuService;
 
     // ==================== 角色管理 ====================
 
@@ -101,6 +103,8 @@ public class RoleManageService {
         userRoleMapper.delete(new LambdaQueryWrapper<UserRole>().eq(UserRole::getRoleId, id));
         rolePageMapper.delete(new LambdaQueryWrapper<RolePage>().eq(RolePage::getRoleId, id));
         roleMapper.deleteById(id);
+        permissionService.evictAll();
+        menuService.evictAll();
     }
 
     // ==================== 角色人员管理 ====================
@@ -126,6 +130,7 @@ public class RoleManageService {
         userRole.setRoleId(vo.getRoleId());
         userRole.setUserId(vo.getUserId());
         userRoleMapper.insert(userRole);
+        permissionService.evictUser(vo.getUserId());
 
         // 查询返回完整信息
         List<UserRoleVO> list = userRoleMapper.selectByRoleId(vo.getRoleId());
@@ -142,6 +147,7 @@ public class RoleManageService {
             throw new BusinessException("记录不存在");
         }
         userRoleMapper.deleteById(id);
+        permissionService.evictUser(userRole.getUserId());
     }
 
     // ==================== 角色页面管理 ====================
@@ -170,6 +176,8 @@ public class RoleManageService {
         rolePage.setColumnPolicy(vo.getColumnPolicy());
         rolePage.setRowPolicy(vo.getRowPolicy());
         rolePageMapper.insert(rolePage);
+        permissionService.evictAll();
+        menuService.evictAll();
 
         // 查询返回完整信息
         List<RolePageVO> list = rolePageMapper.selectVOByRoleId(vo.getRoleId());
@@ -199,6 +207,7 @@ public class RoleManageService {
             rolePage.setRowPolicy(vo.getRowPolicy());
         }
         rolePageMapper.updateById(rolePage);
+        permissionService.evictAll();
 
         // 查询返回完整信息
         List<RolePageVO> list = rolePageMapper.selectVOByRoleId(rolePage.getRoleId());
@@ -210,9 +219,10 @@ public class RoleManageService {
     
     /**
      * 校验行权限格式
-     * 只允许两种格式：
+     * 只允许三种格式：
      * 1. 可视化模式 JSON：必须包含 mode=visual 和 sql 字段
      * 2. 自定义 SQL 模式：纯 SQL 字符串（不以 { 开头）
+     * 3. 物化模式 JSON：mode=materialized，包含 column 和 keySql 字段
      */
     private void validateRowPolicy(String rowPolicy) {
         if (rowPolicy == null || rowPolicy.trim().isEmpty()) {
@@ -226,8 +236,12 @@ public class RoleManageService {
             try {
                 cn.hutool.json.JSONObject json = cn.hutool.json.JSONUtil.parseObj(trimmed);
                 String mode = json.getStr("mode");
+                if (PermissionService.MATERIALIZED_MODE.equals(mode)) {
+                    validateMaterializedPolicy(json);
+                    return;
+                }
                 if (!"visual".equals(mode)) {
-                    throw new BusinessException("行权限JSON格式错误：mode必须为visual");
+                    throw new BusinessException("行权限JSON格式错误：mode必须为visual或materialized");
                 }
                 String sql = json.getStr("sql");
                 if (sql == null) {
@@ -244,6 +258,26 @@ public class RoleManageService {
         }
     }
     
+    /**
+     * 校验物化行权限：column 为列名，keySql 为返回单列键值的 SELECT，ttlSeconds 可选
+     */
+    private void validateMaterializedPolicy(cn.hutool.json.JSONObject json) {
+        String column = json.getStr("column");
+        if (column == null || !column.matches("^[A-Za-z][A-Za-z0-9_]*$")) {
+            throw new BusinessException("物化行权限格式错误：column必须为列名");
+        }
+        String keySql = json.getStr("keySql");
+        if (keySql == null || !keySql.trim().toUpperCase().startsWith("SELECT")) {
+            throw new BusinessException("物化行权限格式错误：keySql必须为SELECT语句");
+        }
+        Long ttlSeconds = json.getLong("ttlSeconds");
+        if (ttlSeconds != null && (ttlSeconds <= 0 || ttlSeconds > PermissionService.MAX_KEY_SET_TTL_SECONDS)) {
+            throw new BusinessException("物化行权限格式错误：ttlSeconds必须在1~"
+                    + PermissionService.MAX_KEY_SET_TTL_SECONDS + "之间");
+        }
+        validateSqlCondition(json.getStr("sql"));
+    }
+
     /**
      * 校验 SQL 条件，防止危险条件
      */
@@ -269,6 +303,8 @@ public class RoleManageService {
             throw new BusinessException("记录不存在");
         }
         rolePageMapper.deleteById(id);
+        permissionService.evictAll();
+        menuService.evictAll();
     }
 
     // ==================== 辅助查询 ====================
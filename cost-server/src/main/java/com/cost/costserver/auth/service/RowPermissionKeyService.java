@@ -0,0 +1,116 @@
+package com.cost.costserver.auth.service;
+
+import cn.hutool.crypto.digest.DigestUtil;
+import com.cost.costserver.auth.dto.RowFilter;
+import com.cost.costserver.dynamic.jdbc.DynamicJdbcExecutor;
+import com.cost.costserver.monitor.CacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 物化行权限键集
+ * 1. 键集按 keySql + 绑定值计算编号：keySql 不含占位符时所有用户共享一份键集；
+ *    绑定 ${userId}/${username} 时绑定值参与编号，每个用户各自一份，分配相同的用户也不共享
+ * 2. 过期或首次使用时在独立事务中 DELETE + INSERT ... SELECT 刷新 T_COST_ROW_PERM_KEY，
+ *    网格查询对键集表做半连接，不再在每次 COUNT/分页查询里重算关联子查询；
+ *    keySql 查出的 NULL 键不写入（KEY_VALUE 非空，且 IN 半连接本就不会匹配 NULL）
+ * 3. 行权限配置变更会得到新的键集编号，分配数据变更按 TTL 生效；超过一天未刷新的键集定期清理
+ * 4. 刷新使用 REQUIRES_NEW：调用方已在事务中时会挂起外层事务并从连接池再取一个连接，
+ *    连接池上限需为并发刷新留出余量（最坏情况每个请求线程同时占用两个连接）
+ */
+@Slf4j
+@Service
+public class RowPermissionKeyService {
+
+    private static final long PURGE_INTERVAL_MILLIS = Duration.ofHours(1).toMillis();
+
+    private final DynamicJdbcExecutor jdbcExecutor;
+    private final TransactionTemplate requiresNew;
+
+    /**
+     * 键集编号 -> 过期时间（毫秒）
+     */
+    private final Map<String, Long> expiries = new ConcurrentHashMap<>();
+    private final Map<String, Object> locks = new ConcurrentHashMap<>();
+    private volatile long nextPurgeAt;
+
+    public RowPermissionKeyService(DynamicJdbcExecutor jdbcExecutor, PlatformTransactionManager transactionManager) {
+        this.jdbcExecutor = jdbcExecutor;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * 行权限条件的绑定值，物化键集在此确保已刷新并替换为键集编号
+     */
+    public Object[] bindValues(RowFilter filter) {
+        return filter.bindValues(this::resolve);
+    }
+
+    String resolve(RowFilter.KeySet keySet) {
+        RowFilter query = keySet.query();
+        Object[] args = query.bindValues();
+        String setKey = DigestUtil.md5Hex(query.sql() + '\u0000' + Arrays.toString(args));
+
+        Long expiresAt = expiries.get(setKey);
+        if (expiresAt != null && expiresAt > System.currentTimeMillis()) {
+            CacheMetrics.hit("row-permission-keys");
+            return setKey;
+        }
+        synchronized (locks.computeIfAbsent(setKey, k -> new Object())) {
+            expiresAt = expiries.get(setKey);
+            if (expiresAt != null && expiresAt > System.currentTimeMillis()) {
+                CacheMetrics.hit("row-permission-keys");
+                return setKey;
+            }
+            CacheMetrics.miss("row-permission-keys");
+            refresh(setKey, query.sql(), args);
+            expiries.put(setKey, System.currentTimeMillis() + keySet.ttl().toMillis());
+        }
+        purgeStale();
+        return setKey;
+    }
+
+    /**
+     * WITH 子句的列名列表限定 keySql 只能返回一列（否则 ORA-32038），并给出可过滤 NULL 的列名
+     */
+    private void refresh(String setKey, String keySql, Object[] args) {
+        Object[] insertArgs = Arrays.copyOf(args, args.length + 1);
+        insertArgs[args.length] = setKey;
+        requiresNew.executeWithoutResult(status -> {
+            jdbcExecutor.update("DELETE FROM T_COST_ROW_PERM_KEY WHERE SET_KEY = ?", setKey);
+            int rows = jdbcExecutor.update(
+                    "INSERT INTO T_COST_ROW_PERM_KEY (SET_KEY, KEY_VALUE) WITH k (KEY_VALUE) AS (" + keySql + ") "
+                            + "SELECT DISTINCT ?, k.KEY_VALUE FROM k WHERE k.KEY_VALUE IS NOT NULL",
+                    insertArgs);
+            log.debug("物化行权限键集 {}: {} 个键", setKey, rows);
+        });
+    }
+
+    /**
+     * 清理长时间未刷新的键集（TTL 上限为 1 小时，超过一天的必然已无实例使用）
+     */
+    private void purgeStale() {
+        long now = System.currentTimeMillis();
+        if (now < nextPurgeAt) {
+            return;
+        }
+        nextPurgeAt = now + PURGE_INTERVAL_MILLIS;
+        try {
+            requiresNew.executeWithoutResult(status ->
+                    jdbcExecutor.update("DELETE FROM T_COST_ROW_PERM_KEY WHERE CREATE_TIME < SYSDATE - 1"));
+        } catch (Exception e) {
+            log.warn("清理行权限键集失败: {}", e.getMessage());
+        }
+        expiries.entrySet().removeIf(entry -> entry.getValue() < now);
+        locks.keySet().retainAll(expiries.keySet());
+    }
+}
@@ -1,10 +1,12 @@
 package com.cost.costserver.common;
 
 import com.cost.costserver.config.JwtProperties;
+import cn.hutool.crypto.digest.DigestUtil;
+import com.cost.costserver.monitor.CacheMetrics;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
-import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
@@ -12,15 +14,36 @@ import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Component
-@RequiredArgsConstructor
 public class JwtUtil {
 
+    /**
+     * 已验签 Token 缓存上限，超出时先清理过期项，仍超出则整体清空
+     */
+    private static final int MAX_VERIFIED_TOKENS = 10_000;
+
     private final JwtProperties jwtProperties;
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+
+    /**
+     * Token 摘要 -> 已验签 Claims，按 Token 自身过期时间失效
+     */
+    private final Map<String, VerifiedToken> verifiedTokens = new ConcurrentHashMap<>();
 
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = jwtProperties.getSecret().getBytes(StandardCharsets.UTF_8);
+    private record VerifiedToken(Claims claims, long expiresAt) {
+    }
+
+    public JwtUtil(JwtProperties jwtProperties) {
+        this.jwtProperties = jwtProperties;
+        this.signingKey = buildSigningKey(jwtProperties.getSecret());
+        this.parser = Jwts.parser().verifyWith(signingKey).build();
+    }
+
+    private static SecretKey buildSigningKey(String secret) {
+        byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
         // 确保密钥长度至少256位
         if (keyBytes.length < 32) {
             byte[] paddedKey = new byte[32];
@@ -44,7 +67,7 @@ public class JwtUtil {
                 .subject(username)
                 .issuedAt(new Date())
                 .expiration(new Date(System.currentTimeMillis() + jwtProperties.getAccessTokenExpire()))
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
@@ -62,42 +85,45 @@ public class JwtUtil {
                 .subject(username)
                 .issuedAt(new Date())
                 .expiration(new Date(System.currentTimeMillis() + jwtProperties.getRefreshTokenExpire()))
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
     /**
-     * 解析 Token
+     * 解析 Token，无效时抛出异常
+     * 已验签且未过期的 Token 直接返回缓存的 Claims，只做一次摘要计算和哈希查找
      */
     public Claims parseToken(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-    }
-
-    /**
-     * 验证 Token 是否有效
-     */
-    public boolean validateToken(String token) {
-        try {
-            parseToken(token);
-            return true;
-        } catch (Exception e) {
-            return false;
+        String digest = DigestUtil.sha256Hex(token);
+        long now = System.currentTimeMillis();
+        VerifiedToken verified = verifiedTokens.get(digest);
+        if (verified != null && verified.expiresAt() > now) {
+            CacheMetrics.hit("verified-jwt");
+            return verified.claims();
+        }
+        CacheMetrics.miss("verified-jwt");
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        Date expiration = claims.getExpiration();
+        if (expiration != null) {
+            if (verifiedTokens.size() >= MAX_VERIFIED_TOKENS) {
+                verifiedTokens.values().removeIf(entry -> entry.expiresAt() <= now);
+                if (verifiedTokens.size() >= MAX_VERIFIED_TOKENS) {
+                    verifiedTokens.clear();
+                }
+            }
+            verifiedTokens.put(digest, new VerifiedToken(claims, expiration.getTime()));
         }
+        return claims;
     }
 
     /**
-     * 判断 Token 是否过期
+     * 验证并解析 Token，无效时返回 null
      */
-    public boolean isTokenExpired(String token) {
+    public Claims verify(String token) {
         try {
-            Claims claims = parseToken(token);
-            return claims.getExpiration().before(new Date());
+            return parseToken(token);
         } catch (Exception e) {
-            return true;
+            return null;
         }
     }
 
@@ -105,23 +131,21 @@ public class JwtUtil {
      * 从 Token 获取用户ID
      */
     public Long getUserId(String token) {
-        Claims claims = parseToken(token);
-        return claims.get("userId", Long.class);
+        return getUserId(parseToken(token));
     }
 
-    /**
-     * 从 Token 获取用户名
-     */
-    public String getUsername(String token) {
-        Claims claims = parseToken(token);
-        return claims.getSubject();
+    public static Long getUserId(Claims claims) {
+        return claims.get("userId", Long.class);
     }
 
     /**
      * 判断是否是 RefreshToken
      */
     public boolean isRefreshToken(String token) {
-        Claims claims = parseToken(token);
+        return isRefreshToken(parseToken(token));
+    }
+
+    public static boolean isRefreshToken(Claims claims) {
         return "refresh".equals(claims.get("type", String.class));
     }
 }
@@ -0,0 +1,34 @@
+package com.cost.costserver.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 审计日志异步写入配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.audit-log")
+public class AuditLogProperties {
+
+    /**
+     * 内存队列容量
+     */
+    private int queueCapacity = 10000;
+
+    /**
+     * 每批最多写入条数
+     */
+    private int batchSize = 200;
+
+    /**
+     * 最长等待时间（毫秒），未凑满一批也会写入
+     */
+    private long flushIntervalMs = 500;
+
+    /**
+     * 队列满时的处理策略：caller-runs（调用线程同步写入）/ drop（丢弃并计数）
+     */
+    private String overflowPolicy = "caller-runs";
+}
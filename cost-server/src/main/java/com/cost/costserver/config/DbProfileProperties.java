@@ -0,0 +1,51 @@
+package com.cost.costserver.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 请求级数据库往返剖析配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.db-profile")
+public class DbProfileProperties {
+
+    /**
+     * 是否启用剖析（关闭后 cost.data.request.phase 阶段指标也不再采集）
+     */
+    private boolean enabled = true;
+
+    /**
+     * 是否通过响应头输出统计（X-Db-*，生产环境关闭）
+     */
+    private boolean responseHeaders = true;
+
+    /**
+     * 正常请求的抽样日志比例（0~1），超预算的请求始终记录
+     */
+    private double sampleRate = 0;
+
+    /**
+     * 单个请求的 SQL 条数预算，超过即告警
+     */
+    private int statementBudget = 30;
+
+    /**
+     * 同一指纹在一个请求内重复执行达到该次数视为疑似 N+1
+     */
+    private int repeatThreshold = 5;
+
+    /**
+     * 按接口覆盖预算，key 为接口路径模板（如 /api/data/save）
+     */
+    private Map<String, Integer> budgets = new HashMap<>();
+
+    public int budgetFor(String uri) {
+        return budgets.getOrDefault(uri, statementBudget);
+    }
+}
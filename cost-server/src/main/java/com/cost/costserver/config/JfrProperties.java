@@ -0,0 +1,47 @@
+package com.cost.costserver.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * 常驻 JFR 录制配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.jfr")
+public class JfrProperties {
+
+    /**
+     * 是否在启动时开启常驻录制（流式），关闭时仍可由管理端运行时开启
+     */
+    private boolean enabled = false;
+
+    /**
+     * JDK 内置录制配置：default（开销约 1% 以内）/ profile（采样更密，开销更高）
+     */
+    private String settings = "default";
+
+    /**
+     * 保留窗口，dump 导出的即最近这段时间内的事件
+     */
+    private Duration maxAge = Duration.ofMinutes(10);
+
+    /**
+     * 录制缓冲上限
+     */
+    private DataSize maxSize = DataSize.ofMegabytes(64);
+
+    /**
+     * 阶段事件阈值，短于该耗时的阶段不落盘（TOTAL 事件同样适用）
+     */
+    private Duration stageThreshold = Duration.ofMillis(1);
+
+    /**
+     * dump 文件的临时目录，为空时使用 java.io.tmpdir
+     */
+    private String dumpDir;
+}
@@ -0,0 +1,30 @@
+package com.cost.costserver.config;
+
+import com.cost.costserver.metadata.service.MetadataService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * 启动预热表元数据
+ * CommandLineRunner 在应用报告就绪（ApplicationReadyEvent / readiness 探针）之前执行，
+ * 发布后的首批请求直接命中缓存
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(
+    prefix = "app.metadata-warm-up",
+    name = "enabled",
+    havingValue = "true",
+    matchIfMissing = true
+)
+public class MetadataWarmUpRunner implements CommandLineRunner {
+
+    private final MetadataService metadataService;
+
+    @Override
+    public void run(String... args) {
+        metadataService.warmUp();
+    }
+}
@@ -5,12 +5,10 @@ import com.baomidou.mybatisplus.autoconfigure.ConfigurationCustomizer;
 import com.baomidou.mybatisplus.autoconfigure.MybatisPlusProperties;
 import com.baomidou.mybatisplus.extension.plugins.MybatisPlusInterceptor;
 import com.baomidou.mybatisplus.extension.plugins.inner.PaginationInnerInterceptor;
-import org.springframework.core.env.Environment;
+import com.cost.costserver.log.sql.SqlExecutionRecorder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
-import java.util.Arrays;
-
 @Configuration
 public class MyBatisPlusConfig {
 
@@ -26,16 +24,15 @@ public class MyBatisPlusConfig {
      * 解决 MyBatis-Plus 自动配置时序问题
      */
     @Bean
-    public ConfigurationCustomizer mybatisConfigurationCustomizer(MybatisPlusProperties properties, Environment environment) {
+    public ConfigurationCustomizer mybatisConfigurationCustomizer(MybatisPlusProperties properties,
+                                                                 SqlExecutionRecorder sqlExecutionRecorder) {
         return configuration -> {
             if (properties.getConfiguration() != null 
                 && properties.getConfiguration().getLogImpl() != null) {
                 configuration.setLogImpl(properties.getConfiguration().getLogImpl());
             }
 
-            boolean enabledByProfile = Arrays.asList(environment.getActiveProfiles()).contains("dev");
-            boolean enabledByProperty = environment.getProperty("app.sql-log.enabled", Boolean.class, false);
-            configuration.addInterceptor(new SqlLogInterceptor(enabledByProfile || enabledByProperty));
+            configuration.addInterceptor(new SqlLogInterceptor(sqlExecutionRecorder));
         };
     }
 }
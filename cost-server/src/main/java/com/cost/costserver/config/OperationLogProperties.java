@@ -0,0 +1,34 @@
+package com.cost.costserver.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 操作日志异步批量写入配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.operation-log")
+public class OperationLogProperties {
+
+    /**
+     * 内存队列容量（按操作计）
+     */
+    private int queueCapacity = 2000;
+
+    /**
+     * 每批最多合并的操作数
+     */
+    private int batchSize = 50;
+
+    /**
+     * 最长等待时间（毫秒），未凑满一批也会写入
+     */
+    private long flushIntervalMs = 1000;
+
+    /**
+     * 队列满时的处理策略：caller-runs（调用线程同步写入）/ drop（丢弃并计数）
+     */
+    private String overflowPolicy = "caller-runs";
+}
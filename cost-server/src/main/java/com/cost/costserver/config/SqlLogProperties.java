@@ -0,0 +1,29 @@
+package com.cost.costserver.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * SQL 日志与统计配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.sql-log")
+public class SqlLogProperties {
+
+    /**
+     * 是否输出每条 SQL 的完整文本（dev 环境默认开启）
+     */
+    private boolean enabled = false;
+
+    /**
+     * 慢 SQL 阈值（毫秒），超过时输出完整 SQL
+     */
+    private long slowThresholdMs = 1000;
+
+    /**
+     * 普通 SQL 的抽样输出比例（0~1）
+     */
+    private double sampleRate = 0;
+}
@@ -0,0 +1,28 @@
+package com.cost.costserver.config;
+
+import com.cost.costserver.log.sql.SqlTagInterceptor;
+import com.cost.costserver.monitor.DbProfileInterceptor;
+import com.cost.costserver.monitor.RequestMetricsInterceptor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Web MVC 配置
+ */
+@Configuration
+@RequiredArgsConstructor
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    private final SqlTagInterceptor sqlTagInterceptor;
+    private final DbProfileInterceptor dbProfileInterceptor;
+    private final RequestMetricsInterceptor requestMetricsInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(sqlTagInterceptor).addPathPatterns("/api/**");
+        registry.addInterceptor(dbProfileInterceptor).addPathPatterns("/api/**");
+        registry.addInterceptor(requestMetricsInterceptor).addPathPatterns("/api/data/**");
+    }
+}
@@ -1,6 +1,7 @@
 package com.cost.costserver.config;
 
 import com.cost.costserver.common.JwtUtil;
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Configuration;
@@ -40,12 +41,13 @@ public class WebSocketConfig implements WebSocketConfigurer {
                 if (request instanceof ServletServerHttpRequest servletRequest) {
                     token = servletRequest.getServletRequest().getParameter("token");
                 }
-                if (token == null || !jwtUtil.validateToken(token)) {
+                Claims claims = token == null ? null : jwtUtil.verify(token);
+                if (claims == null) {
                     log.warn("[WS] 握手失败：token无效");
                     return false;
                 }
-                attributes.put("userId", jwtUtil.getUserId(token));
-                attributes.put("username", jwtUtil.getUsername(token));
+                attributes.put("userId", JwtUtil.getUserId(claims));
+                attributes.put("username", claims.getSubject());
                 return true;
             }
 
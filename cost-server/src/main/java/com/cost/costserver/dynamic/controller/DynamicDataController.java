@@ -3,11 +3,13 @@ package com.cost.costserver.dynamic.controller;
 import com.cost.costserver.common.PageResult;
 import com.cost.costserver.common.Result;
 import com.cost.costserver.dynamic.action.ActionExecutionReport;
+import com.cost.costserver.dynamic.dto.ImportResult;
 import com.cost.costserver.dynamic.dto.MasterDetailSaveParam;
 import com.cost.costserver.dynamic.dto.QueryParam;
 import com.cost.costserver.dynamic.dto.SaveParam;
 import com.cost.costserver.dynamic.dto.SaveResult;
 import com.cost.costserver.dynamic.dto.ValidationRequest;
+import com.cost.costserver.dynamic.service.DataImportService;
 import com.cost.costserver.dynamic.service.DynamicDataService;
 import com.cost.costserver.dynamic.service.PageRuleActionService;
 import com.cost.costserver.dynamic.service.ValidationService;
@@ -16,6 +18,7 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -31,6 +34,7 @@ public class DynamicDataController {
     private final DynamicDataService dynamicDataService;
     private final PageRuleActionService pageRuleActionService;
     private final ValidationService validationService;
+    private final DataImportService dataImportService;
 
     @Operation(summary = "分页查询")
     @GetMapping("/{tableCode}")
@@ -124,6 +128,16 @@ public class DynamicDataController {
         return Result.ok(dynamicDataService.save(param));
     }
 
+    @Operation(summary = "复制单据（主表及所有从表，服务端 INSERT ... SELECT）；请求体可指定主表字段新值，如单据编号")
+    @PostMapping("/{tableCode}/{id}/clone")
+    public Result<SaveResult> cloneRecord(
+            @PathVariable String tableCode,
+            @PathVariable Long id,
+            @RequestParam String pageCode,
+            @RequestBody(required = false) Map<String, Object> overrides) {
+        return Result.ok(dynamicDataService.cloneRecord(tableCode, id, pageCode, overrides));
+    }
+
     @Operation(summary = "更新")
     @PutMapping("/{tableCode}/{id}")
     public Result<Void> update(
@@ -153,6 +167,22 @@ public class DynamicDataController {
         return Result.ok(validationService.validate(tableCode, group, data));
     }
 
+    @Operation(summary = "导入 Excel/CSV（后台流式读取、分块校验与批量写入，立即返回 taskId 供轮询进度）")
+    @PostMapping("/{tableCode}/import")
+    public Result<ImportResult> importFile(
+            @PathVariable String tableCode,
+            @RequestParam String pageCode,
+            @RequestParam(required = false) String taskId,
+            @RequestParam("file") MultipartFile file) {
+        return Result.ok(dataImportService.importFile(tableCode, pageCode, taskId, file));
+    }
+
+    @Operation(summary = "查询导入进度")
+    @GetMapping("/import/{taskId}/progress")
+    public Result<ImportResult> getImportProgress(@PathVariable String taskId) {
+        return Result.ok(dataImportService.getProgress(taskId));
+    }
+
     @Operation(summary = "执行页面规则中的Action（BUTTON）")
     @PostMapping("/page/{pageCode}/execute")
     public Result<ActionExecutionReport> executePageRuleAction(
@@ -0,0 +1,62 @@
+package com.cost.costserver.dynamic.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 导入结果 / 进度
+ * 导入过程中同一实例由导入线程持续更新（单写者，计数字段 volatile），
+ * 其他线程通过 snapshot() 取副本读取，不直接序列化正在更新的实例
+ */
+@Data
+public class ImportResult {
+    private String taskId;
+    private String tableCode;
+    /** RUNNING / SUCCESS / FAILED */
+    private volatile String status = "RUNNING";
+    /** 已读取的数据行数 */
+    private volatile int totalRows;
+    /** 已提交的行数（按块提交，导入中途失败时为失败前已提交的行数） */
+    private volatile int successRows;
+    /** 失败（转换/校验不通过）的行数 */
+    private volatile int failedRows;
+    private volatile String message;
+    private long startTime;
+    private volatile long endTime;
+    /** 行级错误（仅保留前 N 条，避免大文件撑爆内存） */
+    private List<RowError> errors = Collections.synchronizedList(new ArrayList<>());
+
+    /**
+     * 当前进度的副本；状态最后写入，读到终态时其余字段已是最终值
+     */
+    public ImportResult snapshot() {
+        ImportResult copy = new ImportResult();
+        copy.status = status;
+        copy.taskId = taskId;
+        copy.tableCode = tableCode;
+        copy.totalRows = totalRows;
+        copy.successRows = successRows;
+        copy.failedRows = failedRows;
+        copy.message = message;
+        copy.startTime = startTime;
+        copy.endTime = endTime;
+        synchronized (errors) {
+            copy.errors.addAll(errors);
+        }
+        return copy;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        /** Excel 行号（从 1 开始，含表头） */
+        private int rowIndex;
+        private String message;
+    }
+}
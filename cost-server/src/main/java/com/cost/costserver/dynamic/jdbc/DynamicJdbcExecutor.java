@@ -0,0 +1,146 @@
+package com.cost.costserver.dynamic.jdbc;
+
+import com.cost.costserver.log.sql.SqlExecutionRecorder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * 动态 SQL 执行器（引擎生成的 SQL 专用）
+ * 1. 直接走 JDBC（JdbcTemplate），跳过 MyBatis 的 ${sql} 解析、MappedStatement 查找与反射结果映射
+ * 2. 连接通过 DataSourceUtils 获取，与 MyBatis-Spring 一样加入当前 Spring 事务
+ * 3. 支持 ? 绑定参数；行映射见 DynamicRowExtractor，返回的行已完成键名与类型规范化
+ * 4. 每条 SQL 同样交给 SqlExecutionRecorder 记录，指纹统计、请求剖析、操作日志与 MyBatis 路径一致
+ */
+@Component
+public class DynamicJdbcExecutor {
+
+    /**
+     * Oracle 驱动默认每次往返只取 10 行，分页查询一次取满一页
+     */
+    static final int FETCH_SIZE = 200;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SqlExecutionRecorder recorder;
+
+    public DynamicJdbcExecutor(DataSource dataSource, SqlExecutionRecorder recorder) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+        this.recorder = recorder;
+    }
+
+    /**
+     * 查询并返回规范化后的行（键为大写列名，时间/CLOB 已转为字符串，null 值不放入）
+     */
+    public List<Map<String, Object>> queryRows(String sql, Object... args) {
+        long start = System.nanoTime();
+        List<Map<String, Object>> rows = null;
+        Throwable error = null;
+        try {
+            rows = args.length == 0
+                    ? jdbcTemplate.query(sql, DynamicRowExtractor.INSTANCE)
+                    : jdbcTemplate.query(sql, DynamicRowExtractor.INSTANCE, args);
+            return rows;
+        } catch (RuntimeException e) {
+            error = e;
+            throw e;
+        } finally {
+            record(sql, args, start, rows != null ? rows.size() : null, error);
+        }
+    }
+
+    public Long queryCount(String sql, Object... args) {
+        return queryForLong(sql, args);
+    }
+
+    /**
+     * 执行 INSERT/UPDATE/DELETE，返回影响行数
+     */
+    public int update(String sql, Object... args) {
+        long start = System.nanoTime();
+        Integer rows = null;
+        Throwable error = null;
+        try {
+            rows = args.length == 0 ? jdbcTemplate.update(sql) : jdbcTemplate.update(sql, args);
+            return rows;
+        } catch (RuntimeException e) {
+            error = e;
+            throw e;
+        } finally {
+            record(sql, args, start, rows, error);
+        }
+    }
+
+    /**
+     * 同一语句多组参数批量执行，整批记录为一次执行，返回总影响行数
+     */
+    public int batchUpdate(String sql, List<Object[]> batchArgs) {
+        if (batchArgs.isEmpty()) {
+            return 0;
+        }
+        long start = System.nanoTime();
+        Integer rows = null;
+        Throwable error = null;
+        try {
+            int total = 0;
+            for (int count : jdbcTemplate.batchUpdate(sql, batchArgs)) {
+                // 驱动未返回行数时（SUCCESS_NO_INFO）按 1 行计
+                total += count >= 0 ? count : 1;
+            }
+            rows = total;
+            return total;
+        } catch (RuntimeException e) {
+            error = e;
+            throw e;
+        } finally {
+            Object[] first = batchArgs.get(0);
+            int size = batchArgs.size();
+            recorder.record(sql, () -> SqlExecutionRecorder.render(sql, first) + " /* batch " + size + " */",
+                    System.nanoTime() - start, rows, error);
+        }
+    }
+
+    public Long nextSequenceValue(String sequenceName) {
+        return queryForLong("SELECT " + sequenceName + ".NEXTVAL FROM DUAL");
+    }
+
+    /**
+     * 一次往返分配 count 个序列值
+     */
+    public List<Long> nextSequenceValues(String sequenceName, int count) {
+        List<Map<String, Object>> rows = queryRows(
+                "SELECT " + sequenceName + ".NEXTVAL AS ID FROM DUAL CONNECT BY LEVEL <= ?", count);
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (Map<String, Object> row : rows) {
+            ids.add(((Number) row.get("ID")).longValue());
+        }
+        return ids;
+    }
+
+    private Long queryForLong(String sql, Object... args) {
+        long start = System.nanoTime();
+        Long count = null;
+        Throwable error = null;
+        try {
+            count = args.length == 0
+                    ? jdbcTemplate.queryForObject(sql, Long.class)
+                    : jdbcTemplate.queryForObject(sql, Long.class, args);
+            return count;
+        } catch (RuntimeException e) {
+            error = e;
+            throw e;
+        } finally {
+            record(sql, args, start, count != null ? 1 : null, error);
+        }
+    }
+
+    private void record(String sql, Object[] args, long start, Integer rowCount, Throwable error) {
+        Supplier<String> fullSql = () -> SqlExecutionRecorder.render(sql, args);
+        recorder.record(sql, fullSql, System.nanoTime() - start, rowCount, error);
+    }
+}
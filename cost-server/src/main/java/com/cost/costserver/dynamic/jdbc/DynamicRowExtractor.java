@@ -0,0 +1,113 @@
+package com.cost.costserver.dynamic.jdbc;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ResultSetExtractor;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 动态 SQL 结果集映射
+ * 读取 ResultSetMetaData 一次，预先算好每列的运行时键（去空格大写）和取值方式，
+ * 之后逐行按列下标取值直接生成最终行，不再经过 MyBatis 的反射映射和二次规范化。
+ * 与原 MyBatis Map 结果保持一致：值为 null 的列不放入行
+ */
+@Slf4j
+public final class DynamicRowExtractor implements ResultSetExtractor<List<Map<String, Object>>> {
+
+    public static final DateTimeFormatter DT_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    static final DynamicRowExtractor INSTANCE = new DynamicRowExtractor();
+
+    private DynamicRowExtractor() {
+    }
+
+    @FunctionalInterface
+    private interface ColumnReader {
+        Object read(ResultSet rs, int index) throws SQLException;
+    }
+
+    private static final ColumnReader STRING = ResultSet::getString;
+    private static final ColumnReader TIMESTAMP = (rs, index) -> {
+        Timestamp ts = rs.getTimestamp(index);
+        return ts == null ? null : ts.toLocalDateTime().format(DT_FORMATTER);
+    };
+    private static final ColumnReader OBJECT = (rs, index) -> convertValue(rs.getObject(index));
+
+    @Override
+    public List<Map<String, Object>> extractData(ResultSet rs) throws SQLException {
+        ResultSetMetaData meta = rs.getMetaData();
+        int columnCount = meta.getColumnCount();
+        String[] keys = new String[columnCount];
+        ColumnReader[] readers = new ColumnReader[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            keys[i] = normalizeKey(meta.getColumnLabel(i + 1));
+            readers[i] = readerFor(meta.getColumnType(i + 1));
+        }
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        // 按列数预估容量，避免 LinkedHashMap 扩容
+        int capacity = (int) (columnCount / 0.75f) + 1;
+        while (rs.next()) {
+            Map<String, Object> row = new LinkedHashMap<>(capacity);
+            for (int i = 0; i < columnCount; i++) {
+                Object value = readers[i].read(rs, i + 1);
+                if (value != null) {
+                    row.put(keys[i], value);
+                }
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static ColumnReader readerFor(int sqlType) {
+        return switch (sqlType) {
+            case Types.CLOB, Types.NCLOB -> STRING;
+            case Types.TIMESTAMP -> TIMESTAMP;
+            default -> OBJECT;
+        };
+    }
+
+    static String normalizeKey(String label) {
+        return label == null ? "" : label.trim().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * 转换 JDBC 类型为可序列化的 Java 类型
+     * 配置 oracle.jdbc.J2EE13Compliant=true 后，Oracle 返回标准 java.sql 类型
+     */
+    public static Object convertValue(Object value) {
+        if (value == null) {
+            return null;
+        }
+        // java.sql.Timestamp -> String
+        if (value instanceof Timestamp ts) {
+            return ts.toLocalDateTime().format(DT_FORMATTER);
+        }
+        // java.sql.Date -> String
+        if (value instanceof java.sql.Date date) {
+            return date.toLocalDate().toString();
+        }
+        // java.sql.Clob -> String
+        if (value instanceof java.sql.Clob clob) {
+            try {
+                return clob.getSubString(1, (int) clob.length());
+            } catch (SQLException e) {
+                log.warn("CLOB 转换失败: {}", e.getMessage());
+                return null;
+            }
+        }
+        // 其他类型保持原样
+        return value;
+    }
+}
@@ -0,0 +1,521 @@
+package com.cost.costserver.dynamic.service;
+
+import cn.hutool.core.date.DateUtil;
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.core.util.StrUtil;
+import com.alibaba.excel.EasyExcel;
+import com.alibaba.excel.context.AnalysisContext;
+import com.alibaba.excel.event.AnalysisEventListener;
+import com.alibaba.excel.support.ExcelTypeEnum;
+import com.cost.costserver.auth.dto.PagePermission;
+import com.cost.costserver.auth.service.PermissionService;
+import com.cost.costserver.common.BusinessException;
+import com.cost.costserver.common.SecurityUtils;
+import com.cost.costserver.dynamic.dto.ImportResult;
+import com.cost.costserver.dynamic.jdbc.DynamicJdbcExecutor;
+import com.cost.costserver.dynamic.validation.ValidationReport;
+import com.cost.costserver.log.AuditLogService;
+import com.cost.costserver.log.OperationLogContext;
+import com.cost.costserver.log.OperationLogService;
+import com.cost.costserver.metadata.dto.ColumnMetadataDTO;
+import com.cost.costserver.metadata.dto.TableMetadataDTO;
+import com.cost.costserver.metadata.dto.TableMetadataIndex;
+import com.cost.costserver.metadata.service.MetadataService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Excel/CSV 流式导入服务
+ * 流程：EasyExcel 逐行读取 -> 表头映射到列元数据 -> 按块转换/校验 -> 批量分配 ID -> JDBC 批量插入
+ * 内存只保留一个块（CHUNK_SIZE 行）和有限条错误信息，10 万行文件也不会整体加载
+ * 每块在独立事务中校验并写入，提交后才计入成功行数：锁与回滚段只占用一个块的时间，
+ * 中途失败时已提交的块保留，进度与结果中的 successRows 即已提交行数
+ * 每块提交后为已写入的行逐条提交 INSERT 审计日志；整个导入记录一条操作日志（含各块 SQL 与行数统计）
+ * 导入在有界的后台线程池中执行，接口立即返回 taskId；进度对象只由导入线程写入，查询时返回快照
+ */
+@Slf4j
+@Service
+public class DataImportService {
+
+    private static final int CHUNK_SIZE = 500;
+    private static final int MAX_ERRORS = 500;
+    private static final long PROGRESS_TTL_MS = 30 * 60 * 1000L;
+    private static final int IMPORT_THREADS = 2;
+    private static final int IMPORT_QUEUE = 8;
+    /**
+     * INSERT 中由导入填充的审计列（主键单独分配），顺序固定以便与参数对应
+     */
+    private static final List<String> AUDIT_INSERT_COLUMNS = TableMetadataIndex.AUDIT_COLUMNS.stream()
+            .filter(column -> !"ID".equals(column))
+            .sorted()
+            .toList();
+
+    private final MetadataService metadataService;
+    private final ValidationService validationService;
+    private final PermissionService permissionService;
+    private final DynamicJdbcExecutor jdbcExecutor;
+    private final AuditLogService auditLogService;
+    private final OperationLogService operationLogService;
+    private final TransactionTemplate chunkTransaction;
+    private final Executor importExecutor;
+
+    /** taskId -> 导入进度 */
+    private final Map<String, ImportResult> progressMap = new ConcurrentHashMap<>();
+
+    @Autowired
+    public DataImportService(MetadataService metadataService, ValidationService validationService,
+                             PermissionService permissionService, DynamicJdbcExecutor jdbcExecutor,
+                             AuditLogService auditLogService, OperationLogService operationLogService,
+                             PlatformTransactionManager transactionManager) {
+        this(metadataService, validationService, permissionService, jdbcExecutor, auditLogService,
+                operationLogService, transactionManager, newImportExecutor());
+    }
+
+    DataImportService(MetadataService metadataService, ValidationService validationService,
+                      PermissionService permissionService, DynamicJdbcExecutor jdbcExecutor,
+                      AuditLogService auditLogService, OperationLogService operationLogService,
+                      PlatformTransactionManager transactionManager, Executor importExecutor) {
+        this.metadataService = metadataService;
+        this.validationService = validationService;
+        this.permissionService = permissionService;
+        this.jdbcExecutor = jdbcExecutor;
+        this.auditLogService = auditLogService;
+        this.operationLogService = operationLogService;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.importExecutor = importExecutor;
+    }
+
+    /**
+     * 固定 IMPORT_THREADS 个后台线程、最多排队 IMPORT_QUEUE 个任务，超出时拒绝而不是占用请求线程
+     */
+    private static ThreadPoolExecutor newImportExecutor() {
+        AtomicInteger seq = new AtomicInteger();
+        return new ThreadPoolExecutor(IMPORT_THREADS, IMPORT_THREADS, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(IMPORT_QUEUE), runnable -> {
+                    Thread thread = new Thread(runnable, "data-import-" + seq.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (importExecutor instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * 提交导入任务：在请求线程完成权限与元数据检查、把上传文件转存为临时文件，
+     * 读取与写入在后台线程执行，立即返回 RUNNING 状态的进度，之后按 taskId 轮询
+     * @param tableCode 表编码
+     * @param pageCode 页面编码（用于按钮权限校验）
+     * @param taskId 前端生成的任务 ID（可选，用于轮询进度）
+     * @param file xlsx / xls / csv 文件
+     */
+    public ImportResult importFile(String tableCode, String pageCode, String taskId, MultipartFile file) {
+        if (file == null || file.isEmpty()) {
+            throw new BusinessException(400, "导入文件不能为空");
+        }
+        requireButtonPermission(pageCode, "save");
+        evictExpiredProgress();
+
+        TableMetadataDTO metadata = metadataService.getTableMetadata(tableCode);
+        validateIdentifier(metadata.sequenceName(), "sequenceName");
+
+        ImportResult result = new ImportResult();
+        result.setTaskId(StrUtil.isNotBlank(taskId) ? taskId : IdUtil.fastSimpleUUID());
+        result.setTableCode(tableCode);
+        result.setStartTime(System.currentTimeMillis());
+        if (progressMap.putIfAbsent(result.getTaskId(), result) != null) {
+            throw new BusinessException(400, "导入任务已存在: " + result.getTaskId());
+        }
+
+        String operator = StrUtil.blankToDefault(SecurityUtils.getCurrentUsername(), "system");
+        ExcelTypeEnum excelType = resolveExcelType(file.getOriginalFilename());
+        Path tempFile = null;
+        try {
+            // 请求结束后 MultipartFile 的存储会被清理，后台线程读取转存的副本
+            tempFile = Files.createTempFile("cost-import-", excelType.getValue());
+            file.transferTo(tempFile);
+            Path source = tempFile;
+            importExecutor.execute(() -> runImport(metadata, pageCode, operator, result, source, excelType));
+        } catch (RejectedExecutionException e) {
+            progressMap.remove(result.getTaskId());
+            deleteQuietly(tempFile);
+            throw new BusinessException(429, "导入任务过多，请稍后重试");
+        } catch (IOException e) {
+            progressMap.remove(result.getTaskId());
+            deleteQuietly(tempFile);
+            throw new BusinessException(500, "读取导入文件失败: " + e.getMessage());
+        }
+        return result.snapshot();
+    }
+
+    /**
+     * 后台线程执行导入；结果只写入进度，不向外抛出
+     */
+    private void runImport(TableMetadataDTO metadata, String pageCode, String operator, ImportResult result,
+                           Path source, ExcelTypeEnum excelType) {
+        String tableCode = metadata.tableCode();
+        ImportReadListener listener = new ImportReadListener(metadata, pageCode, operator, result);
+        String status = "SUCCESS";
+        String message = null;
+
+        OperationLogContext.start("IMPORT", tableCode, operator);
+        try (InputStream in = Files.newInputStream(source)) {
+            // CSV 固定按 UTF-8 读取，不依赖服务器默认字符集
+            EasyExcel.read(in, listener)
+                    .excelType(excelType)
+                    .charset(StandardCharsets.UTF_8)
+                    .headRowNumber(1)
+                    .sheet()
+                    .doRead();
+        } catch (BusinessException e) {
+            status = "FAILED";
+            message = e.getMessage();
+        } catch (Exception e) {
+            log.error("导入失败: tableCode={}, 已提交{}行", tableCode, result.getSuccessRows(), e);
+            status = "FAILED";
+            message = "导入失败（已提交 " + result.getSuccessRows() + " 行）: " + e.getMessage();
+        } finally {
+            // 先写结束时间和消息，最后写状态：轮询方看到终态时其余字段已就绪
+            result.setEndTime(System.currentTimeMillis());
+            result.setMessage(message);
+            result.setStatus(status);
+            OperationLogContext.setRecordInfo(null, String.format("%s 导入 共%d行, 成功%d行, 失败%d行",
+                    tableCode, result.getTotalRows(), result.getSuccessRows(), result.getFailedRows()));
+            operationLogService.saveAsync(OperationLogContext.end(), status, message);
+            deleteQuietly(source);
+        }
+
+        log.info("[导入] {} {} 共{}行, 成功{}行, 失败{}行, 耗时{}ms", tableCode, status, result.getTotalRows(),
+                result.getSuccessRows(), result.getFailedRows(), result.getEndTime() - result.getStartTime());
+    }
+
+    /**
+     * 查询导入进度（返回快照，后台线程仍在更新原对象）
+     */
+    public ImportResult getProgress(String taskId) {
+        ImportResult result = progressMap.get(taskId);
+        if (result == null) {
+            throw new BusinessException(400, "导入任务不存在: " + taskId);
+        }
+        return result.snapshot();
+    }
+
+    private void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("删除导入临时文件失败: {}", file, e);
+        }
+    }
+
+    private void evictExpiredProgress() {
+        long now = System.currentTimeMillis();
+        progressMap.values().removeIf(r -> r.getEndTime() > 0 && now - r.getEndTime() > PROGRESS_TTL_MS);
+    }
+
+    private ExcelTypeEnum resolveExcelType(String fileName) {
+        String lower = fileName == null ? "" : fileName.toLowerCase(Locale.ROOT);
+        if (lower.endsWith(".csv")) {
+            return ExcelTypeEnum.CSV;
+        }
+        if (lower.endsWith(".xls")) {
+            return ExcelTypeEnum.XLS;
+        }
+        return ExcelTypeEnum.XLSX;
+    }
+
+    /**
+     * 表头与列元数据的映射结果
+     */
+    private record MappedColumn(int index, ColumnMetadataDTO column, String targetColumn) {
+    }
+
+    /**
+     * 一个块的处理结果：每行的校验报告，以及已写入的行与其主键
+     */
+    private record ChunkResult(List<ValidationReport> reports, List<Map<String, Object>> insertedRows, List<Long> ids) {
+    }
+
+    /**
+     * 流式读取监听器：表头映射 + 分块处理
+     */
+    private class ImportReadListener extends AnalysisEventListener<Map<Integer, String>> {
+
+        private final TableMetadataDTO metadata;
+        private final String pageCode;
+        private final String operator;
+        private final ImportResult result;
+        private final List<Map<Integer, String>> buffer = new ArrayList<>(CHUNK_SIZE);
+        private final List<Integer> bufferRowIndexes = new ArrayList<>(CHUNK_SIZE);
+        private List<MappedColumn> mappedColumns;
+        private String insertSql;
+
+        private ImportReadListener(TableMetadataDTO metadata, String pageCode, String operator, ImportResult result) {
+            this.metadata = metadata;
+            this.pageCode = pageCode;
+            this.operator = operator;
+            this.result = result;
+        }
+
+        @Override
+        public void invokeHeadMap(Map<Integer, String> headMap, AnalysisContext context) {
+            mappedColumns = mapHeaders(metadata, headMap);
+            if (mappedColumns.isEmpty()) {
+                throw new BusinessException(400, "表头与表 " + metadata.tableCode() + " 的列均不匹配");
+            }
+            insertSql = buildInsertSql(metadata, mappedColumns);
+        }
+
+        @Override
+        public void invoke(Map<Integer, String> row, AnalysisContext context) {
+            if (mappedColumns == null) {
+                throw new BusinessException(400, "导入文件缺少表头");
+            }
+            buffer.add(row);
+            bufferRowIndexes.add(context.readRowHolder().getRowIndex() + 1);
+            if (buffer.size() >= CHUNK_SIZE) {
+                flush();
+            }
+        }
+
+        @Override
+        public void doAfterAllAnalysed(AnalysisContext context) {
+            flush();
+        }
+
+        private void flush() {
+            if (buffer.isEmpty()) {
+                return;
+            }
+            List<Map<String, Object>> convertedRows = new ArrayList<>(buffer.size());
+            List<Integer> convertedIndexes = new ArrayList<>(buffer.size());
+            for (int i = 0; i < buffer.size(); i++) {
+                int rowIndex = bufferRowIndexes.get(i);
+                result.setTotalRows(result.getTotalRows() + 1);
+                try {
+                    convertedRows.add(convertRow(buffer.get(i)));
+                    convertedIndexes.add(rowIndex);
+                } catch (BusinessException e) {
+                    addError(rowIndex, e.getMessage());
+                }
+            }
+
+            // 整块在独立事务中批量校验（每条规则一次往返）并写入，提交后再计数和记审计日志
+            ChunkResult chunk = chunkTransaction.execute(status -> {
+                List<ValidationReport> chunkReports =
+                        validationService.validateBatch(metadata.tableCode(), "save", convertedRows);
+                List<Map<String, Object>> validRows = new ArrayList<>(convertedRows.size());
+                for (int i = 0; i < convertedRows.size(); i++) {
+                    if (chunkReports.get(i).isPassed()) {
+                        validRows.add(convertedRows.get(i));
+                    }
+                }
+                return new ChunkResult(chunkReports, validRows, insertBatch(validRows));
+            });
+            for (int i = 0; i < convertedRows.size(); i++) {
+                if (!chunk.reports().get(i).isPassed()) {
+                    addError(convertedIndexes.get(i), chunk.reports().get(i).getMessage());
+                }
+            }
+            for (int i = 0; i < chunk.insertedRows().size(); i++) {
+                auditLogService.logInsert(operator, pageCode, metadata.tableCode(), metadata.tableName(),
+                        chunk.ids().get(i), chunk.insertedRows().get(i));
+            }
+            result.setSuccessRows(result.getSuccessRows() + chunk.insertedRows().size());
+            buffer.clear();
+            bufferRowIndexes.clear();
+            log.debug("[导入] {} 进度: 已读{}行, 成功{}行", metadata.tableCode(), result.getTotalRows(), result.getSuccessRows());
+        }
+
+        private Map<String, Object> convertRow(Map<Integer, String> row) {
+            Map<String, Object> data = new LinkedHashMap<>();
+            for (MappedColumn mapped : mappedColumns) {
+                ColumnMetadataDTO col = mapped.column();
+                String raw = StrUtil.trimToNull(row.get(mapped.index()));
+                if (raw == null && Boolean.TRUE.equals(col.required())) {
+                    throw new BusinessException(400, "「" + col.headerText() + "」不能为空");
+                }
+                data.put(col.columnName(), convertValue(raw, col));
+            }
+            return data;
+        }
+
+        /**
+         * @return 按 rows 顺序分配的主键
+         */
+        private List<Long> insertBatch(List<Map<String, Object>> rows) {
+            if (rows.isEmpty()) {
+                return List.of();
+            }
+            List<Long> ids = jdbcExecutor.nextSequenceValues(metadata.sequenceName(), rows.size());
+            Timestamp now = new Timestamp(System.currentTimeMillis());
+            List<Object[]> batchArgs = new ArrayList<>(rows.size());
+            for (int i = 0; i < rows.size(); i++) {
+                Map<String, Object> data = rows.get(i);
+                Object[] args = new Object[1 + mappedColumns.size() + AUDIT_INSERT_COLUMNS.size()];
+                int p = 0;
+                args[p++] = ids.get(i);
+                for (MappedColumn mapped : mappedColumns) {
+                    args[p++] = data.get(mapped.column().columnName());
+                }
+                for (String audit : AUDIT_INSERT_COLUMNS) {
+                    args[p++] = auditValue(audit, now);
+                }
+                batchArgs.add(args);
+            }
+            jdbcExecutor.batchUpdate(insertSql, batchArgs);
+            return ids;
+        }
+
+        private Object auditValue(String column, Timestamp now) {
+            return switch (column) {
+                case "CREATE_TIME", "UPDATE_TIME" -> now;
+                case "CREATE_BY", "UPDATE_BY" -> operator;
+                case "DELETED" -> 0;
+                default -> null;
+            };
+        }
+
+        private void addError(int rowIndex, String message) {
+            result.setFailedRows(result.getFailedRows() + 1);
+            if (result.getErrors().size() < MAX_ERRORS) {
+                result.getErrors().add(new ImportResult.RowError(rowIndex, message));
+            }
+        }
+    }
+
+    /**
+     * 表头匹配：优先 headerText，其次 columnName（忽略大小写）
+     * 虚拟列、主键列、审计列不参与导入
+     */
+    private List<MappedColumn> mapHeaders(TableMetadataDTO metadata, Map<Integer, String> headMap) {
+        Map<String, ColumnMetadataDTO> byHeader = new HashMap<>();
+        Map<String, ColumnMetadataDTO> byName = new HashMap<>();
+        for (ColumnMetadataDTO col : metadata.columns()) {
+            if (Boolean.TRUE.equals(col.isVirtual())) {
+                continue;
+            }
+            if (StrUtil.isNotBlank(col.headerText())) {
+                byHeader.putIfAbsent(col.headerText().trim(), col);
+            }
+            byName.putIfAbsent(TableMetadataIndex.normalize(col.columnName()), col);
+        }
+
+        String pkColumn = TableMetadataIndex.normalize(metadata.pkColumn());
+        Set<String> usedTargets = new HashSet<>();
+        List<MappedColumn> result = new ArrayList<>();
+        for (Map.Entry<Integer, String> entry : new TreeMap<>(headMap).entrySet()) {
+            String header = StrUtil.trimToNull(entry.getValue());
+            if (header == null) {
+                continue;
+            }
+            ColumnMetadataDTO col = byHeader.get(header);
+            if (col == null) {
+                col = byName.get(TableMetadataIndex.normalize(header));
+            }
+            if (col == null) {
+                log.debug("[导入] 忽略未匹配的表头: {}", header);
+                continue;
+            }
+            String target = TableMetadataIndex.normalize(
+                    StrUtil.isNotBlank(col.targetColumn()) ? col.targetColumn() : col.columnName());
+            if (target.equals(pkColumn) || TableMetadataIndex.isAuditColumn(target) || !usedTargets.add(target)) {
+                continue;
+            }
+            validateIdentifier(target, "targetColumn");
+            result.add(new MappedColumn(entry.getKey(), col, target));
+        }
+        return result;
+    }
+
+    private String buildInsertSql(TableMetadataDTO metadata, List<MappedColumn> mappedColumns) {
+        validateIdentifier(metadata.targetTable(), "targetTable");
+        validateIdentifier(metadata.pkColumn(), "pkColumn");
+        StringJoiner columns = new StringJoiner(", ");
+        StringJoiner values = new StringJoiner(", ");
+        columns.add(metadata.pkColumn());
+        values.add("?");
+        for (MappedColumn mapped : mappedColumns) {
+            columns.add(mapped.targetColumn());
+            values.add("?");
+        }
+        for (String audit : AUDIT_INSERT_COLUMNS) {
+            columns.add(audit);
+            values.add("?");
+        }
+        return "INSERT INTO " + metadata.targetTable() + " (" + columns + ") VALUES (" + values + ")";
+    }
+
+    private Object convertValue(String raw, ColumnMetadataDTO col) {
+        if (raw == null) {
+            return null;
+        }
+        String dataType = col.dataType();
+        if ("number".equals(dataType)) {
+            try {
+                return new BigDecimal(raw.replace(",", ""));
+            } catch (NumberFormatException e) {
+                throw new BusinessException(400, "「" + col.headerText() + "」不是有效数字: " + raw);
+            }
+        }
+        if ("date".equals(dataType) || "datetime".equals(dataType)) {
+            try {
+                return new Timestamp(DateUtil.parse(raw).getTime());
+            } catch (Exception e) {
+                throw new BusinessException(400, "「" + col.headerText() + "」不是有效日期: " + raw);
+            }
+        }
+        return raw;
+    }
+
+    private void requireButtonPermission(String pageCode, String buttonKey) {
+        if (StrUtil.isBlank(pageCode)) {
+            throw new BusinessException(400, "pageCode不能为空");
+        }
+        Long userId = SecurityUtils.getCurrentUserId();
+        if (userId == null) {
+            throw new BusinessException(403, "无权限访问");
+        }
+        PagePermission permission = permissionService.getPagePermission(userId, pageCode);
+        if (permission == null || !permission.hasButton(buttonKey)) {
+            throw new BusinessException(403, "无按钮权限：" + buttonKey);
+        }
+    }
+
+    private void validateIdentifier(String value, String label) {
+        if (value == null || !value.matches("^[A-Za-z][A-Za-z0-9_\\.]*$")) {
+            throw new BusinessException(400, label + " 非法: " + value);
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.cost.costserver.dynamic.service;
 import cn.hutool.core.util.StrUtil;
 import com.cost.costserver.auth.dto.PagePermission;
 import com.cost.costserver.auth.service.PermissionService;
+import com.cost.costserver.auth.service.RowPermissionKeyService;
 import com.cost.costserver.common.BusinessException;
 import com.cost.costserver.common.PageResult;
 import com.cost.costserver.common.SecurityUtils;
@@ -10,14 +11,20 @@ import com.cost.costserver.dynamic.dto.MasterDetailSaveParam;
 import com.cost.costserver.dynamic.dto.QueryParam;
 import com.cost.costserver.dynamic.dto.SaveParam;
 import com.cost.costserver.dynamic.dto.SaveResult;
-import com.cost.costserver.dynamic.mapper.DynamicMapper;
+import com.cost.costserver.dynamic.jdbc.DynamicJdbcExecutor;
+import com.cost.costserver.dynamic.jdbc.DynamicRowExtractor;
 import com.cost.costserver.log.AuditLogService;
 import com.cost.costserver.log.OperationLogContext;
 import com.cost.costserver.log.OperationLogService;
+import com.cost.costserver.log.sql.SqlTagContext;
 import com.cost.costserver.metadata.dto.ColumnMetadataDTO;
 import com.cost.costserver.metadata.dto.LookupConfigDTO;
+import com.cost.costserver.metadata.dto.PageComponentDTO;
 import com.cost.costserver.metadata.dto.TableMetadataDTO;
+import com.cost.costserver.metadata.dto.TableMetadataIndex;
 import com.cost.costserver.metadata.service.MetadataService;
+import com.cost.costserver.monitor.DataStageEvent;
+import com.cost.costserver.monitor.RequestProfile;
 import com.cost.costserver.dynamic.validation.ValidationReport;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -33,18 +40,24 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class DynamicDataService {
 
-    private final DynamicMapper dynamicMapper;
+    private final DynamicJdbcExecutor jdbcExecutor;
     private final MetadataService metadataService;
     private final ValidationService validationService;
     private final OperationLogService operationLogService;
     private final AuditLogService auditLogService;
     private final PermissionService permissionService;
-    private static final DateTimeFormatter DT_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private final RowPermissionKeyService rowPermissionKeyService;
+    private static final DateTimeFormatter DT_FORMATTER = DynamicRowExtractor.DT_FORMATTER;
+    private static final Object[] NO_ARGS = new Object[0];
 
     public PageResult<Map<String, Object>> query(String tableCode, QueryParam param) {
         // Lookup 查询放行：不校验 pageCode，不注入数据权限
         boolean isLookup = param != null && Boolean.TRUE.equals(param.getLookup());
 
+        String pageCode = param != null ? param.getPageCode() : null;
+        DataStageEvent totalEvent = DataStageEvent.begin("query", "TOTAL", tableCode, pageCode);
+        DataStageEvent stage = DataStageEvent.begin("query", "PERMISSION", tableCode, pageCode);
+        long phaseStart = RequestProfile.mark();
         if (!isLookup) {
             if (param == null || StrUtil.isBlank(param.getPageCode())) {
                 throw new BusinessException(400, "pageCode不能为空");
@@ -58,21 +71,28 @@ public class DynamicDataService {
                 throw new BusinessException(403, "无权限访问");
             }
         }
+        phaseStart = RequestProfile.lap(RequestProfile.Phase.PERMISSION, phaseStart);
+        stage = stage.next("METADATA");
 
-        TableMetadataDTO metadata = metadataService.getTableMetadata(tableCode);
-        Map<String, ColumnMetadataDTO> columnMap = buildColumnMap(metadata);
+        TableMetadataIndex index = metadataService.getTableIndex(tableCode);
+        TableMetadataDTO metadata = index.metadata();
+        Map<String, ColumnMetadataDTO> columnMap = index.columnsByRuntimeName();
+        RequestProfile.lap(RequestProfile.Phase.METADATA, phaseStart);
+        stage = stage.next("SQL_BUILD");
 
         String queryView = metadata.queryView();
-        String whereClause = buildQueryWhereClause(metadata, columnMap, param);
+        String whereClause = buildQueryWhereClause(index, param);
 
         // 注入数据权限条件（Lookup 查询不注入，从表查询不注入）
         // 从表通过外键关联主表，间接继承主表的数据权限
         boolean isDetailTable = StrUtil.isNotBlank(metadata.parentTableCode());
+        Object[] whereArgs = NO_ARGS;
         if (!isLookup && !isDetailTable && param != null && StrUtil.isNotBlank(param.getPageCode())) {
             Long userId = SecurityUtils.getCurrentUserId();
             PagePermission permission = permissionService.getPagePermission(userId, param.getPageCode());
             String dataRuleClause = buildDataRuleClause(permission, columnMap);
             whereClause = whereClause + dataRuleClause;
+            whereArgs = dataRuleArgs(permission);
         }
 
         String orderClause = buildOrderClause(
@@ -82,7 +102,6 @@ public class DynamicDataService {
                 metadata.pkColumn());
 
         String countSql = String.format("SELECT COUNT(*) FROM %s a WHERE a.DELETED = 0 %s", queryView, whereClause);
-        Long total = dynamicMapper.selectCount(countSql);
 
         int page = param != null ? param.getPage() : 1;
         Integer pSize = param != null ? param.getPageSize() : null;
@@ -92,12 +111,21 @@ public class DynamicDataService {
         String dataSql = String.format(
             "SELECT * FROM (SELECT t.*, ROWNUM rn FROM (SELECT a.* FROM %s a WHERE a.DELETED = 0 %s %s) t WHERE ROWNUM <= %d) WHERE rn > %d",
             queryView, whereClause, orderClause, offset + pageSize, offset);
+        stage = stage.next("COUNT");
+
+        Long total = jdbcExecutor.queryCount(countSql, whereArgs);
+        stage = stage.next("FETCH");
 
-        List<Map<String, Object>> list = dynamicMapper.selectList(dataSql);
-        list = list.stream().map(this::normalizeResultRow).collect(Collectors.toList());
+        // 执行器返回的行已完成键名与类型规范化
+        List<Map<String, Object>> list = jdbcExecutor.queryRows(dataSql, whereArgs);
+        stage = stage.rows(list.size()).next("COMPARE_MERGE");
 
-        // 合并历史对比数据
+        // 合并历史对比数据：其中的历史查询计入 SQL 阶段，POST_PROCESS 只含内存合并
+        phaseStart = RequestProfile.mark();
         mergeHistoryData(list, metadata, columnMap);
+        RequestProfile.lap(RequestProfile.Phase.POST_PROCESS, phaseStart);
+        stage.rows(list.size()).commit();
+        totalEvent.rows(list.size()).commit();
 
         return new PageResult<>(list, total, page, pageSize);
     }
@@ -108,6 +136,10 @@ public class DynamicDataService {
     public List<Map<String, Object>> queryAllWithConditions(String tableCode, QueryParam param) {
         boolean isLookup = param != null && Boolean.TRUE.equals(param.getLookup());
 
+        String pageCode = param != null ? param.getPageCode() : null;
+        DataStageEvent totalEvent = DataStageEvent.begin("query", "TOTAL", tableCode, pageCode);
+        DataStageEvent stage = DataStageEvent.begin("query", "PERMISSION", tableCode, pageCode);
+        long phaseStart = RequestProfile.mark();
         if (!isLookup) {
             if (param == null || StrUtil.isBlank(param.getPageCode())) {
                 throw new BusinessException(400, "pageCode????????????");
@@ -121,19 +153,26 @@ public class DynamicDataService {
                 throw new BusinessException(403, "???????????????");
             }
         }
+        phaseStart = RequestProfile.lap(RequestProfile.Phase.PERMISSION, phaseStart);
+        stage = stage.next("METADATA");
 
-        TableMetadataDTO metadata = metadataService.getTableMetadata(tableCode);
-        Map<String, ColumnMetadataDTO> columnMap = buildColumnMap(metadata);
+        TableMetadataIndex index = metadataService.getTableIndex(tableCode);
+        TableMetadataDTO metadata = index.metadata();
+        Map<String, ColumnMetadataDTO> columnMap = index.columnsByRuntimeName();
+        RequestProfile.lap(RequestProfile.Phase.METADATA, phaseStart);
+        stage = stage.next("SQL_BUILD");
 
-        String whereClause = buildQueryWhereClause(metadata, columnMap, param);
+        String whereClause = buildQueryWhereClause(index, param);
 
         // 注入数据权限条件（Lookup 查询不注入，从表查询不注入）
         boolean isDetailTable = StrUtil.isNotBlank(metadata.parentTableCode());
+        Object[] whereArgs = NO_ARGS;
         if (!isLookup && !isDetailTable && param != null && StrUtil.isNotBlank(param.getPageCode())) {
             Long userId = SecurityUtils.getCurrentUserId();
             PagePermission permission = permissionService.getPagePermission(userId, param.getPageCode());
             String dataRuleClause = buildDataRuleClause(permission, columnMap);
             whereClause = whereClause + dataRuleClause;
+            whereArgs = dataRuleArgs(permission);
         }
 
         String orderClause = buildOrderClause(
@@ -143,30 +182,40 @@ public class DynamicDataService {
                 metadata.pkColumn());
 
         String sql = String.format("SELECT a.* FROM %s a WHERE a.DELETED = 0 %s %s", metadata.queryView(), whereClause, orderClause);
-        List<Map<String, Object>> list = dynamicMapper.selectList(sql);
-        return list.stream().map(this::normalizeResultRow).collect(Collectors.toList());
+        stage = stage.next("FETCH");
+        List<Map<String, Object>> result = jdbcExecutor.queryRows(sql, whereArgs);
+        stage.rows(result.size()).commit();
+        totalEvent.rows(result.size()).commit();
+        return result;
     }
 
     private String buildDataRuleClause(PagePermission permission, Map<String, ColumnMetadataDTO> columnMap) {
-        if (permission == null || StrUtil.isBlank(permission.rowFilter())) {
+        if (permission == null || permission.rowFilter() == null || StrUtil.isBlank(permission.rowFilter().sql())) {
             return "";
         }
-        // 直接返回 SQL 条件（占位符已在 PermissionService 中解析）
-        return " AND (" + permission.rowFilter() + ")";
+        // 行权限条件中的用户占位符与物化键集均为 ? 绑定变量，绑定值见 dataRuleArgs
+        return " AND (" + permission.rowFilter().sql() + ")";
+    }
+
+    private Object[] dataRuleArgs(PagePermission permission) {
+        if (permission == null || permission.rowFilter() == null || StrUtil.isBlank(permission.rowFilter().sql())) {
+            return NO_ARGS;
+        }
+        return rowPermissionKeyService.bindValues(permission.rowFilter());
     }
 
     /**
      * 查询全部数据（不分页）
      */
     public List<Map<String, Object>> queryAll(String tableCode, String sortField, String sortOrder) {
-        TableMetadataDTO metadata = metadataService.getTableMetadata(tableCode);
-        Map<String, ColumnMetadataDTO> columnMap = buildColumnMap(metadata);
+        TableMetadataIndex index = metadataService.getTableIndex(tableCode);
+        TableMetadataDTO metadata = index.metadata();
+        Map<String, ColumnMetadataDTO> columnMap = index.columnsByRuntimeName();
 
         String orderClause = buildOrderClause(sortField, sortOrder, columnMap, metadata.pkColumn());
         String sql = String.format("SELECT * FROM %s WHERE DELETED = 0 %s", metadata.queryView(), orderClause);
 
-        List<Map<String, Object>> list = dynamicMapper.selectList(sql);
-        return list.stream().map(this::normalizeResultRow).collect(Collectors.toList());
+        return jdbcExecutor.queryRows(sql);
     }
 
     /**
@@ -205,14 +254,11 @@ public class DynamicDataService {
         }
         
         String countSql = String.format("SELECT COUNT(*) FROM %s%s", dataSource, whereClause);
-        Long total = dynamicMapper.selectCount(countSql);
+        Long total = jdbcExecutor.queryCount(countSql);
 
         if (pSize == null) {
             String sql = String.format("SELECT * FROM %s%s", dataSource, whereClause);
-            List<Map<String, Object>> list = dynamicMapper.selectList(sql);
-            List<Map<String, Object>> result = list.stream()
-                    .map(this::normalizeResultRow)
-                    .collect(Collectors.toList());
+            List<Map<String, Object>> result = jdbcExecutor.queryRows(sql);
             return new PageResult<>(result, total == null ? result.size() : total, 1, result.size());
         }
 
@@ -221,10 +267,7 @@ public class DynamicDataService {
                 "SELECT * FROM (SELECT t.*, ROWNUM rn FROM (SELECT * FROM %s%s) t WHERE ROWNUM <= %d) WHERE rn > %d",
                 dataSource, whereClause, offset + pSize, offset);
 
-        List<Map<String, Object>> list = dynamicMapper.selectList(dataSql);
-        List<Map<String, Object>> result = list.stream()
-                .map(this::normalizeResultRow)
-                .collect(Collectors.toList());
+        List<Map<String, Object>> result = jdbcExecutor.queryRows(dataSql);
 
         return new PageResult<>(result, total == null ? 0 : total, currentPage, pSize);
     }
@@ -244,24 +287,24 @@ public class DynamicDataService {
 
     public Map<String, Object> getById(String tableCode, Long id) {
         TableMetadataDTO metadata = metadataService.getTableMetadata(tableCode);
-        Map<String, ColumnMetadataDTO> columnMap = buildColumnMap(metadata);
 
-        String sql = String.format("SELECT * FROM %s WHERE %s = %d AND DELETED = 0",
-                metadata.queryView(), metadata.pkColumn(), id);
+        String sql = String.format("SELECT * FROM %s WHERE %s = ? AND DELETED = 0",
+                metadata.queryView(), metadata.pkColumn());
 
-        List<Map<String, Object>> list = dynamicMapper.selectList(sql);
+        List<Map<String, Object>> list = jdbcExecutor.queryRows(sql, id);
         if (list.isEmpty()) {
             throw new BusinessException(400, "数据不存在");
         }
-        return normalizeResultRow(list.get(0));
+        return list.get(0);
     }
 
     public Long insert(String tableCode, Map<String, Object> data) {
-        TableMetadataDTO metadata = metadataService.getTableMetadata(tableCode);
-        Map<String, ColumnMetadataDTO> columnMap = buildColumnMap(metadata);
+        TableMetadataIndex index = metadataService.getTableIndex(tableCode);
+        TableMetadataDTO metadata = index.metadata();
+        Map<String, ColumnMetadataDTO> columnMap = index.columnsByRuntimeName();
 
-        Long id = dynamicMapper.getNextSequenceValue(metadata.sequenceName());
-        data.put(resolveRuntimeColumnName(metadata, metadata.pkColumn()), id);
+        Long id = jdbcExecutor.nextSequenceValue(metadata.sequenceName());
+        data.put(index.resolveRuntimeColumnName(metadata.pkColumn()), id);
 
         String now = LocalDateTime.now().format(DT_FORMATTER);
         data.put("CREATE_TIME", now);
@@ -276,7 +319,7 @@ public class DynamicDataService {
         StringBuilder values = new StringBuilder();
 
         for (Map.Entry<String, Object> entry : data.entrySet()) {
-            String runtimeColumnName = normalizeRuntimeColumnName(entry.getKey());
+            String runtimeColumnName = TableMetadataIndex.normalize(entry.getKey());
             ColumnMetadataDTO col = columnMap.get(runtimeColumnName);
 
             // 跳过虚拟列
@@ -287,7 +330,7 @@ public class DynamicDataService {
             // 优先用 targetColumn，其次 columnName，最后转换
             String columnName = getTargetColumnName(col, runtimeColumnName);
 
-            if (col == null && !isAuditField(runtimeColumnName)) {
+            if (col == null && !TableMetadataIndex.isAuditColumn(runtimeColumnName)) {
                 continue;
             }
 
@@ -302,7 +345,7 @@ public class DynamicDataService {
         String sql = String.format("INSERT INTO %s (%s) VALUES (%s)",
                 metadata.targetTable(), columns, values);
 
-        dynamicMapper.insert(sql);
+        jdbcExecutor.update(sql);
         return id;
     }
 
@@ -331,12 +374,12 @@ public class DynamicDataService {
                     continue;
                 }
 
-                TableMetadataDTO detailMeta = metadataService.getTableMetadata(detail.getTableCode());
-                String fkColumn = detailMeta.parentFkColumn();
+                TableMetadataIndex detailIndex = metadataService.getTableIndex(detail.getTableCode());
+                String fkColumn = detailIndex.metadata().parentFkColumn();
                 if (StrUtil.isBlank(fkColumn)) {
                     throw new BusinessException(400, "从表 " + detail.getTableCode() + " 未配置外键列 PARENT_FK_COLUMN");
                 }
-                String fkFieldName = resolveRuntimeColumnName(detailMeta, fkColumn);
+                String fkFieldName = detailIndex.resolveRuntimeColumnName(fkColumn);
 
                 for (Map<String, Object> row : detail.getRows()) {
                     if (row == null)
@@ -364,20 +407,21 @@ public class DynamicDataService {
             throw new BusinessException(400, "ID不能为空");
         }
 
-        TableMetadataDTO metadata = metadataService.getTableMetadata(tableCode);
-        Map<String, ColumnMetadataDTO> columnMap = buildColumnMap(metadata);
+        TableMetadataIndex index = metadataService.getTableIndex(tableCode);
+        TableMetadataDTO metadata = index.metadata();
+        Map<String, ColumnMetadataDTO> columnMap = index.columnsByRuntimeName();
 
         data.put("UPDATE_TIME", LocalDateTime.now().format(DT_FORMATTER));
         String currentUser = SecurityUtils.getCurrentUsername();
         data.put("UPDATE_BY", StrUtil.isNotBlank(currentUser) ? currentUser : "system");
-        data.remove(resolveRuntimeColumnName(metadata, metadata.pkColumn()));
+        data.remove(index.resolveRuntimeColumnName(metadata.pkColumn()));
         data.remove("CREATE_TIME");
         data.remove("CREATE_BY");
         data.remove("DELETED");
 
         StringBuilder setClause = new StringBuilder();
         for (Map.Entry<String, Object> entry : data.entrySet()) {
-            String runtimeColumnName = normalizeRuntimeColumnName(entry.getKey());
+            String runtimeColumnName = TableMetadataIndex.normalize(entry.getKey());
             ColumnMetadataDTO col = columnMap.get(runtimeColumnName);
 
             // 跳过虚拟列
@@ -387,7 +431,7 @@ public class DynamicDataService {
 
             String columnName = getTargetColumnName(col, runtimeColumnName);
 
-            if (col == null && !isAuditField(runtimeColumnName)) {
+            if (col == null && !TableMetadataIndex.isAuditColumn(runtimeColumnName)) {
                 continue;
             }
 
@@ -404,7 +448,7 @@ public class DynamicDataService {
         String sql = String.format("UPDATE %s SET %s WHERE %s = %d AND DELETED = 0",
                 metadata.targetTable(), setClause, metadata.pkColumn(), id);
 
-        int rows = dynamicMapper.update(sql);
+        int rows = jdbcExecutor.update(sql);
         if (rows == 0) {
             throw new BusinessException(400, "数据不存在或已被删除");
         }
@@ -431,7 +475,7 @@ public class DynamicDataService {
             String childSql = String.format(
                     "UPDATE %s SET DELETED = 1, UPDATE_TIME = TO_TIMESTAMP('%s', 'YYYY-MM-DD HH24:MI:SS'), UPDATE_BY = '%s' WHERE %s = %d AND DELETED = 0",
                     child.targetTable(), now, operator, child.parentFkColumn(), id);
-            dynamicMapper.delete(childSql);
+            jdbcExecutor.update(childSql);
         }
 
         // 2. 再删除主表数据
@@ -439,19 +483,272 @@ public class DynamicDataService {
                 "UPDATE %s SET DELETED = 1, UPDATE_TIME = TO_TIMESTAMP('%s', 'YYYY-MM-DD HH24:MI:SS'), UPDATE_BY = '%s' WHERE %s = %d AND DELETED = 0",
                 metadata.targetTable(), now, operator, metadata.pkColumn(), id);
 
-        int rows = dynamicMapper.delete(sql);
+        int rows = jdbcExecutor.update(sql);
         if (rows == 0) {
             throw new BusinessException(400, "数据不存在或已被删除");
         }
     }
 
-    private Map<String, ColumnMetadataDTO> buildColumnMap(TableMetadataDTO metadata) {
-        return metadata.columns().stream()
-                .collect(Collectors.toMap(
-                        col -> normalizeRuntimeColumnName(col.columnName()),
-                        c -> c,
-                        (left, right) -> left,
-                        LinkedHashMap::new));
+    /**
+     * 服务端复制单据（主表 + 所有后代从表）
+     * 只能复制页面中表格（GRID）对应的主表，且源记录须在该页面行权限范围内（与网格查询同一条件），
+     * 否则按不存在处理，不泄露行权限之外的数据。
+     * 基于 TableMetadata 的父子关系逐层 INSERT ... SELECT，新 ID 由序列在 SQL 中生成，
+     * 新旧 ID 映射记录在事务级临时表 T_COST_CLONE_ID_MAP（ON COMMIT DELETE ROWS），每张表两条语句。
+     * 主表字段可由 overrides 指定新值（如新单据编号）；未指定的、被 unique 验证规则引用的主表字段置空，
+     * 不原样复制原单的唯一编号。写入后回读新行执行后端验证，不通过则整体回滚，并为主表和每条从表记录写审计日志
+     *
+     * @param overrides 主表字段新值（运行时列名 -> 值），可为空
+     * @return 新主表 ID 及回读的主表行
+     */
+    @org.springframework.transaction.annotation.Transactional(rollbackFor = Exception.class)
+    public SaveResult cloneRecord(String tableCode, Long id, String pageCode, Map<String, Object> overrides) {
+        if (id == null) {
+            throw new BusinessException(400, "ID不能为空");
+        }
+        PagePermission permission = requireButtonPermission(pageCode, "save");
+        if (!isPageGridTable(metadataService.getPageComponents(pageCode), tableCode)) {
+            throw new BusinessException(403, "表 " + tableCode + " 不属于页面 " + pageCode);
+        }
+
+        TableMetadataIndex index = metadataService.getTableIndex(tableCode);
+        TableMetadataDTO metadata = index.metadata();
+        requireVisibleRow(index, permission, id);
+        String currentUser = SecurityUtils.getCurrentUsername();
+        String userName = StrUtil.isNotBlank(currentUser) ? currentUser : "system";
+        String operator = escapeSql(userName);
+        String now = LocalDateTime.now().format(DT_FORMATTER);
+        String auditValues = String.format(
+                "TO_TIMESTAMP('%s', 'YYYY-MM-DD HH24:MI:SS'), TO_TIMESTAMP('%s', 'YYYY-MM-DD HH24:MI:SS'), '%s', '%s', 0",
+                now, now, operator, operator);
+
+        OperationLogContext.start("INSERT", tableCode, userName);
+        try {
+            jdbcExecutor.update("DELETE FROM T_COST_CLONE_ID_MAP");
+
+            // 1. 主表：分配新 ID 并复制
+            validateIdentifier(metadata.sequenceName(), "sequenceName");
+            Long newId = jdbcExecutor.nextSequenceValue(metadata.sequenceName());
+            jdbcExecutor.update(String.format(
+                    "INSERT INTO T_COST_CLONE_ID_MAP (TABLE_CODE, OLD_ID, NEW_ID) VALUES ('%s', %d, %d)",
+                    escapeSql(tableCode), id, newId));
+
+            List<String> copyColumns = resolveCloneColumns(metadata, null);
+            String columnList = copyColumns.isEmpty() ? "" : ", " + String.join(", ", copyColumns);
+            String selectList = buildCloneSelectList(index, copyColumns, overrides,
+                    validationService.uniqueFields(tableCode, "save"));
+            int rows = jdbcExecutor.update(String.format(
+                    "INSERT INTO %s (%s%s, CREATE_TIME, UPDATE_TIME, CREATE_BY, UPDATE_BY, DELETED) "
+                            + "SELECT %d%s, %s FROM %s s WHERE s.%s = %d AND s.DELETED = 0",
+                    metadata.targetTable(), metadata.pkColumn(), columnList,
+                    newId, selectList, auditValues, metadata.targetTable(), metadata.pkColumn(), id));
+            if (rows == 0) {
+                throw new BusinessException(400, "数据不存在或已被删除");
+            }
+
+            // 2. 逐层复制后代从表
+            List<TableMetadataDTO> clonedChildren = new ArrayList<>();
+            cloneChildren(metadata, auditValues, new HashSet<>(Set.of(tableCode)), clonedChildren);
+
+            // 3. 回读新行并验证，复制出的唯一编号等与原单冲突时整体回滚
+            List<Map<String, Object>> masterRows = reloadRowsByIds(tableCode, List.of(newId));
+            validateClonedRows(tableCode, masterRows);
+            Map<TableMetadataDTO, List<Map<String, Object>>> childRows = new LinkedHashMap<>();
+            for (TableMetadataDTO child : clonedChildren) {
+                List<Long> childIds = new ArrayList<>();
+                for (Map<String, Object> row : jdbcExecutor.queryRows(
+                        "SELECT NEW_ID FROM T_COST_CLONE_ID_MAP WHERE TABLE_CODE = ?", child.tableCode())) {
+                    childIds.add(((Number) row.get("NEW_ID")).longValue());
+                }
+                List<Map<String, Object>> clonedRows = reloadRowsByIds(child.tableCode(), childIds);
+                validateClonedRows(child.tableCode(), clonedRows);
+                childRows.put(child, clonedRows);
+            }
+
+            OperationLogContext.setRecordInfo(newId, tableCode + "#" + newId);
+            OperationLogContext.LogSession session = OperationLogContext.end();
+            operationLogService.saveAsync(session, "SUCCESS", null);
+
+            SaveResult result = new SaveResult(newId, Map.of(id, newId));
+            if (!masterRows.isEmpty()) {
+                result.setMasterRow(masterRows.get(0));
+            }
+            auditLogService.logInsert(userName, pageCode, tableCode, metadata.tableName(), newId,
+                    result.getMasterRow() != null ? result.getMasterRow() : Map.of());
+            childRows.forEach((child, clonedRows) -> {
+                String pkField = TableMetadataIndex.normalize(child.pkColumn());
+                for (Map<String, Object> row : clonedRows) {
+                    Object pk = row.get(pkField);
+                    auditLogService.logInsert(userName, pageCode, child.tableCode(), child.tableName(),
+                            pk instanceof Number number ? number.longValue() : null, row);
+                }
+            });
+            return result;
+        } catch (Exception e) {
+            OperationLogContext.LogSession session = OperationLogContext.end();
+            operationLogService.saveAsync(session, "FAILED", e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * 主表复制的 SELECT 列表：overrides 中的字段取新值，未覆盖的唯一字段置 NULL，其余原样取自源行 s
+     */
+    private String buildCloneSelectList(TableMetadataIndex index, List<String> copyColumns,
+                                        Map<String, Object> overrides, Set<String> uniqueFields) {
+        Map<String, Object> values = new HashMap<>();
+        if (overrides != null) {
+            Set<String> copyable = new HashSet<>();
+            for (String target : copyColumns) {
+                copyable.add(index.resolveRuntimeColumnName(target));
+            }
+            for (Map.Entry<String, Object> entry : overrides.entrySet()) {
+                ColumnMetadataDTO col = index.column(entry.getKey());
+                if (col == null || !copyable.contains(TableMetadataIndex.normalize(col.columnName()))) {
+                    throw new BusinessException(400, "复制时不可指定字段: " + entry.getKey());
+                }
+                values.put(TableMetadataIndex.normalize(col.columnName()), entry.getValue());
+            }
+        }
+        StringBuilder sb = new StringBuilder();
+        for (String target : copyColumns) {
+            String runtimeColumnName = TableMetadataIndex.normalize(index.resolveRuntimeColumnName(target));
+            sb.append(", ");
+            if (values.containsKey(runtimeColumnName)) {
+                sb.append(formatValue(values.get(runtimeColumnName), index.column(runtimeColumnName), runtimeColumnName));
+            } else if (uniqueFields.contains(runtimeColumnName)) {
+                sb.append("NULL");
+            } else {
+                sb.append("s.").append(target);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 页面组件树中是否有引用该表的 GRID 组件
+     */
+    private boolean isPageGridTable(List<PageComponentDTO> components, String tableCode) {
+        if (components == null) {
+            return false;
+        }
+        for (PageComponentDTO component : components) {
+            if ("GRID".equalsIgnoreCase(component.componentType())
+                    && StrUtil.equalsIgnoreCase(component.refTableCode(), tableCode)) {
+                return true;
+            }
+            if (isPageGridTable(component.children(), tableCode)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 按页面行权限在查询视图上确认记录可见，不可见与不存在同样返回 404
+     */
+    private void requireVisibleRow(TableMetadataIndex index, PagePermission permission, Long id) {
+        TableMetadataDTO metadata = index.metadata();
+        String pkQueryColumn = index.resolveQueryColumnName(metadata.pkColumn());
+        validateIdentifier(metadata.queryView(), "queryView");
+        validateIdentifier(pkQueryColumn, "pkColumn");
+        Object[] ruleArgs = dataRuleArgs(permission);
+        Object[] args = new Object[ruleArgs.length + 1];
+        args[0] = id;
+        System.arraycopy(ruleArgs, 0, args, 1, ruleArgs.length);
+        Long visible = jdbcExecutor.queryCount(String.format("SELECT COUNT(*) FROM %s a WHERE a.DELETED = 0 AND a.%s = ?%s",
+                metadata.queryView(), pkQueryColumn, buildDataRuleClause(permission, index.columnsByRuntimeName())), args);
+        if (visible == null || visible == 0) {
+            throw new BusinessException(404, "数据不存在或无权访问");
+        }
+    }
+
+    /**
+     * 复制后的行按保存规则验证（行中已含新主键，规则按修改记录的语义排除自身）
+     */
+    private void validateClonedRows(String tableCode, List<Map<String, Object>> rows) {
+        for (ValidationReport report : validationService.validateBatch(tableCode, "save", rows)) {
+            if (!report.isPassed()) {
+                throw new BusinessException(400, "复制失败: " + report.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 复制 parent 的所有子表记录（递归），父表的新旧 ID 映射已在 T_COST_CLONE_ID_MAP 中
+     * 实际复制了记录的子表按复制顺序加入 cloned
+     */
+    private void cloneChildren(TableMetadataDTO parent, String auditValues, Set<String> visited,
+                               List<TableMetadataDTO> cloned) {
+        for (TableMetadataDTO child : metadataService.findChildTables(parent.tableCode())) {
+            if (!visited.add(child.tableCode())) {
+                continue;
+            }
+            if (StrUtil.isBlank(child.parentFkColumn())) {
+                log.warn("子表 {} 未配置外键列，跳过复制", child.tableCode());
+                continue;
+            }
+            validateIdentifier(child.targetTable(), "targetTable");
+            validateIdentifier(child.pkColumn(), "pkColumn");
+            validateIdentifier(child.parentFkColumn(), "parentFkColumn");
+            validateIdentifier(child.sequenceName(), "sequenceName");
+            String childCode = escapeSql(child.tableCode());
+            String parentCode = escapeSql(parent.tableCode());
+
+            // 为子表记录分配新 ID
+            int mapped = jdbcExecutor.update(String.format(
+                    "INSERT INTO T_COST_CLONE_ID_MAP (TABLE_CODE, OLD_ID, NEW_ID) "
+                            + "SELECT '%s', c.%s, %s.NEXTVAL FROM %s c WHERE c.DELETED = 0 AND c.%s IN "
+                            + "(SELECT OLD_ID FROM T_COST_CLONE_ID_MAP WHERE TABLE_CODE = '%s')",
+                    childCode, child.pkColumn(), child.sequenceName(), child.targetTable(),
+                    child.parentFkColumn(), parentCode));
+            if (mapped == 0) {
+                continue;
+            }
+            cloned.add(child);
+
+            // 复制数据并替换主键/外键
+            List<String> copyColumns = resolveCloneColumns(child, child.parentFkColumn());
+            String columnList = copyColumns.isEmpty() ? "" : ", " + String.join(", ", copyColumns);
+            String selectList = copyColumns.isEmpty() ? ""
+                    : ", " + copyColumns.stream().map(c -> "c." + c).collect(Collectors.joining(", "));
+            jdbcExecutor.update(String.format(
+                    "INSERT INTO %s (%s, %s%s, CREATE_TIME, UPDATE_TIME, CREATE_BY, UPDATE_BY, DELETED) "
+                            + "SELECT m.NEW_ID, pm.NEW_ID%s, %s FROM %s c "
+                            + "JOIN T_COST_CLONE_ID_MAP m ON m.TABLE_CODE = '%s' AND m.OLD_ID = c.%s "
+                            + "JOIN T_COST_CLONE_ID_MAP pm ON pm.TABLE_CODE = '%s' AND pm.OLD_ID = c.%s",
+                    child.targetTable(), child.pkColumn(), child.parentFkColumn(), columnList,
+                    selectList, auditValues, child.targetTable(),
+                    childCode, child.pkColumn(), parentCode, child.parentFkColumn()));
+
+            cloneChildren(child, auditValues, visited, cloned);
+        }
+    }
+
+    /**
+     * 复制时需要原样拷贝的目标表列（排除虚拟列、主键、外键和审计字段）
+     */
+    private List<String> resolveCloneColumns(TableMetadataDTO metadata, String fkColumn) {
+        validateIdentifier(metadata.targetTable(), "targetTable");
+        validateIdentifier(metadata.pkColumn(), "pkColumn");
+        Set<String> excluded = new HashSet<>();
+        excluded.add(TableMetadataIndex.normalize(metadata.pkColumn()));
+        if (StrUtil.isNotBlank(fkColumn)) {
+            excluded.add(TableMetadataIndex.normalize(fkColumn));
+        }
+        LinkedHashSet<String> columns = new LinkedHashSet<>();
+        for (ColumnMetadataDTO col : metadata.columns()) {
+            if (Boolean.TRUE.equals(col.isVirtual())) {
+                continue;
+            }
+            String target = TableMetadataIndex.normalize(getTargetColumnName(col, col.columnName()));
+            if (excluded.contains(target) || TableMetadataIndex.isAuditColumn(target)) {
+                continue;
+            }
+            validateIdentifier(target, "targetColumn");
+            columns.add(target);
+        }
+        return new ArrayList<>(columns);
     }
 
     private record PageQueryScope(String componentKey, String componentType, String tableCode) {
@@ -461,15 +758,15 @@ public class DynamicDataService {
         static final PageQueryScopeIndex EMPTY = new PageQueryScopeIndex(Set.of(), Map.of());
     }
 
-    private String buildQueryWhereClause(
-            TableMetadataDTO metadata,
-            Map<String, ColumnMetadataDTO> columnMap,
-            QueryParam param) {
+    String buildQueryWhereClause(TableMetadataIndex index, QueryParam param) {
         List<QueryParam.QueryCondition> conditions = param != null ? param.getConditions() : null;
         if (conditions == null || conditions.isEmpty()) {
             return "";
         }
 
+        TableMetadataDTO metadata = index.metadata();
+        Map<String, ColumnMetadataDTO> columnMap = index.columnsByRuntimeName();
+
         boolean supportsDetailExists = StrUtil.isBlank(metadata.parentTableCode())
                 && param != null
                 && StrUtil.isNotBlank(param.getPageCode());
@@ -484,7 +781,7 @@ public class DynamicDataService {
             if (cond == null) {
                 continue;
             }
-            String tableKey = normalizeRuntimeColumnName(cond.getTableKey());
+            String tableKey = TableMetadataIndex.normalize(cond.getTableKey());
             if (tableKey.isEmpty() || scopeIndex.masterKeys().contains(tableKey)) {
                 localConditions.add(cond);
                 continue;
@@ -503,25 +800,25 @@ public class DynamicDataService {
             return sb.toString();
         }
 
-        String masterPkQueryColumn = resolveQueryColumnByTarget(metadata, columnMap, metadata.pkColumn());
+        String masterPkQueryColumn = index.resolveQueryColumnName(metadata.pkColumn());
         for (Map.Entry<String, List<QueryParam.QueryCondition>> entry : detailConditionsByKey.entrySet()) {
             PageQueryScope detailScope = scopeIndex.detailScopesByKey().get(entry.getKey());
             if (detailScope == null || StrUtil.isBlank(detailScope.tableCode())) {
                 continue;
             }
 
-            TableMetadataDTO detailMeta = metadataService.getTableMetadata(detailScope.tableCode());
+            TableMetadataIndex detailIndex = metadataService.getTableIndex(detailScope.tableCode());
+            TableMetadataDTO detailMeta = detailIndex != null ? detailIndex.metadata() : null;
             if (detailMeta == null || StrUtil.isBlank(detailMeta.queryView()) || StrUtil.isBlank(detailMeta.parentFkColumn())) {
                 continue;
             }
 
-            Map<String, ColumnMetadataDTO> detailColumnMap = buildColumnMap(detailMeta);
-            String detailWhereClause = buildWhereClause(entry.getValue(), detailColumnMap, "d");
+            String detailWhereClause = buildWhereClause(entry.getValue(), detailIndex.columnsByRuntimeName(), "d");
             if (StrUtil.isBlank(detailWhereClause)) {
                 continue;
             }
 
-            String detailFkQueryColumn = resolveQueryColumnByTarget(detailMeta, detailColumnMap, detailMeta.parentFkColumn());
+            String detailFkQueryColumn = detailIndex.resolveQueryColumnName(detailMeta.parentFkColumn());
             sb.append(" AND EXISTS (SELECT 1 FROM ")
                     .append(detailMeta.queryView())
                     .append(" d WHERE d.DELETED = 0 AND ")
@@ -540,7 +837,7 @@ public class DynamicDataService {
         }
 
         String escapedPageCode = pageCode.replace("'", "''");
-        List<Map<String, Object>> rows = dynamicMapper.selectList(
+        List<Map<String, Object>> rows = jdbcExecutor.queryRows(
                 "SELECT COMPONENT_KEY, COMPONENT_TYPE, REF_TABLE_CODE " +
                         "FROM T_COST_PAGE_COMPONENT " +
                         "WHERE PAGE_CODE = '" + escapedPageCode + "' " +
@@ -565,8 +862,8 @@ public class DynamicDataService {
             }
 
             PageQueryScope scope = new PageQueryScope(
-                    normalizeRuntimeColumnName(componentKey),
-                    normalizeRuntimeColumnName(componentType),
+                    TableMetadataIndex.normalize(componentKey),
+                    TableMetadataIndex.normalize(componentType),
                     refTableCode);
 
             if ("DETAIL_GRID".equals(scope.componentType())) {
@@ -598,18 +895,6 @@ public class DynamicDataService {
         return new PageQueryScopeIndex(masterKeys, detailScopesByKey);
     }
 
-    private String resolveQueryColumnByTarget(
-            TableMetadataDTO metadata,
-            Map<String, ColumnMetadataDTO> columnMap,
-            String targetColumnName) {
-        String runtimeColumnName = resolveRuntimeColumnName(metadata, targetColumnName);
-        ColumnMetadataDTO column = columnMap.get(normalizeRuntimeColumnName(runtimeColumnName));
-        if (column != null) {
-            return resolveQueryColumnName(column);
-        }
-        return normalizeRuntimeColumnName(targetColumnName);
-    }
-
     private String buildWhereClause(
             List<QueryParam.QueryCondition> conditions,
             Map<String, ColumnMetadataDTO> columnMap,
@@ -624,13 +909,13 @@ public class DynamicDataService {
                 continue;
             }
 
-            String runtimeColumnName = normalizeRuntimeColumnName(cond.getField());
+            String runtimeColumnName = TableMetadataIndex.normalize(cond.getField());
             ColumnMetadataDTO col = columnMap.get(runtimeColumnName);
 
             String columnName;
             if (col != null) {
                 columnName = qualifyColumn(resolveQueryColumnName(col), tableAlias);
-            } else if (isAuditField(runtimeColumnName)) {
+            } else if (TableMetadataIndex.isAuditColumn(runtimeColumnName)) {
                 columnName = qualifyColumn(runtimeColumnName, tableAlias);
             } else {
                 log.warn("invalid query field: {}", runtimeColumnName);
@@ -730,7 +1015,7 @@ public class DynamicDataService {
         return String.join(", ", parts);
     }
 
-    private String buildOrderClause(String sortField, String sortOrder, Map<String, ColumnMetadataDTO> columnMap, String pkColumn) {
+    String buildOrderClause(String sortField, String sortOrder, Map<String, ColumnMetadataDTO> columnMap, String pkColumn) {
         // 查找主键字段在视图中的列名
         // 优先从列元数据中查找 targetColumn 匹配 pkColumn 的列，取其 columnName
         String pkViewColumn = null;
@@ -751,7 +1036,7 @@ public class DynamicDataService {
             // 没有排序字段时，默认按主键排序以确保分页稳定性
             return " ORDER BY " + pk + " ASC";
         }
-        ColumnMetadataDTO col = columnMap.get(normalizeRuntimeColumnName(sortField));
+        ColumnMetadataDTO col = columnMap.get(TableMetadataIndex.normalize(sortField));
         if (col == null || !Boolean.TRUE.equals(col.sortable())) {
             // 排序字段无效时，默认按主键排序
             return " ORDER BY " + pk + " ASC";
@@ -813,18 +1098,6 @@ public class DynamicDataService {
         return value.replace("'", "''");
     }
 
-    /**
-     * 简化版：将下划线列名转换为 camelCase（不依赖元数据）
-     */
-    private Map<String, Object> normalizeResultRow(Map<String, Object> row) {
-        Map<String, Object> result = new LinkedHashMap<>();
-        for (Map.Entry<String, Object> entry : row.entrySet()) {
-            Object value = convertOracleType(entry.getValue());
-            result.put(normalizeRuntimeColumnName(entry.getKey()), value);
-        }
-        return result;
-    }
-
     /**
      * 仅允许字母/数字/下划线/点，防止注入
      */
@@ -837,51 +1110,13 @@ public class DynamicDataService {
         }
     }
 
-    /**
-     * 转换 JDBC 类型为可序列化的 Java 类型
-     * 配置 oracle.jdbc.J2EE13Compliant=true 后，Oracle 返回标准 java.sql 类型
-     */
-    private Object convertOracleType(Object value) {
-        if (value == null) {
-            return null;
-        }
-        // java.sql.Timestamp -> String
-        if (value instanceof java.sql.Timestamp ts) {
-            return ts.toLocalDateTime().format(DT_FORMATTER);
-        }
-        // java.sql.Date -> String
-        if (value instanceof java.sql.Date date) {
-            return date.toLocalDate().toString();
-        }
-        // java.sql.Clob -> String
-        if (value instanceof java.sql.Clob clob) {
-            try {
-                return clob.getSubString(1, (int) clob.length());
-            } catch (java.sql.SQLException e) {
-                log.warn("CLOB 转换失败: {}", e.getMessage());
-                return null;
-            }
-        }
-        // 其他类型保持原样
-        return value;
-    }
-
-    private String normalizeRuntimeColumnName(String name) {
-        return name == null ? "" : name.trim().toUpperCase(Locale.ROOT);
-    }
-
-    private boolean isAuditField(String columnName) {
-        return Set.of("ID", "DELETED", "CREATE_TIME", "UPDATE_TIME", "CREATE_BY", "UPDATE_BY")
-                .contains(normalizeRuntimeColumnName(columnName));
-    }
-
     /**
      * 获取目标列名（用于 INSERT/UPDATE）
      * 优先级：targetColumn > columnName > 驼峰转下划线
      */
     private String getTargetColumnName(ColumnMetadataDTO col, String runtimeColumnName) {
         if (col == null) {
-            return normalizeRuntimeColumnName(runtimeColumnName);
+            return TableMetadataIndex.normalize(runtimeColumnName);
         }
         if (StrUtil.isNotBlank(col.targetColumn())) {
             return col.targetColumn();
@@ -896,20 +1131,6 @@ public class DynamicDataService {
         return StrUtil.isNotBlank(col.queryColumn()) ? col.queryColumn() : col.columnName();
     }
 
-    private String resolveRuntimeColumnName(TableMetadataDTO metadata, String targetColumnName) {
-        if (metadata == null || StrUtil.isBlank(targetColumnName)) {
-            return normalizeRuntimeColumnName(targetColumnName);
-        }
-        String normalizedTarget = normalizeRuntimeColumnName(targetColumnName);
-        for (ColumnMetadataDTO col : metadata.columns()) {
-            String candidateTarget = StrUtil.isNotBlank(col.targetColumn()) ? col.targetColumn() : col.columnName();
-            if (normalizedTarget.equals(normalizeRuntimeColumnName(candidateTarget))) {
-                return col.columnName();
-            }
-        }
-        return normalizedTarget;
-    }
-
     private Long resolveTempRecordId(Long recordId, Map<String, Object> data) {
         if (recordId != null) {
             return recordId;
@@ -956,6 +1177,8 @@ public class DynamicDataService {
         Long masterId = null;
         String masterTableCode = null;
         Map<Long, Long> idMapping = new HashMap<>();
+        // 新增/修改的从表记录 ID，保存后统一回读
+        Map<String, List<Long>> affectedDetailIds = new LinkedHashMap<>();
 
         // 1. 处理主表
         var master = param.getMaster();
@@ -964,7 +1187,10 @@ public class DynamicDataService {
             throw new BusinessException(400, "主表 tableCode 不能为空");
         }
         master.getData().remove("_tableCode");
+        DataStageEvent totalEvent = DataStageEvent.begin("save", "TOTAL", masterTableCode, param.getPageCode());
+        DataStageEvent stage = DataStageEvent.begin("save", "PERMISSION", masterTableCode, param.getPageCode());
         requireButtonPermission(param.getPageCode(), "save");
+        SqlTagContext.set(masterTableCode, param.getPageCode());
 
         // 开始操作日志记录
         String operationType = "added".equals(master.getStatus()) ? "INSERT"
@@ -974,19 +1200,22 @@ public class DynamicDataService {
         final String userName = currentUser; // for lambda
         try {
             // 2. 后端验证 - 主表
+            stage = stage.next("VALIDATE_MASTER");
             ValidationReport masterValidationReport = null;
             if (!"deleted".equals(master.getStatus())) {
                 Map<String, Object> validateData = new HashMap<>(master.getData());
                 if (!"added".equals(master.getStatus()) && master.getId() != null) {
-                    TableMetadataDTO masterMeta = metadataService.getTableMetadata(masterTableCode);
-                    validateData.put(resolveRuntimeColumnName(masterMeta, masterMeta.pkColumn()), master.getId());
+                    TableMetadataIndex masterIndex = metadataService.getTableIndex(masterTableCode);
+                    validateData.put(masterIndex.resolveRuntimeColumnName(masterIndex.metadata().pkColumn()), master.getId());
                 }
-                masterValidationReport = validationService.validate(masterTableCode, "save", validateData);
+                masterValidationReport = validationService.validate(masterTableCode, "save", validateData,
+                        resolveChangedFields(master));
                 if (!masterValidationReport.isPassed()) {
                     throw new BusinessException(400, masterValidationReport.getMessage());
                 }
             }
 
+            stage = stage.next("WRITE_MASTER");
             switch (master.getStatus()) {
                 case "added" -> {
                     Long tempId = resolveTempRecordId(master.getId(), master.getData());
@@ -1021,6 +1250,7 @@ public class DynamicDataService {
 
             // 设置记录信息
             OperationLogContext.setRecordInfo(masterId, masterTableCode + "#" + masterId);
+            stage.rows(1).commit();
 
             // 3. 处理从表
             if (param.getDetails() != null && !param.getDetails().isEmpty()) {
@@ -1031,26 +1261,37 @@ public class DynamicDataService {
                     if (items == null || items.isEmpty())
                         continue;
 
-                    TableMetadataDTO detailMeta = metadataService.getTableMetadata(detailTableCode);
+                    DataStageEvent detailStage = DataStageEvent.begin("save", "VALIDATE_DETAIL",
+                            detailTableCode, param.getPageCode());
+                    TableMetadataIndex detailIndex = metadataService.getTableIndex(detailTableCode);
+                    TableMetadataDTO detailMeta = detailIndex.metadata();
                     String fkColumn = detailMeta.parentFkColumn();
-                    String fkFieldName = resolveRuntimeColumnName(detailMeta, fkColumn);
+                    String fkFieldName = detailIndex.resolveRuntimeColumnName(fkColumn);
 
+                    // 后端验证 - 从表（非删除操作），每条规则对整批数据只执行一次
+                    List<Map<String, Object>> validateRows = new ArrayList<>();
+                    List<Set<String>> validateChanges = new ArrayList<>();
                     for (var item : items) {
-                        if (item == null || "unchanged".equals(item.getStatus()))
+                        if (item == null || "unchanged".equals(item.getStatus()) || "deleted".equals(item.getStatus()))
                             continue;
-
-                        // 后端验证 - 从表（非删除操作）
-                        ValidationReport detailValidationReport = null;
-                        if (!"deleted".equals(item.getStatus())) {
-                            Map<String, Object> validateData = new HashMap<>(item.getData());
-                            if (!"added".equals(item.getStatus()) && item.getId() != null) {
-                                validateData.put(resolveRuntimeColumnName(detailMeta, detailMeta.pkColumn()), item.getId());
-                            }
-                            detailValidationReport = validationService.validate(detailTableCode, "save", validateData);
-                            if (!detailValidationReport.isPassed()) {
-                                throw new BusinessException(400, detailValidationReport.getMessage());
-                            }
+                        Map<String, Object> validateData = new HashMap<>(item.getData());
+                        if (!"added".equals(item.getStatus()) && item.getId() != null) {
+                            validateData.put(detailIndex.resolveRuntimeColumnName(detailMeta.pkColumn()), item.getId());
                         }
+                        validateRows.add(validateData);
+                        validateChanges.add(resolveChangedFields(item));
+                    }
+                    for (ValidationReport detailValidationReport : validationService.validateBatch(
+                            detailTableCode, "save", validateRows, validateChanges)) {
+                        if (!detailValidationReport.isPassed()) {
+                            throw new BusinessException(400, detailValidationReport.getMessage());
+                        }
+                    }
+                    detailStage = detailStage.rows(validateRows.size()).next("WRITE_DETAIL");
+
+                    for (var item : items) {
+                        if (item == null || "unchanged".equals(item.getStatus()))
+                            continue;
 
                         switch (item.getStatus()) {
                             case "added" -> {
@@ -1062,12 +1303,14 @@ public class DynamicDataService {
                                 if (tempId != null && !tempId.equals(detailId)) {
                                     idMapping.put(tempId, detailId);
                                 }
+                                affectedDetailIds.computeIfAbsent(detailTableCode, k -> new ArrayList<>()).add(detailId);
                                 // 审计日志 - 从表新增
                                 auditLogService.logInsert(userName, param.getPageCode(), detailTableCode,
                                         detailMeta.tableName(), detailId, item.getData());
                             }
                             case "modified" -> {
                                 update(detailTableCode, item.getId(), item.getData());
+                                affectedDetailIds.computeIfAbsent(detailTableCode, k -> new ArrayList<>()).add(item.getId());
                                 // 审计日志 - 从表修改
                                 auditLogService.logAsync(userName, param.getPageCode(), detailTableCode,
                                         detailMeta.tableName(), item.getId(), "UPDATE", item.getChanges());
@@ -1080,6 +1323,7 @@ public class DynamicDataService {
                             }
                         }
                     }
+                    detailStage.rows(items.size()).commit();
                 }
             }
 
@@ -1089,30 +1333,28 @@ public class DynamicDataService {
 
             SaveResult result = new SaveResult(masterId, idMapping.isEmpty() ? null : idMapping);
             
-            // 查询更新后的主表行数据（非删除操作）
-            if (masterId != null && !"deleted".equals(master.getStatus())) {
-                try {
-                    QueryParam queryParam = new QueryParam();
-                    queryParam.setLookup(true); // 跳过权限检查
-                    // 使用 id 字段查询（元数据统一映射主键为 id）
-                    TableMetadataDTO masterMeta = metadataService.getTableMetadata(masterTableCode);
-                    queryParam.setConditions(List.of(
-                        new QueryParam.QueryCondition(
-                                null,
-                                resolveRuntimeColumnName(masterMeta, masterMeta.pkColumn()),
-                                "eq",
-                                masterId,
-                                null)
-                    ));
-                    PageResult<Map<String, Object>> queryResult = query(masterTableCode, queryParam);
-                    if (queryResult.getList() != null && !queryResult.getList().isEmpty()) {
-                        result.setMasterRow(queryResult.getList().get(0));
+            // 按 ID 回读主表和受影响的从表行（含视图/触发器计算字段），每张表一条查询，不做 COUNT
+            stage = DataStageEvent.begin("save", "RELOAD", masterTableCode, param.getPageCode());
+            try {
+                if (masterId != null && !"deleted".equals(master.getStatus())) {
+                    List<Map<String, Object>> masterRows = reloadRowsByIds(masterTableCode, List.of(masterId));
+                    if (!masterRows.isEmpty()) {
+                        result.setMasterRow(masterRows.get(0));
+                    }
+                }
+                if (!affectedDetailIds.isEmpty()) {
+                    Map<String, List<Map<String, Object>>> detailRows = new LinkedHashMap<>();
+                    for (var entry : affectedDetailIds.entrySet()) {
+                        detailRows.put(entry.getKey(), reloadRowsByIds(entry.getKey(), entry.getValue()));
                     }
-                } catch (Exception e) {
-                    log.warn("查询更新后的主表数据失败: {}", e.getMessage());
+                    result.setDetailRows(detailRows);
                 }
+            } catch (Exception e) {
+                log.warn("回读保存后的数据失败: {}", e.getMessage());
             }
-            
+            stage.commit();
+            totalEvent.rows(1 + affectedDetailIds.values().stream().mapToLong(List::size).sum()).commit();
+
             return result;
         } catch (Exception e) {
             // 保存操作日志 - 失败
@@ -1122,7 +1364,67 @@ public class DynamicDataService {
         }
     }
 
-    private void requireButtonPermission(String pageCode, String buttonKey) {
+    /**
+     * 按主键批量回读查询视图中的行（IN 列表每 1000 个一批），按传入 ID 顺序返回
+     * 回读行会直接替换前端网格中的行，因此同样合并对比数据（compare 列），与 query 返回的行结构一致
+     */
+    private List<Map<String, Object>> reloadRowsByIds(String tableCode, List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        TableMetadataIndex index = metadataService.getTableIndex(tableCode);
+        TableMetadataDTO metadata = index.metadata();
+        validateIdentifier(metadata.queryView(), "queryView");
+        validateIdentifier(metadata.pkColumn(), "pkColumn");
+        String pkField = TableMetadataIndex.normalize(metadata.pkColumn());
+
+        List<Long> distinctIds = ids.stream().filter(Objects::nonNull).distinct().collect(Collectors.toList());
+        Map<Object, Map<String, Object>> rowsById = new HashMap<>();
+        List<Map<String, Object>> loaded = new ArrayList<>(distinctIds.size());
+        for (int from = 0; from < distinctIds.size(); from += 1000) {
+            List<Long> chunk = distinctIds.subList(from, Math.min(from + 1000, distinctIds.size()));
+            String inList = chunk.stream().map(String::valueOf).collect(Collectors.joining(", "));
+            String sql = String.format("SELECT a.* FROM %s a WHERE a.DELETED = 0 AND a.%s IN (%s)",
+                    metadata.queryView(), metadata.pkColumn(), inList);
+            for (Map<String, Object> normalized : jdbcExecutor.queryRows(sql)) {
+                loaded.add(normalized);
+                Object pk = normalized.get(pkField);
+                if (pk instanceof Number number) {
+                    rowsById.put(number.longValue(), normalized);
+                }
+            }
+        }
+        // 只对回读的行做对比合并，代价与回读行数成正比
+        mergeHistoryData(loaded, metadata, index.columnsByRuntimeName());
+
+        List<Map<String, Object>> ordered = new ArrayList<>(loaded.size());
+        for (Long id : distinctIds) {
+            Map<String, Object> row = rowsById.get(id);
+            if (row != null) {
+                ordered.add(row);
+            }
+        }
+        return ordered.size() == loaded.size() ? ordered : loaded;
+    }
+
+    /**
+     * 修改记录的变更字段，用于跳过与变更无关的验证规则
+     * 非修改记录或未提供变更记录时返回 null（执行全部规则）
+     */
+    private Set<String> resolveChangedFields(com.cost.costserver.dynamic.dto.SaveParam.RecordItem item) {
+        if (!"modified".equals(item.getStatus()) || item.getChanges() == null) {
+            return null;
+        }
+        Set<String> fields = new HashSet<>();
+        for (var change : item.getChanges()) {
+            if (change != null && StrUtil.isNotBlank(change.getField())) {
+                fields.add(change.getField());
+            }
+        }
+        return fields;
+    }
+
+    private PagePermission requireButtonPermission(String pageCode, String buttonKey) {
         if (StrUtil.isBlank(pageCode)) {
             throw new BusinessException(400, "pageCode不能为空");
         }
@@ -1134,6 +1436,7 @@ public class DynamicDataService {
         if (permission == null || !permission.hasButton(buttonKey)) {
             throw new BusinessException(403, "无按钮权限：" + buttonKey);
         }
+        return permission;
     }
 
     /**
@@ -1142,7 +1445,7 @@ public class DynamicDataService {
      * 1. viewField 模式：对比字段已在当前视图中（通过 SQL JOIN 预先关联）
      * 2. dynamicQuery 模式：运行时动态 LEFT JOIN 对比数据源
      */
-    private void mergeHistoryData(List<Map<String, Object>> list, TableMetadataDTO metadata,
+    void mergeHistoryData(List<Map<String, Object>> list, TableMetadataDTO metadata,
             Map<String, ColumnMetadataDTO> columnMap) {
         if (list == null || list.isEmpty())
             return;
@@ -1218,7 +1521,7 @@ public class DynamicDataService {
             for (CompareConfig config : configs) {
                 Object currentValue = row.get(config.columnName);
                 
-                String compareFieldName = normalizeRuntimeColumnName(config.compareField);
+                String compareFieldName = TableMetadataIndex.normalize(config.compareField);
                 Object compareValue = row.get(compareFieldName);
 
                 // 计算差值
@@ -1264,7 +1567,7 @@ public class DynamicDataService {
                 boolean valid = true;
                 
                 for (JoinCondition jc : joinConditions) {
-                    Object value = row.get(normalizeRuntimeColumnName(jc.currentField));
+                    Object value = row.get(TableMetadataIndex.normalize(jc.currentField));
                     if (value == null) {
                         valid = false;
                         break;
@@ -1315,7 +1618,7 @@ public class DynamicDataService {
             // 执行查询
             Map<String, Map<String, Object>> compareDataMap = new HashMap<>();
             try {
-                List<Map<String, Object>> compareList = dynamicMapper.selectList(sql);
+                List<Map<String, Object>> compareList = jdbcExecutor.queryRows(sql);
                 for (Map<String, Object> compareRow : compareList) {
                     // 构建复合键
                     StringBuilder keyBuilder = new StringBuilder();
@@ -1338,7 +1641,7 @@ public class DynamicDataService {
                 StringBuilder keyBuilder = new StringBuilder();
                 boolean valid = true;
                 for (JoinCondition jc : joinConditions) {
-                    Object value = row.get(normalizeRuntimeColumnName(jc.currentField));
+                    Object value = row.get(TableMetadataIndex.normalize(jc.currentField));
                     if (value == null) {
                         valid = false;
                         break;
@@ -12,6 +12,7 @@ import com.cost.costserver.dynamic.action.executor.ActionExecutor;
 import com.cost.costserver.dynamic.action.executor.ActionExecutorRegistry;
 import com.cost.costserver.metadata.entity.PageComponent;
 import com.cost.costserver.metadata.mapper.PageComponentMapper;
+import com.cost.costserver.monitor.DataStageEvent;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
@@ -181,6 +182,11 @@ public class PageRuleActionService {
 
     private ActionResult executeRule(ActionRule rule, ActionContext context) {
         ActionExecutor executor = actionExecutorRegistry.getExecutor(rule.getType());
-        return executor.execute(rule, context);
+        // 按钮执行场景下 ActionContext.tableCode 存放的是 pageCode，事件的 tableCode 记录 actionCode
+        DataStageEvent event = DataStageEvent.begin("action", executor.getType().toUpperCase(Locale.ROOT),
+                context.getActionCode(), context.getTableCode());
+        ActionResult result = executor.execute(rule, context);
+        event.commit();
+        return result;
     }
 }
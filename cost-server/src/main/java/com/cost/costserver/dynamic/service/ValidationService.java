@@ -2,8 +2,9 @@ package com.cost.costserver.dynamic.service;
 
 import cn.hutool.core.util.StrUtil;
 import com.cost.costserver.common.BusinessException;
-import com.cost.costserver.dynamic.mapper.DynamicMapper;
+import com.cost.costserver.dynamic.jdbc.DynamicJdbcExecutor;
 import com.cost.costserver.dynamic.util.SqlTemplateUtils;
+import com.cost.costserver.dynamic.validation.CompiledRule;
 import com.cost.costserver.dynamic.validation.RuleResult;
 import com.cost.costserver.dynamic.validation.ValidationReport;
 import com.cost.costserver.metadata.dto.TableMetadataDTO;
@@ -17,20 +18,28 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 后端验证服务
  * 流程：按 order 顺序执行验证器
+ * 规则按表缓存编译结果（绑定变量 SQL + 参数名 + 条件谓词），规则 JSON 变化时重新编译
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class ValidationService {
 
-    private final DynamicMapper dynamicMapper;
+    /** 批量验证时每条 UNION ALL 语句包含的最大行数 */
+    private static final int BATCH_SIZE = 200;
+
+    private final DynamicJdbcExecutor jdbcExecutor;
     private final MetadataService metadataService;
     private final ObjectMapper objectMapper;
 
+    /** tableCode -> 编译后的规则 */
+    private final Map<String, CompiledRules> ruleCache = new ConcurrentHashMap<>();
+
     @Data
     @JsonIgnoreProperties(ignoreUnknown = true)
     public static class ValidationRule {
@@ -41,6 +50,14 @@ public class ValidationService {
         private String sql;
         private String condition;
         private String message;
+        /** 唯一性规则（如单据编号不重复），批量验证时同批绑定值相同的后续行判为重复 */
+        private Boolean unique;
+    }
+
+    /**
+     * 规则缓存项，source 为编译时的规则 JSON，用于判断元数据是否已变化
+     */
+    private record CompiledRules(String source, List<CompiledRule> rules) {
     }
 
     /**
@@ -61,38 +78,33 @@ public class ValidationService {
      * @return 验证结果
      */
     public ValidationReport validate(String tableCode, String group, Map<String, Object> data) {
-        TableMetadataDTO metadata = metadataService.getTableMetadata(tableCode);
-        String rulesJson = metadata.validationRules();
-
-        if (StrUtil.isBlank(rulesJson)) {
-            return ValidationReport.success();
-        }
-
-        List<ValidationRule> rules;
-        try {
-            rules = objectMapper.readValue(rulesJson, new TypeReference<>() {});
-        } catch (Exception e) {
-            log.error("解析验证规则失败: {}", e.getMessage());
-            return ValidationReport.success();
-        }
+        return validate(tableCode, group, data, null);
+    }
 
-        if (rules == null || rules.isEmpty()) {
+    /**
+     * 执行后端验证
+     * @param tableCode 表编码
+     * @param group 验证分组（为空则执行全部）
+     * @param data 待验证数据
+     * @param changedFields 修改记录的变更字段（为 null 则执行全部规则），参数均不在其中的规则跳过
+     * @return 验证结果
+     */
+    public ValidationReport validate(String tableCode, String group, Map<String, Object> data, Set<String> changedFields) {
+        List<CompiledRule> rules = loadRules(tableCode, group);
+        if (rules.isEmpty()) {
             return ValidationReport.success();
         }
 
-        rules = rules.stream()
-            .filter(rule -> matchesGroup(rule.getGroup(), group))
-            .toList();
-
-        // 按 order 排序
-        rules.sort(Comparator.comparingInt(r -> r.getOrder() == null ? 0 : r.getOrder()));
-
         ValidationReport report = ValidationReport.success();
         if (data == null) {
             data = new HashMap<>();
         }
+        Set<String> changed = normalizeFields(changedFields);
 
-        for (ValidationRule rule : rules) {
+        for (CompiledRule rule : rules) {
+            if (changed != null && !rule.isAffectedBy(changed)) {
+                continue;
+            }
             // 1. 执行验证 SQL
             RuleResult ruleResult = executeValidation(rule, data);
             report.getResults().add(ruleResult);
@@ -106,91 +118,280 @@ public class ValidationService {
         return report;
     }
 
+    /**
+     * 批量验证：每条规则对所有行只执行一次（UNION ALL + 行号），往返次数与规则数成正比
+     * 语义与逐行 validate 一致：每行按 order 执行，遇到第一条不通过的规则即停止；
+     * 声明为 unique 的规则中，绑定值与前面已通过的行相同的行判为不通过（逐行写入时前一行已插入）
+     * @param tableCode 表编码
+     * @param group 验证分组（为空则执行全部）
+     * @param rows 待验证数据
+     * @return 与 rows 一一对应的验证结果
+     */
+    public List<ValidationReport> validateBatch(String tableCode, String group, List<Map<String, Object>> rows) {
+        return validateBatch(tableCode, group, rows, null);
+    }
+
+    /**
+     * 批量验证
+     * @param changedFields 与 rows 一一对应的变更字段（列表或元素为 null 表示执行全部规则）
+     */
+    public List<ValidationReport> validateBatch(String tableCode, String group, List<Map<String, Object>> rows,
+                                                List<Set<String>> changedFields) {
+        List<ValidationReport> reports = new ArrayList<>(rows.size());
+        List<Set<String>> changedByRow = new ArrayList<>(rows.size());
+        List<Integer> pending = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            reports.add(ValidationReport.success());
+            changedByRow.add(changedFields == null ? null : normalizeFields(changedFields.get(i)));
+            pending.add(i);
+        }
+        if (rows.isEmpty()) {
+            return reports;
+        }
+
+        for (CompiledRule rule : loadRules(tableCode, group)) {
+            if (pending.isEmpty()) {
+                break;
+            }
+            List<Integer> targets = new ArrayList<>(pending.size());
+            for (Integer idx : pending) {
+                Set<String> changed = changedByRow.get(idx);
+                if (changed == null || rule.isAffectedBy(changed)) {
+                    targets.add(idx);
+                }
+            }
+            if (targets.isEmpty()) {
+                continue;
+            }
+
+            Map<Integer, Long> counts = rule.isExecutable() ? executeBatchValidation(rule, rows, targets) : Map.of();
+            Set<List<Object>> claimed = rule.isUniqueness() ? new HashSet<>() : null;
+            List<Integer> failed = new ArrayList<>();
+            for (Integer idx : targets) {
+                Long result = counts.get(idx);
+                boolean passed = !rule.isExecutable() || rule.test(result);
+                if (passed && claimed != null && !claimed.add(bindArgs(rule, rows.get(idx)))) {
+                    passed = false;
+                }
+                RuleResult ruleResult = newRuleResult(rule);
+                ruleResult.setResult(rule.isExecutable() ? result : null);
+                ruleResult.setPassed(passed);
+                ValidationReport report = reports.get(idx);
+                report.getResults().add(ruleResult);
+                if (!passed) {
+                    ruleResult.setMessage(rule.getMessage());
+                    report.setPassed(false);
+                    report.setMessage(rule.getMessage());
+                    failed.add(idx);
+                }
+            }
+            pending.removeAll(failed);
+        }
+
+        return reports;
+    }
+
+    /**
+     * 声明为 unique 的规则引用的字段（大写运行时列名），如复制单据时需重新赋值的单据编号
+     */
+    public Set<String> uniqueFields(String tableCode, String group) {
+        Set<String> fields = new HashSet<>();
+        for (CompiledRule rule : loadRules(tableCode, group)) {
+            if (rule.isUniqueness()) {
+                fields.addAll(rule.getParamNames());
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * 获取编译后的验证规则（按 order 排序，按分组筛选）
+     */
+    private List<CompiledRule> loadRules(String tableCode, String group) {
+        TableMetadataDTO metadata = metadataService.getTableMetadata(tableCode);
+        String rulesJson = metadata.validationRules();
+
+        if (StrUtil.isBlank(rulesJson)) {
+            return List.of();
+        }
+
+        CompiledRules compiled = ruleCache.get(tableCode);
+        if (compiled == null || !compiled.source().equals(rulesJson)) {
+            compiled = new CompiledRules(rulesJson, compileRules(rulesJson));
+            ruleCache.put(tableCode, compiled);
+        }
+
+        if (StrUtil.isBlank(group)) {
+            return compiled.rules();
+        }
+        List<CompiledRule> filtered = new ArrayList<>(compiled.rules().size());
+        for (CompiledRule rule : compiled.rules()) {
+            if (matchesGroup(rule.getGroup(), group)) {
+                filtered.add(rule);
+            }
+        }
+        return filtered;
+    }
+
+    private List<CompiledRule> compileRules(String rulesJson) {
+        List<ValidationRule> rules;
+        try {
+            rules = objectMapper.readValue(rulesJson, new TypeReference<>() {});
+        } catch (Exception e) {
+            log.error("解析验证规则失败: {}", e.getMessage());
+            return List.of();
+        }
+
+        if (rules == null || rules.isEmpty()) {
+            return List.of();
+        }
+
+        List<CompiledRule> compiled = new ArrayList<>(rules.size());
+        for (ValidationRule rule : rules) {
+            compiled.add(CompiledRule.compile(rule.getOrder(), rule.getCode(), rule.getName(), rule.getGroup(),
+                    rule.getSql(), rule.getCondition(), rule.getMessage(), Boolean.TRUE.equals(rule.getUnique())));
+        }
+        // 按 order 排序
+        compiled.sort(Comparator.comparingInt(CompiledRule::getOrder));
+        return List.copyOf(compiled);
+    }
+
     /**
      * 执行验证 SQL
      */
-    private RuleResult executeValidation(ValidationRule rule, Map<String, Object> data) {
-        RuleResult ruleResult = new RuleResult();
-        ruleResult.setCode(rule.getCode());
-        ruleResult.setName(rule.getName());
+    private RuleResult executeValidation(CompiledRule rule, Map<String, Object> data) {
+        RuleResult ruleResult = newRuleResult(rule);
 
-        if (StrUtil.isBlank(rule.getSql()) || StrUtil.isBlank(rule.getCondition())) {
+        if (!rule.isExecutable()) {
             ruleResult.setPassed(true);
             return ruleResult;
         }
 
         try {
-            String sql = SqlTemplateUtils.buildSql(rule.getSql(), data);
-            log.debug("执行验证SQL: {}", sql);
+            Object[] args = SqlTemplateUtils.bindArgs(rule.getBindSql(), data);
+            log.debug("执行验证SQL: {}, 参数: {}", rule.getBindSql().sql(), Arrays.toString(args));
 
-            Long result = dynamicMapper.selectCount(sql);
-            log.debug("验证结果: {}, 条件: {}", result, rule.getCondition());
+            Long result = queryResult(rule, args);
+            log.debug("验证结果: {}, 规则: {}", result, rule.getCode());
 
-            boolean passed = evaluateCondition(result, rule.getCondition());
+            boolean passed = rule.test(result);
             ruleResult.setResult(result);
             ruleResult.setPassed(passed);
             if (!passed) {
                 ruleResult.setMessage(rule.getMessage());
             }
             return ruleResult;
+        } catch (BusinessException e) {
+            throw e;
         } catch (Exception e) {
-            log.error("执行验证SQL失败: {}", e.getMessage());
+            log.error("执行验证SQL失败, 规则 {}: {}", rule.getCode(), e.getMessage());
             throw new BusinessException(500, "验证执行失败: " + e.getMessage());
         }
     }
 
-    private boolean matchesGroup(String ruleGroup, String targetGroup) {
-        if (StrUtil.isBlank(targetGroup)) {
-            return true;
-        }
-        if (StrUtil.isBlank(ruleGroup)) {
-            return true;
-        }
-        return targetGroup.trim().equals(ruleGroup.trim());
+    /**
+     * 单独执行验证 SQL，取第一行第一列（与原 selectCount 语义一致）
+     */
+    private Long queryResult(CompiledRule rule, Object[] args) {
+        List<Map<String, Object>> rows = jdbcExecutor.queryRows(rule.getBindSql().sql(), args);
+        return rows.isEmpty() || rows.get(0).isEmpty() ? null : toLong(rows.get(0).values().iterator().next());
     }
 
     /**
-     * 评估条件表达式
-     * 支持: result == 0, result == 1, result > 0, result < 10
+     * 对多行执行同一条验证 SQL
+     * 绑定值相同的行只计算一次；每 BATCH_SIZE 组不同绑定值拼成一条 UNION ALL 语句。
+     * 不能作为标量子查询的规则（多列、带 ORDER BY 等）按不同绑定值逐组单独执行
+     * @return 行下标 -> 验证 SQL 结果
      */
-    private boolean evaluateCondition(Long result, String condition) {
-        if (result == null) result = 0L;
+    private Map<Integer, Long> executeBatchValidation(CompiledRule rule, List<Map<String, Object>> rows, List<Integer> indexes) {
+        // 绑定值 -> 使用它的行下标
+        Map<List<Object>, List<Integer>> argsToRows = new LinkedHashMap<>();
+        for (Integer idx : indexes) {
+            argsToRows.computeIfAbsent(bindArgs(rule, rows.get(idx)), k -> new ArrayList<>()).add(idx);
+        }
 
-        // 简单解析条件
-        condition = condition.trim();
+        List<List<Object>> distinctArgs = new ArrayList<>(argsToRows.keySet());
+        String ruleSql = rule.getBindSql().sql();
+        Map<Integer, Long> counts = new HashMap<>();
+        try {
+            if (!rule.isScalar()) {
+                for (List<Object> args : distinctArgs) {
+                    Long result = queryResult(rule, args.toArray());
+                    for (Integer idx : argsToRows.get(args)) {
+                        counts.put(idx, result);
+                    }
+                }
+                return counts;
+            }
+            for (int from = 0; from < distinctArgs.size(); from += BATCH_SIZE) {
+                int to = Math.min(from + BATCH_SIZE, distinctArgs.size());
+                StringBuilder union = new StringBuilder();
+                List<Object> args = new ArrayList<>();
+                for (int k = from; k < to; k++) {
+                    if (k > from) {
+                        union.append(" UNION ALL ");
+                    }
+                    union.append("SELECT ").append(k).append(" AS IDX, (").append(ruleSql).append(") AS CNT FROM DUAL");
+                    args.addAll(distinctArgs.get(k));
+                }
+                log.debug("执行批量验证SQL: rule={}, rows={}", rule.getCode(), to - from);
 
-        if (condition.contains("==")) {
-            String[] parts = condition.split("==");
-            long expected = Long.parseLong(parts[1].trim());
-            return result.equals(expected);
-        }
-        if (condition.contains("!=")) {
-            String[] parts = condition.split("!=");
-            long expected = Long.parseLong(parts[1].trim());
-            return !result.equals(expected);
+                for (Map<String, Object> row : jdbcExecutor.queryRows(union.toString(), args.toArray())) {
+                    int k = toLong(row.get("IDX")).intValue();
+                    Long cnt = toLong(row.get("CNT"));
+                    for (Integer idx : argsToRows.get(distinctArgs.get(k))) {
+                        counts.put(idx, cnt);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            log.error("执行批量验证SQL失败, 规则 {}: {}", rule.getCode(), e.getMessage());
+            throw new BusinessException(500, "验证执行失败: " + e.getMessage());
         }
-        if (condition.contains(">=")) {
-            String[] parts = condition.split(">=");
-            long expected = Long.parseLong(parts[1].trim());
-            return result >= expected;
+        return counts;
+    }
+
+    private List<Object> bindArgs(CompiledRule rule, Map<String, Object> row) {
+        return Arrays.asList(SqlTemplateUtils.bindArgs(rule.getBindSql(), row == null ? Map.of() : row));
+    }
+
+    private RuleResult newRuleResult(CompiledRule rule) {
+        RuleResult ruleResult = new RuleResult();
+        ruleResult.setCode(rule.getCode());
+        ruleResult.setName(rule.getName());
+        return ruleResult;
+    }
+
+    private Set<String> normalizeFields(Set<String> fields) {
+        if (fields == null) {
+            return null;
         }
-        if (condition.contains("<=")) {
-            String[] parts = condition.split("<=");
-            long expected = Long.parseLong(parts[1].trim());
-            return result <= expected;
+        Set<String> normalized = new HashSet<>(fields.size());
+        for (String field : fields) {
+            if (field != null) {
+                normalized.add(field.trim().toUpperCase(Locale.ROOT));
+            }
         }
-        if (condition.contains(">")) {
-            String[] parts = condition.split(">");
-            long expected = Long.parseLong(parts[1].trim());
-            return result > expected;
+        return normalized;
+    }
+
+    private Long toLong(Object value) {
+        if (value == null) {
+            return null;
         }
-        if (condition.contains("<")) {
-            String[] parts = condition.split("<");
-            long expected = Long.parseLong(parts[1].trim());
-            return result < expected;
+        if (value instanceof Number number) {
+            return number.longValue();
         }
+        return Long.parseLong(value.toString().trim());
+    }
 
-        log.warn("无法解析条件: {}", condition);
-        return true;
+    private boolean matchesGroup(String ruleGroup, String targetGroup) {
+        if (StrUtil.isBlank(targetGroup)) {
+            return true;
+        }
+        if (StrUtil.isBlank(ruleGroup)) {
+            return true;
+        }
+        return targetGroup.trim().equals(ruleGroup.trim());
     }
 }
@@ -1,5 +1,7 @@
 package com.cost.costserver.dynamic.util;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -25,6 +27,123 @@ public final class SqlTemplateUtils {
         return sb.toString();
     }
 
+    /**
+     * 将 :param 模板转换为绑定变量 SQL（:param -> ?），单引号字符串内的冒号不作为参数
+     * @return 绑定 SQL 及按出现顺序排列的参数名（可重复）
+     */
+    public static BindSql toBindSql(String sqlTemplate) {
+        StringBuilder sql = new StringBuilder(sqlTemplate.length());
+        List<String> paramNames = new ArrayList<>();
+        boolean inQuote = false;
+        int i = 0;
+        while (i < sqlTemplate.length()) {
+            char c = sqlTemplate.charAt(i);
+            if (c == '\'') {
+                inQuote = !inQuote;
+            } else if (c == ':' && !inQuote && i + 1 < sqlTemplate.length() && isAsciiLetter(sqlTemplate.charAt(i + 1))) {
+                int end = i + 1;
+                while (end < sqlTemplate.length() && isAsciiLetterOrDigit(sqlTemplate.charAt(end))) {
+                    end++;
+                }
+                paramNames.add(sqlTemplate.substring(i + 1, end));
+                sql.append('?');
+                i = end;
+                continue;
+            }
+            sql.append(c);
+            i++;
+        }
+        return new BindSql(sql.toString(), List.copyOf(paramNames));
+    }
+
+    /**
+     * 按参数顺序取绑定值
+     */
+    public static Object[] bindArgs(BindSql bindSql, Map<String, Object> data) {
+        Object[] args = new Object[bindSql.paramNames().size()];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = data.get(bindSql.paramNames().get(i));
+        }
+        return args;
+    }
+
+    /**
+     * 顶层 SELECT 的选择列数：统计第一个顶层 SELECT 与其 FROM 之间的顶层逗号，
+     * 括号（子查询、函数、WITH 子句）与字符串字面量内的内容不计；含 * 或无法识别时返回 -1
+     */
+    public static int selectColumnCount(String sql) {
+        return scanTopLevel(sql).columns();
+    }
+
+    /**
+     * 能否作为标量子查询 (sql) 嵌入其他语句：单列选择且顶层没有 ORDER BY（Oracle 子查询中为 ORA-00907）
+     */
+    public static boolean isScalarSelect(String sql) {
+        TopLevel topLevel = scanTopLevel(sql);
+        return topLevel.columns() == 1 && !topLevel.orderBy();
+    }
+
+    private record TopLevel(int columns, boolean orderBy) {
+    }
+
+    private static TopLevel scanTopLevel(String sql) {
+        int depth = 0;
+        boolean inQuote = false;
+        int count = -1;
+        boolean inSelectList = false;
+        boolean star = false;
+        boolean orderBy = false;
+        int i = 0;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                inQuote = !inQuote;
+            } else if (!inQuote) {
+                if (c == '(') {
+                    depth++;
+                } else if (c == ')') {
+                    depth--;
+                } else if (depth == 0 && Character.isLetter(c)) {
+                    int end = i;
+                    while (end < sql.length() && (Character.isLetterOrDigit(sql.charAt(end)) || sql.charAt(end) == '_')) {
+                        end++;
+                    }
+                    String word = sql.substring(i, end);
+                    if (count < 0 && word.equalsIgnoreCase("SELECT")) {
+                        count = 1;
+                        inSelectList = true;
+                    } else if (inSelectList && word.equalsIgnoreCase("FROM")) {
+                        inSelectList = false;
+                    } else if (!inSelectList && count > 0 && word.equalsIgnoreCase("ORDER")) {
+                        orderBy = true;
+                    }
+                    i = end;
+                    continue;
+                } else if (depth == 0 && inSelectList) {
+                    if (c == ',') {
+                        count++;
+                    } else if (c == '*') {
+                        star = true;
+                    }
+                }
+            }
+            i++;
+        }
+        // 含 * 或未找到顶层 FROM 时无法确定列数
+        return new TopLevel(star || inSelectList ? -1 : count, orderBy);
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isAsciiLetterOrDigit(char c) {
+        return isAsciiLetter(c) || (c >= '0' && c <= '9');
+    }
+
+    public record BindSql(String sql, List<String> paramNames) {
+    }
+
     private static String formatValue(Object value) {
         if (value == null) {
             return "NULL";
@@ -0,0 +1,142 @@
+package com.cost.costserver.dynamic.validation;
+
+import cn.hutool.core.util.StrUtil;
+import com.cost.costserver.common.BusinessException;
+import com.cost.costserver.dynamic.util.SqlTemplateUtils;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.*;
+import java.util.function.LongPredicate;
+
+/**
+ * 预编译的验证规则
+ * 元数据中的规则 JSON 只在规则内容变化时编译一次：绑定变量 SQL、引用的参数名、条件谓词
+ */
+@Slf4j
+@Getter
+public class CompiledRule {
+
+    private static final String[] OPERATORS = {"==", "!=", ">=", "<=", ">", "<"};
+
+    private final int order;
+    private final String code;
+    private final String name;
+    private final String group;
+    private final String message;
+    /** 绑定变量 SQL，sql 或 condition 为空时为 null（规则恒通过） */
+    private final SqlTemplateUtils.BindSql bindSql;
+    /** 引用的参数名（大写），用于判断修改记录是否需要执行该规则 */
+    private final Set<String> paramNames;
+    private final LongPredicate predicate;
+    /**
+     * 唯一性规则，由规则配置 "unique": true 显式声明（不从 SQL 形态推断）。
+     * 逐行写入时前面的行会先插入，因此同一批中绑定值相同的后续行应视为重复
+     */
+    private final boolean uniqueness;
+    /**
+     * SQL 可作为标量子查询嵌入批量验证的 UNION ALL（单列、顶层无 ORDER BY），否则批量验证时逐组单独执行
+     */
+    private final boolean scalar;
+
+    private CompiledRule(int order, String code, String name, String group, String message,
+                         SqlTemplateUtils.BindSql bindSql, LongPredicate predicate, boolean uniqueness) {
+        this.order = order;
+        this.code = code;
+        this.name = name;
+        this.group = group;
+        this.message = message;
+        this.bindSql = bindSql;
+        this.predicate = predicate;
+        this.uniqueness = uniqueness;
+        this.scalar = bindSql != null && SqlTemplateUtils.isScalarSelect(bindSql.sql());
+        if (bindSql != null && !scalar) {
+            log.warn("验证规则 {} 不是单列标量查询，批量验证时逐条执行: {}", code, bindSql.sql());
+        }
+        Set<String> names = new HashSet<>();
+        if (bindSql != null) {
+            for (String param : bindSql.paramNames()) {
+                names.add(param.toUpperCase(Locale.ROOT));
+            }
+        }
+        this.paramNames = Collections.unmodifiableSet(names);
+    }
+
+    /**
+     * @param unique 规则配置中的 unique 标记，为 true 时批量验证检查同批重复
+     */
+    public static CompiledRule compile(Integer order, String code, String name, String group,
+                                       String sql, String condition, String message, boolean unique) {
+        boolean executable = StrUtil.isNotBlank(sql) && StrUtil.isNotBlank(condition);
+        SqlTemplateUtils.BindSql bindSql = executable ? SqlTemplateUtils.toBindSql(stripTrailingSemicolon(sql)) : null;
+        LongPredicate predicate = executable ? compileCondition(condition) : value -> true;
+        return new CompiledRule(order == null ? 0 : order, code, name, group, message, bindSql, predicate,
+                executable && unique);
+    }
+
+    public boolean isExecutable() {
+        return bindSql != null;
+    }
+
+    /**
+     * 修改记录的变更字段是否涉及本规则
+     * 规则无参数时无法判断相关性，始终执行
+     * @param changedFields 变更字段（大写）
+     */
+    public boolean isAffectedBy(Set<String> changedFields) {
+        if (paramNames.isEmpty()) {
+            return true;
+        }
+        for (String field : changedFields) {
+            if (paramNames.contains(field)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean test(Long result) {
+        return predicate.test(result == null ? 0L : result);
+    }
+
+    /**
+     * 编译条件表达式
+     * 支持: result == 0, result != 0, result >= 1, result <= 1, result > 0, result < 10
+     */
+    private static LongPredicate compileCondition(String condition) {
+        String trimmed = condition.trim();
+        for (String op : OPERATORS) {
+            int pos = trimmed.indexOf(op);
+            if (pos < 0) {
+                continue;
+            }
+            String right = trimmed.substring(pos + op.length()).trim();
+            long expected;
+            try {
+                expected = Long.parseLong(right);
+            } catch (NumberFormatException e) {
+                return value -> {
+                    throw new BusinessException(500, "验证条件无效: " + condition);
+                };
+            }
+            return switch (op) {
+                case "==" -> value -> value == expected;
+                case "!=" -> value -> value != expected;
+                case ">=" -> value -> value >= expected;
+                case "<=" -> value -> value <= expected;
+                case ">" -> value -> value > expected;
+                default -> value -> value < expected;
+            };
+        }
+        log.warn("无法解析条件: {}", condition);
+        return value -> true;
+    }
+
+    private static String stripTrailingSemicolon(String sql) {
+        String trimmed = sql.trim();
+        while (trimmed.endsWith(";")) {
+            trimmed = trimmed.substring(0, trimmed.length() - 1).trim();
+        }
+        return trimmed;
+    }
+}
@@ -21,9 +21,13 @@ import com.cost.costserver.export.mapper.ExportConfigDetailMapper;
 import com.cost.costserver.export.mapper.ExportConfigMapper;
 import com.cost.costserver.metadata.dto.ColumnMetadataDTO;
 import com.cost.costserver.metadata.dto.TableMetadataDTO;
+import com.cost.costserver.metadata.dto.TableMetadataIndex;
+import com.cost.costserver.monitor.DataStageEvent;
 import com.cost.costserver.metadata.service.MetadataService;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.ServletOutputStream;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
@@ -64,6 +68,7 @@ public class CustomExportService {
     private final DynamicMapper dynamicMapper;
     private final MetadataService metadataService;
     private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
 
     /**
      * 获取页面可用的导出配置列表
@@ -85,9 +90,25 @@ public class CustomExportService {
     }
 
     /**
-     * 执行自定义导出
+     * 执行自定义导出（耗时记录到 cost.export.duration）
      */
     public void export(String exportCode, CustomExportRequest request, HttpServletResponse response) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        DataStageEvent totalEvent = DataStageEvent.begin("export", "TOTAL", exportCode, null);
+        String outcome = "error";
+        try {
+            doExport(exportCode, request, response);
+            totalEvent.commit();
+            outcome = "success";
+        } finally {
+            sample.stop(Timer.builder("cost.export.duration")
+                    .tags("exportCode", exportCode, "outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    private void doExport(String exportCode, CustomExportRequest request, HttpServletResponse response) {
+        DataStageEvent stage = DataStageEvent.begin("export", "CONFIG", exportCode, null);
         ExportConfig config = exportConfigMapper.findByCode(exportCode);
         if (config == null) {
             throw new BusinessException(400, "??????? " + exportCode);
@@ -117,6 +138,7 @@ public class CustomExportService {
             }
         }
 
+        stage = stage.next("MASTER_QUERY");
         List<CustomExportConfigDTO.ColumnConfig> masterColumnsForSort =
                 resolveColumns(config.getColumns(), Collections.emptyList());
         String masterSql = buildMasterSql(config, exportAll, pageView, pageMeta, conditions, sorts, masterColumnsForSort);
@@ -126,9 +148,13 @@ public class CustomExportService {
         List<CustomExportConfigDTO.ColumnConfig> masterColumns =
                 resolveColumns(config.getColumns(), masterRows);
 
+        stage = stage.rows(masterRows.size()).next("DETAIL_QUERY");
+
         String masterLinkColumn = resolveMasterLinkColumn(config);
         List<DetailSheetInfo> detailSheets = buildDetailSheets(config, details, masterRows, masterLinkColumn,
                 exportAll, pageView, pageMeta, conditions);
+        long detailRowCount = detailSheets.stream().mapToLong(d -> d.rows != null ? d.rows.size() : 0).sum();
+        stage = stage.rows(detailRowCount).next("WRITE_EXCEL");
 
         String fileName = config.getExportName() + ".xlsx";
         writeResponseHeaders(response, fileName);
@@ -222,6 +248,7 @@ public class CustomExportService {
             }
 
             writer.finish();
+            stage.rows(masterRows.size() + detailRowCount).commit();
         } catch (Exception e) {
             log.error("Custom export failed", e);
             throw new BusinessException(500, "????: " + e.getMessage());
@@ -348,7 +375,7 @@ public class CustomExportService {
             String columnName;
             if (col != null) {
                 columnName = col.columnName();
-            } else if (isAuditField(columnKey)) {
+            } else if (TableMetadataIndex.isAuditColumn(columnKey)) {
                 columnName = columnKey;
             } else {
                 log.warn("invalid query field: {}", columnKey);
@@ -1316,14 +1343,6 @@ public class CustomExportService {
         return style;
     }
 
-    private boolean isAuditField(String columnName) {
-        if (columnName == null) {
-            return false;
-        }
-        return Set.of("ID", "DELETED", "CREATE_TIME", "UPDATE_TIME", "CREATE_BY", "UPDATE_BY")
-                .contains(columnName.toUpperCase(Locale.ROOT));
-    }
-
     private String sanitizeSheetName(String sheetName) {
         if (sheetName == null) {
             return "detail";
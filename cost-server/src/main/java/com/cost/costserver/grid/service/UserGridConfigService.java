@@ -45,12 +45,37 @@ public class UserGridConfigService {
         if (config == null || StrUtil.isBlank(config.getConfigData())) {
             return null;
         }
+        return parseConfig(config.getConfigData());
+    }
+
+    /**
+     * 用户在某页面下所有表格的列配置（gridKey -> configData），一次查询
+     */
+    public Map<String, String> getConfigDataByGrid(Long userId, String pageCode) {
+        if (userId == null || StrUtil.isBlank(pageCode)) {
+            return Collections.emptyMap();
+        }
+        List<UserGridConfig> configs = userGridConfigMapper.selectList(
+            new LambdaQueryWrapper<UserGridConfig>()
+                .eq(UserGridConfig::getUserId, userId)
+                .eq(UserGridConfig::getPageCode, pageCode)
+                .eq(UserGridConfig::getDeleted, 0)
+        );
+        Map<String, String> result = new HashMap<>();
+        for (UserGridConfig config : configs) {
+            if (StrUtil.isNotBlank(config.getGridKey()) && StrUtil.isNotBlank(config.getConfigData())) {
+                result.put(config.getGridKey(), config.getConfigData());
+            }
+        }
+        return result;
+    }
 
+    public Object parseConfig(String configData) {
         try {
-            return objectMapper.readTree(config.getConfigData());
+            return objectMapper.readTree(configData);
         } catch (Exception e) {
             log.warn("grid config parse failed: {}", e.getMessage());
-            return config.getConfigData();
+            return configData;
         }
     }
 
@@ -70,8 +95,17 @@ public class UserGridConfigService {
         if (config == null || StrUtil.isBlank(config.getConfigData())) {
             return Collections.emptyMap();
         }
+        return toColumnPreferences(config.getConfigData());
+    }
 
-        List<ColumnPreference> preferences = parseColumnPreferences(config.getConfigData());
+    /**
+     * 列配置转为 "id:列ID" / "column:列名" -> 偏好
+     */
+    public Map<String, ColumnPreference> toColumnPreferences(String configData) {
+        if (StrUtil.isBlank(configData)) {
+            return Collections.emptyMap();
+        }
+        List<ColumnPreference> preferences = parseColumnPreferences(configData);
         if (preferences.isEmpty()) {
             return Collections.emptyMap();
         }
@@ -0,0 +1,179 @@
+package com.cost.costserver.log;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 有界队列 + 单写线程的批量写入基类
+ * 写线程凑满 batchSize 条或等待 flushIntervalMs 后调用 writeBatch；
+ * 队列满时按 overflowPolicy 处理：caller-runs 在调用线程同步写入，drop 丢弃并计数。
+ * 一批来自多个请求，整批失败时逐条重写，只丢弃写不进去的条目
+ */
+@Slf4j
+public abstract class AsyncBatchWriter<T> {
+
+    private final String name;
+    private final int queueCapacity;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final boolean dropOnOverflow;
+
+    private BlockingQueue<T> queue;
+    private Thread writerThread;
+    private volatile boolean running;
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong callerRuns = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong flushTotalMs = new AtomicLong();
+    private volatile long lastFlushMs;
+    private volatile long maxFlushMs;
+
+    /**
+     * 写入器运行指标
+     */
+    public record Stats(int queueDepth, int queueCapacity, long enqueued, long written, long dropped,
+                        long callerRuns, long failed, long flushCount, long avgFlushMs, long lastFlushMs,
+                        long maxFlushMs) {
+    }
+
+    protected AsyncBatchWriter(String name, int queueCapacity, int batchSize, long flushIntervalMs, String overflowPolicy) {
+        this.name = name;
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalMs = Math.max(1, flushIntervalMs);
+        this.dropOnOverflow = "drop".equalsIgnoreCase(overflowPolicy);
+    }
+
+    /**
+     * 批量写入，异常由调用方统一计数
+     */
+    protected abstract void writeBatch(List<T> items);
+
+    protected void startWriter() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        writerThread = new Thread(this::runLoop, name);
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    protected void stopWriter() {
+        running = false;
+        try {
+            writerThread.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // 停机时写出剩余数据
+        List<T> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        if (!rest.isEmpty()) {
+            flush(rest);
+        }
+    }
+
+    protected void enqueue(T item) {
+        if (queue.offer(item)) {
+            enqueued.incrementAndGet();
+            return;
+        }
+        if (dropOnOverflow) {
+            long count = dropped.incrementAndGet();
+            if (count == 1 || count % 1000 == 0) {
+                log.warn("[{}] 队列已满，已丢弃 {} 条", name, count);
+            }
+            return;
+        }
+        // caller-runs：由调用线程直接写入，形成背压
+        callerRuns.incrementAndGet();
+        flush(List.of(item));
+    }
+
+    public Stats getStats() {
+        long flushes = flushCount.get();
+        return new Stats(queue.size(), queueCapacity, enqueued.get(), written.get(),
+                dropped.get(), callerRuns.get(), failed.get(), flushes,
+                flushes == 0 ? 0 : flushTotalMs.get() / flushes, lastFlushMs, maxFlushMs);
+    }
+
+    private void runLoop() {
+        List<T> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                T first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.currentTimeMillis() + flushIntervalMs;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    T next = queue.poll(remaining, TimeUnit.MILLISECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.error("[{}] 写线程异常: {}", name, e.getMessage(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<T> items) {
+        long start = System.currentTimeMillis();
+        try {
+            writeBatch(items);
+            written.addAndGet(items.size());
+        } catch (Exception e) {
+            if (items.size() == 1) {
+                failed.incrementAndGet();
+                log.error("[{}] 写入失败，丢弃 1 条: {}", name, e.getMessage());
+            } else {
+                log.warn("[{}] 批量写入失败 {} 条，逐条重试: {}", name, items.size(), e.getMessage());
+                writeEach(items);
+            }
+        } finally {
+            long cost = System.currentTimeMillis() - start;
+            flushCount.incrementAndGet();
+            flushTotalMs.addAndGet(cost);
+            lastFlushMs = cost;
+            if (cost > maxFlushMs) {
+                maxFlushMs = cost;
+            }
+            log.debug("[{}] 写入 {} 条, 耗时 {}ms", name, items.size(), cost);
+        }
+    }
+
+    private void writeEach(List<T> items) {
+        for (T item : items) {
+            try {
+                writeBatch(List.of(item));
+                written.incrementAndGet();
+            } catch (Exception e) {
+                failed.incrementAndGet();
+                log.error("[{}] 写入失败，丢弃 1 条: {}", name, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.cost.costserver.log;
+
+import java.sql.Timestamp;
+
+/**
+ * 待写入的审计日志（入队时已完成文本格式化）
+ */
+public record AuditLogEntry(
+    String userName,
+    String pageCode,
+    String tableCode,
+    String tableName,
+    Long recordId,
+    String operationType,
+    String fieldChanges,
+    Timestamp operationTime
+) {
+}
@@ -2,35 +2,31 @@ package com.cost.costserver.log;
 
 import cn.hutool.json.JSONUtil;
 import com.cost.costserver.dynamic.dto.SaveParam;
-import com.cost.costserver.dynamic.mapper.DynamicMapper;
-import com.cost.costserver.metadata.dto.ColumnMetadataDTO;
-import com.cost.costserver.metadata.dto.TableMetadataDTO;
 import com.cost.costserver.metadata.service.MetadataService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
+import java.sql.Timestamp;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
  * 业务审计日志服务
- * 只记录用户手动修改的字段变更
+ * 只记录用户手动修改的字段变更；日志交由 AuditLogWriter 异步批量写入，不占用业务事务
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class AuditLogService {
 
-    private final DynamicMapper dynamicMapper;
+    private final AuditLogWriter auditLogWriter;
     private final MetadataService metadataService;
 
     /**
      * 异步记录审计日志
      */
-    @Async
     public void logAsync(String userName, String pageCode, String tableCode, String tableName,
                          Long recordId, String operationType, List<SaveParam.FieldChange> changes) {
         try {
@@ -61,19 +57,7 @@ public class AuditLogService {
         // 转换为可读文本
         String changesText = formatChanges(tableCode, userChanges);
 
-        String sql = String.format(
-            "INSERT INTO T_COST_AUDIT_LOG (ID, USER_NAME, PAGE_CODE, TABLE_CODE, TABLE_NAME, RECORD_ID, OPERATION_TYPE, FIELD_CHANGES) " +
-            "VALUES (SEQ_COST_AUDIT_LOG.NEXTVAL, '%s', '%s', '%s', '%s', %s, '%s', %s)",
-            escape(userName),
-            escape(pageCode),
-            escape(tableCode),
-            escape(tableName),
-            recordId != null ? recordId : "NULL",
-            operationType,
-            changesText != null ? "'" + escape(changesText) + "'" : "NULL"
-        );
-
-        dynamicMapper.insert(sql);
+        submit(userName, pageCode, tableCode, tableName, recordId, operationType, changesText);
         log.debug("[审计日志] {} {} {} #{}", userName, operationType, tableCode, recordId);
     }
 
@@ -99,19 +83,7 @@ public class AuditLogService {
 
         String changesText = sb.length() > 0 ? sb.toString() : null;
 
-        String sql = String.format(
-            "INSERT INTO T_COST_AUDIT_LOG (ID, USER_NAME, PAGE_CODE, TABLE_CODE, TABLE_NAME, RECORD_ID, OPERATION_TYPE, FIELD_CHANGES) " +
-            "VALUES (SEQ_COST_AUDIT_LOG.NEXTVAL, '%s', '%s', '%s', '%s', %s, '%s', %s)",
-            escape(userName),
-            escape(pageCode),
-            escape(tableCode),
-            escape(tableName),
-            recordId != null ? recordId : "NULL",
-            "INSERT",
-            changesText != null ? "'" + escape(changesText) + "'" : "NULL"
-        );
-
-        dynamicMapper.insert(sql);
+        submit(userName, pageCode, tableCode, tableName, recordId, "INSERT", changesText);
         log.debug("[审计日志] {} INSERT {} #{}", userName, tableCode, recordId);
     }
 
@@ -122,6 +94,12 @@ public class AuditLogService {
         log(userName, pageCode, tableCode, tableName, recordId, "DELETE", null);
     }
 
+    private void submit(String userName, String pageCode, String tableCode, String tableName,
+                        Long recordId, String operationType, String changesText) {
+        auditLogWriter.submit(new AuditLogEntry(userName, pageCode, tableCode, tableName, recordId,
+                operationType, changesText, new Timestamp(System.currentTimeMillis())));
+    }
+
     /**
      * 格式化变更为可读文本
      */
@@ -148,13 +126,7 @@ public class AuditLogService {
      */
     private Map<String, String> getColumnLabelMap(String tableCode) {
         try {
-            TableMetadataDTO meta = metadataService.getTableMetadata(tableCode);
-            return meta.columns().stream()
-                .collect(Collectors.toMap(
-                    ColumnMetadataDTO::columnName,
-                    ColumnMetadataDTO::headerText,
-                    (a, b) -> a
-                ));
+            return metadataService.getTableIndex(tableCode).labels();
         } catch (Exception e) {
             log.warn("获取表元数据失败: {}", tableCode);
             return Map.of();
@@ -171,8 +143,4 @@ public class AuditLogService {
             || "CREATE_BY".equals(field) || "UPDATE_BY".equals(field) || "DELETED".equals(field)
             || field.startsWith("_");
     }
-
-    private String escape(String s) {
-        return s == null ? "" : s.replace("'", "''");
-    }
 }
@@ -0,0 +1,80 @@
+package com.cost.costserver.log;
+
+import com.cost.costserver.config.AuditLogProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.SqlParameterValue;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 审计日志异步批量写入器
+ * 业务线程只入队（事务内的日志在提交后入队，回滚则丢弃），由单独的写线程按批次 executeBatch；
+ * 每批在独立事务中写入：caller-runs 时写入发生在业务事务的 afterCommit 中，不能加入已结束的事务
+ */
+@Component
+public class AuditLogWriter extends AsyncBatchWriter<AuditLogEntry> {
+
+    private static final String INSERT_SQL =
+        "INSERT INTO T_COST_AUDIT_LOG (ID, USER_NAME, OPERATION_TIME, PAGE_CODE, TABLE_CODE, TABLE_NAME, RECORD_ID, OPERATION_TYPE, FIELD_CHANGES) " +
+        "VALUES (SEQ_COST_AUDIT_LOG.NEXTVAL, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaction;
+
+    public AuditLogWriter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                          AuditLogProperties properties) {
+        super("audit-log-writer", properties.getQueueCapacity(), properties.getBatchSize(),
+                properties.getFlushIntervalMs(), properties.getOverflowPolicy());
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PostConstruct
+    public void start() {
+        startWriter();
+    }
+
+    @PreDestroy
+    public void stop() {
+        stopWriter();
+    }
+
+    /**
+     * 提交审计日志；存在事务时在提交后入队
+     */
+    public void submit(AuditLogEntry entry) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(entry);
+                }
+            });
+        } else {
+            enqueue(entry);
+        }
+    }
+
+    @Override
+    protected void writeBatch(List<AuditLogEntry> entries) {
+        List<Object[]> args = new ArrayList<>(entries.size());
+        for (AuditLogEntry e : entries) {
+            args.add(new Object[]{
+                e.userName(), e.operationTime(), e.pageCode(), e.tableCode(), e.tableName(),
+                e.recordId(), e.operationType(), new SqlParameterValue(Types.CLOB, e.fieldChanges())
+            });
+        }
+        transaction.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_SQL, args));
+    }
+}
@@ -0,0 +1,14 @@
+package com.cost.costserver.log;
+
+import com.cost.costserver.log.OperationLogContext.LogSession;
+
+/**
+ * 待写入的操作日志（结束时已确定状态和总耗时）
+ */
+public record OperationLogEntry(
+    LogSession session,
+    String status,
+    String errorMsg,
+    long totalCostMs
+) {
+}
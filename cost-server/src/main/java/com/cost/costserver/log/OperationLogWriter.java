@@ -0,0 +1,131 @@
+package com.cost.costserver.log;
+
+import com.cost.costserver.config.OperationLogProperties;
+import com.cost.costserver.log.OperationLogContext.LogSession;
+import com.cost.costserver.log.OperationLogContext.SqlDetail;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.SqlParameterValue;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 操作日志异步批量写入器
+ * 多个请求的日志合并写入：一次取号（CONNECT BY 批量 NEXTVAL）、一批主表、一批明细，
+ * 不再依赖同一连接上的 CURRVAL。主表与明细在同一独立事务中写入，失败时不留下无明细的主表
+ */
+@Component
+public class OperationLogWriter extends AsyncBatchWriter<OperationLogEntry> {
+
+    private static final String INSERT_LOG_SQL =
+        "INSERT INTO T_COST_OPERATION_LOG (ID, USER_NAME, OPERATION_TYPE, TABLE_CODE, RECORD_ID, RECORD_DESC, TOTAL_SQL_COUNT, TOTAL_COST_MS, STATUS, ERROR_MSG) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_DETAIL_SQL =
+        "INSERT INTO T_COST_OPERATION_LOG_DETAIL (ID, LOG_ID, SEQ_NO, SQL_TYPE, SQL_TEXT, COST_MS, AFFECTED_ROWS, STATUS, ERROR_MSG) " +
+        "VALUES (SEQ_COST_OPERATION_LOG_DETAIL.NEXTVAL, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    /** VARCHAR2 长度按字节计（AL32UTF8 下中文 3 字节） */
+    private static final int ERROR_MSG_MAX_BYTES = 1000;
+    private static final int RECORD_DESC_MAX_BYTES = 256;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaction;
+
+    public OperationLogWriter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                              OperationLogProperties properties) {
+        super("operation-log-writer", properties.getQueueCapacity(), properties.getBatchSize(),
+                properties.getFlushIntervalMs(), properties.getOverflowPolicy());
+        this.jdbcTemplate = jdbcTemplate;
+        // caller-runs 时在业务线程写入，使用独立事务，不加入业务事务
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PostConstruct
+    public void start() {
+        startWriter();
+    }
+
+    @PreDestroy
+    public void stop() {
+        stopWriter();
+    }
+
+    public void submit(OperationLogEntry entry) {
+        enqueue(entry);
+    }
+
+    @Override
+    protected void writeBatch(List<OperationLogEntry> entries) {
+        transaction.executeWithoutResult(status -> insert(entries));
+    }
+
+    private void insert(List<OperationLogEntry> entries) {
+        // 1. 一次往返分配全部主表 ID
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT SEQ_COST_OPERATION_LOG.NEXTVAL FROM DUAL CONNECT BY LEVEL <= ?", Long.class, entries.size());
+
+        List<Object[]> logArgs = new ArrayList<>(entries.size());
+        List<Object[]> detailArgs = new ArrayList<>();
+        for (int i = 0; i < entries.size(); i++) {
+            OperationLogEntry entry = entries.get(i);
+            LogSession session = entry.session();
+            Long logId = ids.get(i);
+            session.setLogId(logId);
+            logArgs.add(new Object[]{
+                logId, session.getUserName(), session.getOperationType(), session.getTableCode(),
+                session.getRecordId(), truncateBytes(session.getRecordDesc(), RECORD_DESC_MAX_BYTES),
+                session.getSqlDetails().size(), entry.totalCostMs(), entry.status(),
+                truncateBytes(entry.errorMsg(), ERROR_MSG_MAX_BYTES)
+            });
+            for (SqlDetail detail : session.getSqlDetails()) {
+                detailArgs.add(new Object[]{
+                    logId, detail.getSeqNo(), detail.getSqlType(),
+                    new SqlParameterValue(Types.CLOB, truncate(detail.getSqlText(), 4000)),
+                    detail.getCostMs(), detail.getAffectedRows(), detail.getStatus(),
+                    truncateBytes(detail.getErrorMsg(), ERROR_MSG_MAX_BYTES)
+                });
+            }
+        }
+
+        // 2. 主表、明细各一次批量写入
+        jdbcTemplate.batchUpdate(INSERT_LOG_SQL, logArgs);
+        if (!detailArgs.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_DETAIL_SQL, detailArgs);
+        }
+    }
+
+    private String truncate(String s, int maxLen) {
+        if (s == null) return null;
+        return s.length() > maxLen ? s.substring(0, maxLen) : s;
+    }
+
+    /**
+     * 按 UTF-8 字节数截断，不截断在代理对中间
+     */
+    static String truncateBytes(String s, int maxBytes) {
+        if (s == null || s.length() * 3 <= maxBytes) {
+            return s;
+        }
+        int bytes = 0;
+        int i = 0;
+        while (i < s.length()) {
+            int codePoint = s.codePointAt(i);
+            int size = codePoint < 0x80 ? 1 : codePoint < 0x800 ? 2 : codePoint < 0x10000 ? 3 : 4;
+            if (bytes + size > maxBytes) {
+                return s.substring(0, i);
+            }
+            bytes += size;
+            i += Character.charCount(codePoint);
+        }
+        return s;
+    }
+}
@@ -0,0 +1,113 @@
+package com.cost.costserver.log.controller;
+
+import com.cost.costserver.common.BusinessException;
+import com.cost.costserver.common.Result;
+import com.cost.costserver.common.SecurityUtils;
+import com.cost.costserver.log.AsyncBatchWriter;
+import com.cost.costserver.log.AuditLogWriter;
+import com.cost.costserver.log.OperationLogWriter;
+import com.cost.costserver.log.sql.SqlStatsRegistry;
+import com.cost.costserver.monitor.JfrRecorder;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * 日志与运行监控（仅超级管理员）
+ */
+@Tag(name = "运行监控")
+@RestController
+@RequestMapping("/api/monitor")
+@RequiredArgsConstructor
+public class LogMonitorController {
+
+    private static final String SUPER_ADMIN_USERNAME = "admin";
+
+    private final AuditLogWriter auditLogWriter;
+    private final OperationLogWriter operationLogWriter;
+    private final SqlStatsRegistry sqlStatsRegistry;
+    private final JfrRecorder jfrRecorder;
+
+    @ModelAttribute
+    public void requireAdminUser() {
+        String username = SecurityUtils.getCurrentUsername();
+        if (username == null || !SUPER_ADMIN_USERNAME.equalsIgnoreCase(username)) {
+            throw new BusinessException(403, "无权限访问");
+        }
+    }
+
+    @Operation(summary = "审计日志写入队列指标")
+    @GetMapping("/audit-log")
+    public Result<AsyncBatchWriter.Stats> auditLogStats() {
+        return Result.ok(auditLogWriter.getStats());
+    }
+
+    @Operation(summary = "操作日志写入队列指标")
+    @GetMapping("/operation-log")
+    public Result<AsyncBatchWriter.Stats> operationLogStats() {
+        return Result.ok(operationLogWriter.getStats());
+    }
+
+    @Operation(summary = "SQL 指纹统计（按总耗时等排序的前 N 个）")
+    @GetMapping("/sql-stats")
+    public Result<List<SqlStatsRegistry.Report>> sqlStats(
+            @RequestParam(defaultValue = "20") int top,
+            @RequestParam(defaultValue = "total") String sortBy) {
+        return Result.ok(sqlStatsRegistry.top(top, sortBy));
+    }
+
+    @Operation(summary = "清空 SQL 指纹统计")
+    @DeleteMapping("/sql-stats")
+    public Result<Void> resetSqlStats() {
+        sqlStatsRegistry.reset();
+        return Result.ok();
+    }
+
+    @Operation(summary = "开启 JFR 常驻录制")
+    @PostMapping("/jfr/start")
+    public Result<Boolean> startJfr() {
+        jfrRecorder.start();
+        return Result.ok(jfrRecorder.isRunning());
+    }
+
+    @Operation(summary = "关闭 JFR 常驻录制")
+    @PostMapping("/jfr/stop")
+    public Result<Boolean> stopJfr() {
+        jfrRecorder.stop();
+        return Result.ok(jfrRecorder.isRunning());
+    }
+
+    @Operation(summary = "导出最近窗口的 JFR 录制（.jfr，可用 JMC 打开）")
+    @GetMapping("/jfr/dump")
+    public void dumpJfr(HttpServletResponse response) throws IOException {
+        Path file = jfrRecorder.dump();
+        try {
+            response.setContentType("application/octet-stream");
+            response.setHeader("Content-Disposition", "attachment; filename=" + file.getFileName());
+            response.setContentLengthLong(Files.size(file));
+            Files.copy(file, response.getOutputStream());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Operation(summary = "JFR 阶段耗时汇总（查询/保存/导出/动作各阶段）")
+    @GetMapping("/jfr/stages")
+    public Result<List<JfrRecorder.StageReport>> jfrStages() {
+        return Result.ok(jfrRecorder.stageReports());
+    }
+
+    @Operation(summary = "清空 JFR 阶段耗时汇总")
+    @DeleteMapping("/jfr/stages")
+    public Result<Void> resetJfrStages() {
+        jfrRecorder.resetStageReports();
+        return Result.ok();
+    }
+}
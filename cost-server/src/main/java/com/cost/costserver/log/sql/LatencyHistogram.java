@@ -0,0 +1,76 @@
+package com.cost.costserver.log.sql;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 无锁延迟直方图
+ * 指数分桶（上界 1µs × 1.5^i，覆盖约 1µs ~ 10min），记录只做一次二分查找和一次原子自增
+ */
+public class LatencyHistogram {
+
+    private static final long[] BOUNDS_MICROS;
+
+    static {
+        long[] bounds = new long[52];
+        double bound = 1;
+        for (int i = 0; i < bounds.length; i++) {
+            bounds[i] = (long) Math.ceil(bound);
+            bound *= 1.5;
+        }
+        BOUNDS_MICROS = bounds;
+    }
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BOUNDS_MICROS.length + 1);
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public void record(long nanos) {
+        long micros = Math.max(0, nanos / 1000);
+        buckets.incrementAndGet(bucketIndex(micros));
+        maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * 近似分位数（返回所在桶上界，毫秒）
+     * @param quantile 0~1
+     */
+    public double percentileMs(double quantile) {
+        long total = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            total += buckets.get(i);
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long target = (long) Math.ceil(total * quantile);
+        long seen = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            seen += buckets.get(i);
+            if (seen >= target && seen > 0) {
+                if (i >= BOUNDS_MICROS.length) {
+                    return maxMs();
+                }
+                return Math.min(BOUNDS_MICROS[i] / 1000.0, maxMs());
+            }
+        }
+        return maxMs();
+    }
+
+    public double maxMs() {
+        return maxNanos.get() / 1_000_000.0;
+    }
+
+    private static int bucketIndex(long micros) {
+        int lo = 0;
+        int hi = BOUNDS_MICROS.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (BOUNDS_MICROS[mid] < micros) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,130 @@
+package com.cost.costserver.log.sql;
+
+import com.cost.costserver.config.SqlLogProperties;
+import com.cost.costserver.log.OperationLogContext;
+import com.cost.costserver.monitor.RequestProfile;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * SQL 执行记录（MyBatis 拦截器与 JDBC 直连执行器共用）
+ * 1. 每条 SQL 记录耗时、行数，按指纹聚合到 SqlStatsRegistry，并计入请求剖析
+ * 2. 记录到 OperationLogContext（如果有活跃会话）
+ * 3. 完整 SQL 文本按需渲染：失败、慢 SQL、抽样或 enabled 时才输出日志
+ */
+@Slf4j
+@Component
+public class SqlExecutionRecorder {
+
+    private final boolean logAll;
+    private final long slowThresholdNanos;
+    private final double sampleRate;
+    private final SqlStatsRegistry statsRegistry;
+
+    public SqlExecutionRecorder(SqlLogProperties properties, SqlStatsRegistry statsRegistry, Environment environment) {
+        boolean enabledByProfile = Arrays.asList(environment.getActiveProfiles()).contains("dev");
+        this.logAll = enabledByProfile || properties.isEnabled();
+        this.slowThresholdNanos = properties.getSlowThresholdMs() * 1_000_000L;
+        this.sampleRate = properties.getSampleRate();
+        this.statsRegistry = statsRegistry;
+    }
+
+    /**
+     * @param sql      执行的 SQL（可含 ? 占位符）
+     * @param fullSql  渲染参数后的完整 SQL，仅在需要输出时调用
+     * @param rowCount 返回/影响行数，未知时为 null
+     */
+    public void record(String sql, Supplier<String> fullSql, long nanos, Integer rowCount, Throwable error) {
+        try {
+            String fingerprint = SqlFingerprint.of(sql);
+            String sqlType = SqlFingerprint.sqlType(fingerprint);
+
+            statsRegistry.record(fingerprint, sqlType, nanos, rowCount, error != null, sql);
+            RequestProfile.recordSql(fingerprint, nanos);
+
+            long cost = nanos / 1_000_000;
+            String rendered = null;
+
+            // 记录到上下文（如果有活跃会话）
+            if (OperationLogContext.isActive() && !isLogTableSql(fingerprint)) {
+                rendered = fullSql.get();
+                if (error == null) {
+                    OperationLogContext.addSql(sqlType, rendered, cost, rowCount);
+                } else {
+                    OperationLogContext.addFailedSql(sqlType, rendered, cost, error.getMessage());
+                }
+            }
+
+            // 控制台输出（按需渲染完整 SQL）
+            if (error != null) {
+                log.error("[SQL] {}ms | FAILED | {} | {}", cost, rendered != null ? rendered : fullSql.get(), error.getMessage());
+            } else if (nanos >= slowThresholdNanos) {
+                log.warn("[SLOW SQL] {}ms | {} rows | {}", cost, rowCount, rendered != null ? rendered : fullSql.get());
+            } else if (logAll || (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate)) {
+                log.info("[SQL] {}ms | {} rows | {}", cost, rowCount, rendered != null ? rendered : fullSql.get());
+            }
+        } catch (Exception e) {
+            log.debug("SQL 统计失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 将 ? 占位符按顺序替换为参数字面量并折叠空白，单次扫描不使用正则
+     */
+    public static String render(String sql, Object[] args) {
+        StringBuilder sb = new StringBuilder(sql.length() + 16);
+        boolean inQuote = false;
+        boolean lastSpace = true;
+        int paramIndex = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (!inQuote && Character.isWhitespace(c)) {
+                if (!lastSpace) {
+                    sb.append(' ');
+                    lastSpace = true;
+                }
+                continue;
+            }
+            lastSpace = false;
+            if (c == '\'') {
+                inQuote = !inQuote;
+            }
+            if (c == '?' && !inQuote && args != null && paramIndex < args.length) {
+                sb.append(formatValue(args[paramIndex++]));
+                continue;
+            }
+            sb.append(c);
+        }
+        int end = sb.length();
+        if (end > 0 && sb.charAt(end - 1) == ' ') {
+            sb.setLength(end - 1);
+        }
+        return sb.toString();
+    }
+
+    public static String formatValue(Object value) {
+        if (value == null) {
+            return "null";
+        } else if (value instanceof String) {
+            return "'" + value + "'";
+        } else if (value instanceof Date) {
+            return "'" + new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(value) + "'";
+        } else {
+            return value.toString();
+        }
+    }
+
+    /**
+     * 排除操作日志表自身的 SQL，避免死循环
+     */
+    private boolean isLogTableSql(String fingerprint) {
+        return fingerprint.contains("T_COST_OPERATION_LOG");
+    }
+}
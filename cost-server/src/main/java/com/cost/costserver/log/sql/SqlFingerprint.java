@@ -0,0 +1,119 @@
+package com.cost.costserver.log.sql;
+
+/**
+ * SQL 指纹：单次扫描将 SQL 归一化为"形状"
+ * 字符串/数字字面量替换为 ?，连续的 ? 列表（IN / VALUES）折叠为一个 ?，空白折叠，关键字大写
+ * 同一形状的 SQL（仅参数不同）得到相同指纹，用于聚合统计
+ */
+public final class SqlFingerprint {
+
+    /** 指纹最大长度，超长 SQL 只按前缀聚合 */
+    private static final int MAX_LENGTH = 2048;
+
+    private SqlFingerprint() {
+    }
+
+    public static String of(String sql) {
+        if (sql == null) {
+            return "";
+        }
+        int len = sql.length();
+        StringBuilder sb = new StringBuilder(Math.min(len, MAX_LENGTH));
+        int i = 0;
+        while (i < len && sb.length() < MAX_LENGTH) {
+            char c = sql.charAt(i);
+            if (Character.isWhitespace(c)) {
+                while (i < len && Character.isWhitespace(sql.charAt(i))) {
+                    i++;
+                }
+                if (sb.length() > 0) {
+                    sb.append(' ');
+                }
+                continue;
+            }
+            if (c == '\'') {
+                // 字符串字面量（'' 为转义）
+                i++;
+                while (i < len) {
+                    if (sql.charAt(i) == '\'') {
+                        if (i + 1 < len && sql.charAt(i + 1) == '\'') {
+                            i += 2;
+                            continue;
+                        }
+                        i++;
+                        break;
+                    }
+                    i++;
+                }
+                appendPlaceholder(sb);
+                continue;
+            }
+            if (isDigit(c) && !isIdentifierTail(sb)) {
+                // 数字字面量（含小数）
+                while (i < len && (isDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+                    i++;
+                }
+                appendPlaceholder(sb);
+                continue;
+            }
+            if (c == '?') {
+                i++;
+                appendPlaceholder(sb);
+                continue;
+            }
+            sb.append(Character.toUpperCase(c));
+            i++;
+        }
+        int end = sb.length();
+        while (end > 0 && sb.charAt(end - 1) == ' ') {
+            end--;
+        }
+        sb.setLength(end);
+        return sb.toString();
+    }
+
+    /**
+     * SQL 类型（取指纹首个关键字）
+     */
+    public static String sqlType(String fingerprint) {
+        if (fingerprint.startsWith("SELECT") || fingerprint.startsWith("WITH")) return "SELECT";
+        if (fingerprint.startsWith("INSERT")) return "INSERT";
+        if (fingerprint.startsWith("UPDATE")) return "UPDATE";
+        if (fingerprint.startsWith("DELETE")) return "DELETE";
+        return "OTHER";
+    }
+
+    /**
+     * 追加 ?；若前面紧跟 "?, " 或 "?," 则折叠为一个
+     */
+    private static void appendPlaceholder(StringBuilder sb) {
+        int end = sb.length();
+        int p = end - 1;
+        while (p >= 0 && sb.charAt(p) == ' ') {
+            p--;
+        }
+        if (p >= 0 && sb.charAt(p) == ',') {
+            int q = p - 1;
+            while (q >= 0 && sb.charAt(q) == ' ') {
+                q--;
+            }
+            if (q >= 0 && sb.charAt(q) == '?') {
+                sb.setLength(q + 1);
+                return;
+            }
+        }
+        sb.append('?');
+    }
+
+    private static boolean isIdentifierTail(StringBuilder sb) {
+        if (sb.length() == 0) {
+            return false;
+        }
+        char prev = sb.charAt(sb.length() - 1);
+        return Character.isLetterOrDigit(prev) || prev == '_' || prev == '$' || prev == '#' || prev == '.';
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
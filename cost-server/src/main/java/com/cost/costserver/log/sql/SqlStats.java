@@ -0,0 +1,48 @@
+package com.cost.costserver.log.sql;
+
+import lombok.Getter;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个 SQL 指纹（+ 调用方标签）的累计统计（无锁）
+ */
+@Getter
+public class SqlStats {
+
+    private final String fingerprint;
+    private final String sqlType;
+    private final String tableCode;
+    private final String pageCode;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LatencyHistogram histogram = new LatencyHistogram();
+    /** 样例 SQL：保留耗时最长的一次（原始文本引用，不做额外渲染） */
+    private volatile String sampleSql;
+    private volatile long sampleNanos = -1;
+
+    public SqlStats(String fingerprint, String sqlType, String tableCode, String pageCode) {
+        this.fingerprint = fingerprint;
+        this.sqlType = sqlType;
+        this.tableCode = tableCode;
+        this.pageCode = pageCode;
+    }
+
+    public void record(long nanos, Integer rowCount, boolean failed, String sql) {
+        count.increment();
+        totalNanos.add(nanos);
+        histogram.record(nanos);
+        if (rowCount != null) {
+            rows.add(rowCount);
+        }
+        if (failed) {
+            errors.increment();
+        }
+        if (nanos > sampleNanos) {
+            sampleNanos = nanos;
+            sampleSql = sql;
+        }
+    }
+}
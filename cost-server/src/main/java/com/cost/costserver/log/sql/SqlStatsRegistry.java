@@ -0,0 +1,91 @@
+package com.cost.costserver.log.sql;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * SQL 指纹统计注册表
+ * 按 指纹 + tableCode + pageCode 聚合；数量有上限，超出后新形状统一计入 OVERFLOW，防止拼接 SQL 导致内存无限增长
+ */
+@Component
+public class SqlStatsRegistry {
+
+    private static final int MAX_FINGERPRINTS = 5000;
+    private static final int MAX_SAMPLE_LENGTH = 4000;
+    private static final Key OVERFLOW = new Key("OVERFLOW", null, null);
+
+    private final Map<Key, SqlStats> stats = new ConcurrentHashMap<>();
+
+    private record Key(String fingerprint, String tableCode, String pageCode) {
+    }
+
+    /**
+     * 指纹统计报表行
+     */
+    public record Report(String fingerprint, String sqlType, String tableCode, String pageCode,
+                         long count, long errors, long rows, double totalMs, double avgMs,
+                         double p50Ms, double p99Ms, double maxMs, String sampleSql) {
+    }
+
+    /**
+     * 记录一次 SQL 执行，标签取自 SqlTagContext
+     * @param sql 原始 SQL（仅作为样例保存引用）
+     */
+    public void record(String fingerprint, String sqlType, long nanos, Integer rowCount, boolean failed, String sql) {
+        SqlTagContext.Tags tags = SqlTagContext.get();
+        Key key = tags == null ? new Key(fingerprint, null, null) : new Key(fingerprint, tags.tableCode(), tags.pageCode());
+        SqlStats entry = stats.get(key);
+        if (entry == null) {
+            Key target = stats.size() >= MAX_FINGERPRINTS ? OVERFLOW : key;
+            entry = stats.computeIfAbsent(target, k -> k == OVERFLOW
+                    ? new SqlStats(k.fingerprint(), "OTHER", null, null)
+                    : new SqlStats(k.fingerprint(), sqlType, k.tableCode(), k.pageCode()));
+        }
+        entry.record(nanos, rowCount, failed, sql);
+    }
+
+    /**
+     * 按指定维度取前 N 个指纹
+     * @param sortBy total（总耗时，默认）/ avg / p99 / count / errors
+     */
+    public List<Report> top(int limit, String sortBy) {
+        Comparator<Report> comparator = switch (sortBy == null ? "total" : sortBy) {
+            case "avg" -> Comparator.comparingDouble(Report::avgMs);
+            case "p99" -> Comparator.comparingDouble(Report::p99Ms);
+            case "count" -> Comparator.comparingLong(Report::count);
+            case "errors" -> Comparator.comparingLong(Report::errors);
+            default -> Comparator.comparingDouble(Report::totalMs);
+        };
+        return stats.values().stream()
+                .map(this::toReport)
+                .sorted(comparator.reversed())
+                .limit(Math.max(1, limit))
+                .toList();
+    }
+
+    public void reset() {
+        stats.clear();
+    }
+
+    private Report toReport(SqlStats s) {
+        long count = s.getCount().sum();
+        double totalMs = s.getTotalNanos().sum() / 1_000_000.0;
+        String sample = s.getSampleSql();
+        if (sample != null && sample.length() > MAX_SAMPLE_LENGTH) {
+            sample = sample.substring(0, MAX_SAMPLE_LENGTH) + "...";
+        }
+        return new Report(s.getFingerprint(), s.getSqlType(), s.getTableCode(), s.getPageCode(),
+                count, s.getErrors().sum(), s.getRows().sum(), round(totalMs),
+                round(count == 0 ? 0 : totalMs / count),
+                round(s.getHistogram().percentileMs(0.5)), round(s.getHistogram().percentileMs(0.99)),
+                round(s.getHistogram().maxMs()), sample);
+    }
+
+    private double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
@@ -0,0 +1,28 @@
+package com.cost.costserver.log.sql;
+
+/**
+ * SQL 统计标签（线程绑定）
+ * 由 Web 拦截器按请求路径/参数设置，业务服务可覆盖（如保存时的主表编码）
+ */
+public final class SqlTagContext {
+
+    private static final ThreadLocal<Tags> CONTEXT = new ThreadLocal<>();
+
+    public record Tags(String tableCode, String pageCode) {
+    }
+
+    private SqlTagContext() {
+    }
+
+    public static void set(String tableCode, String pageCode) {
+        CONTEXT.set(new Tags(tableCode, pageCode));
+    }
+
+    public static Tags get() {
+        return CONTEXT.get();
+    }
+
+    public static void clear() {
+        CONTEXT.remove();
+    }
+}
@@ -0,0 +1,40 @@
+package com.cost.costserver.log.sql;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+/**
+ * 从请求路径变量 / 参数中提取 tableCode（导出为 export:{exportCode}）、pageCode 作为 SQL 统计标签
+ */
+@Component
+public class SqlTagInterceptor implements HandlerInterceptor {
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        @SuppressWarnings("unchecked")
+        Map<String, String> pathVariables =
+                (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        String tableCode = pathVariables != null ? pathVariables.get("tableCode") : null;
+        String pageCode = pathVariables != null ? pathVariables.get("pageCode") : null;
+        if (tableCode == null && pathVariables != null && pathVariables.get("exportCode") != null) {
+            tableCode = "export:" + pathVariables.get("exportCode");
+        }
+        if (pageCode == null) {
+            pageCode = request.getParameter("pageCode");
+        }
+        if (tableCode != null || pageCode != null) {
+            SqlTagContext.set(tableCode, pageCode);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        SqlTagContext.clear();
+    }
+}
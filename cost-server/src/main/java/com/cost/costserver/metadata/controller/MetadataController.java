@@ -1,21 +1,28 @@
 package com.cost.costserver.metadata.controller;
 
+import cn.hutool.crypto.digest.DigestUtil;
 import com.cost.costserver.auth.dto.PagePermission;
 import com.cost.costserver.auth.service.PermissionService;
 import com.cost.costserver.common.BusinessException;
 import com.cost.costserver.common.Result;
+import com.cost.costserver.grid.service.UserGridConfigService;
 import com.cost.costserver.common.SecurityUtils;
-import com.cost.costserver.metadata.dto.DictionaryItemDTO;
-import com.cost.costserver.metadata.dto.LookupConfigDTO;
-import com.cost.costserver.metadata.dto.PageComponentDTO;
 import com.cost.costserver.metadata.dto.TableMetadataDTO;
 import com.cost.costserver.metadata.service.MetadataService;
+import com.cost.costserver.metadata.service.PageBundleService;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.util.List;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 
 @Tag(name = "元数据接口")
 @RestController
@@ -25,11 +32,20 @@ public class MetadataController {
 
     private final MetadataService metadataService;
     private final PermissionService permissionService;
+    private final PageBundleService pageBundleService;
+    private final UserGridConfigService userGridConfigService;
+    private final VersionedResponseCache responseCache;
+
+    /*
+     * 表元数据、页面组件、字典、弹窗配置按配置版本返回 ETag，未变化时 304；响应体按版本预先序列化和压缩
+     */
 
     @Operation(summary = "获取表元数据（原始，不含权限）")
     @GetMapping("/table/{tableCode}")
-    public Result<TableMetadataDTO> getTableMetadata(@PathVariable String tableCode) {
-        return Result.ok(metadataService.getTableMetadata(tableCode));
+    public ResponseEntity<byte[]> getTableMetadata(@PathVariable String tableCode, WebRequest request)
+            throws JsonProcessingException {
+        return responseCache.respond("table:" + tableCode, metadataService.getConfigVersion(), "0", request,
+                () -> metadataService.getTableMetadata(tableCode));
     }
 
     @Operation(summary = "获取表元数据（合并权限）")
@@ -51,30 +67,74 @@ public class MetadataController {
 
     @Operation(summary = "获取页面组件树")
     @GetMapping("/page/{pageCode}")
-    public Result<List<PageComponentDTO>> getPageComponents(@PathVariable String pageCode) {
+    public ResponseEntity<byte[]> getPageComponents(@PathVariable String pageCode, WebRequest request)
+            throws JsonProcessingException {
         Long userId = SecurityUtils.getCurrentUserId();
+        Set<String> allowedButtons;
         if (userId == null) {
             // 未登录用户返回不带按钮过滤的组件
-            return Result.ok(metadataService.getPageComponents(pageCode));
+            allowedButtons = null;
+        } else {
+            PagePermission permission = permissionService.getPagePermission(userId, pageCode);
+            // 无页面权限，返回不带按钮的组件
+            allowedButtons = permission == null ? Collections.emptySet() : permission.buttons();
+        }
+        return responseCache.respond("page:" + pageCode, metadataService.getConfigVersion(),
+                buttonVariant(allowedButtons), request,
+                () -> metadataService.getPageComponents(pageCode, allowedButtons));
+    }
+
+    /**
+     * 按钮集合指纹：同一页面下按钮权限相同的用户共享同一 ETag 和缓存响应
+     */
+    private static String buttonVariant(Set<String> allowedButtons) {
+        if (allowedButtons == null || allowedButtons.contains("*")) {
+            return "all";
+        }
+        if (allowedButtons.isEmpty()) {
+            return "none";
+        }
+        return DigestUtil.md5Hex16(String.join(",", new TreeSet<>(allowedButtons)));
+    }
+
+    /**
+     * ETag = 配置版本 + (用户、权限代数、列配置) 指纹，命中时 304，不组装启动包；
+     * 启动包按用户组装，响应体不缓存。版本与代数在读取权限前取，并发变更只会让 ETag 提前失效
+     */
+    @Operation(summary = "获取页面启动包（组件树、表格元数据、列配置、字典、弹窗配置）")
+    @GetMapping("/bundle/{pageCode}")
+    public ResponseEntity<byte[]> getPageBundle(@PathVariable String pageCode, WebRequest request)
+            throws JsonProcessingException {
+        long version = metadataService.getConfigVersion();
+        long permissionGeneration = permissionService.getGeneration();
+        Long userId = SecurityUtils.getCurrentUserId();
+        if (userId == null) {
+            throw new BusinessException(403, "无权限访问");
         }
         PagePermission permission = permissionService.getPagePermission(userId, pageCode);
         if (permission == null) {
-            // 无页面权限，返回不带按钮的组件
-            return Result.ok(metadataService.getPageComponents(pageCode, java.util.Collections.emptySet()));
+            throw new BusinessException(403, "无权限访问");
         }
-        return Result.ok(metadataService.getPageComponents(pageCode, permission.buttons()));
+        Map<String, String> configData = userGridConfigService.getConfigDataByGrid(userId, pageCode);
+        String variant = DigestUtil.md5Hex16(userId + "\u0000" + permissionGeneration + "\u0000" + new TreeMap<>(configData));
+        return responseCache.respondUncached(version, variant, request,
+                () -> pageBundleService.getPageBundle(pageCode, permission, configData));
     }
 
     @Operation(summary = "获取字典项")
     @GetMapping("/dict/{dictType}")
-    public Result<List<DictionaryItemDTO>> getDictItems(@PathVariable String dictType) {
-        return Result.ok(metadataService.getDictItems(dictType));
+    public ResponseEntity<byte[]> getDictItems(@PathVariable String dictType, WebRequest request)
+            throws JsonProcessingException {
+        return responseCache.respond("dict:" + dictType, metadataService.getConfigVersion(), "0", request,
+                () -> metadataService.getDictItems(dictType));
     }
 
     @Operation(summary = "获取弹窗选择器配置")
     @GetMapping("/lookup/{lookupCode}")
-    public Result<LookupConfigDTO> getLookupConfig(@PathVariable String lookupCode) {
-        return Result.ok(metadataService.getLookupConfig(lookupCode));
+    public ResponseEntity<byte[]> getLookupConfig(@PathVariable String lookupCode, WebRequest request)
+            throws JsonProcessingException {
+        return responseCache.respond("lookup:" + lookupCode, metadataService.getConfigVersion(), "0", request,
+                () -> metadataService.getLookupConfig(lookupCode));
     }
 
     @Operation(summary = "清除元数据缓存")
@@ -0,0 +1,164 @@
+package com.cost.costserver.metadata.controller;
+
+import cn.hutool.core.util.ZipUtil;
+import com.cost.costserver.common.Result;
+import com.cost.costserver.monitor.CacheMetrics;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * 按配置版本缓存的元数据响应
+ * 1. ETag = 配置版本 + 变体（如按钮权限指纹），If-None-Match 命中直接 304，不加载任何数据
+ * 2. 未命中时缓存序列化后的 JSON 及其 gzip 压缩体，同一版本内不再重复序列化和压缩
+ * 3. 响应体缓存与版本一起原子替换：配置版本变化时换成新版本的空缓存，
+ *    持有旧版本号的并发请求既读不到也写不进新版本的缓存
+ */
+@Component
+@RequiredArgsConstructor
+class VersionedResponseCache {
+
+    private static final int MAX_ENTRIES = 2000;
+
+    private final ObjectMapper objectMapper;
+
+    private final AtomicReference<VersionedBodies> bodies =
+            new AtomicReference<>(new VersionedBodies(Long.MIN_VALUE, new ConcurrentHashMap<>()));
+
+    private record Body(byte[] json, byte[] gzip) {
+    }
+
+    private record VersionedBodies(long version, Map<String, Body> bodies) {
+    }
+
+    /**
+     * @param key     响应标识（接口 + 路径参数）
+     * @param version 当前配置版本，须在加载数据之前读取
+     * @param variant 同一 URL 下的不同表示（如按钮权限指纹），无则传 "0"
+     * @return If-None-Match 命中时返回 null（已由 WebRequest 设置 304）
+     */
+    ResponseEntity<byte[]> respond(String key, long version, String variant, WebRequest request,
+                                   Supplier<?> loader) throws JsonProcessingException {
+        String etag = etag(version, variant);
+        if (request.checkNotModified(etag)) {
+            CacheMetrics.hit("metadata-etag");
+            return null;
+        }
+        CacheMetrics.miss("metadata-etag");
+
+        Map<String, Body> cached = bodiesFor(version);
+        String cacheKey = key + '|' + variant;
+        Body body = cached != null ? cached.get(cacheKey) : null;
+        if (body != null) {
+            CacheMetrics.hit("metadata-response");
+        } else {
+            CacheMetrics.miss("metadata-response");
+            body = serialize(loader);
+            if (cached != null && cached.size() < MAX_ENTRIES) {
+                cached.put(cacheKey, body);
+            }
+        }
+        return ok(etag, body, request);
+    }
+
+    /**
+     * 只做版本 ETag 协商、不缓存响应体，用于按用户组装的响应（如页面启动包）
+     */
+    ResponseEntity<byte[]> respondUncached(long version, String variant, WebRequest request,
+                                           Supplier<?> loader) throws JsonProcessingException {
+        String etag = etag(version, variant);
+        if (request.checkNotModified(etag)) {
+            CacheMetrics.hit("metadata-etag");
+            return null;
+        }
+        CacheMetrics.miss("metadata-etag");
+        return ok(etag, serialize(loader), request);
+    }
+
+    /**
+     * 当前版本的响应体缓存；请求版本已落后于缓存版本时返回 null（不读不写）
+     */
+    private Map<String, Body> bodiesFor(long version) {
+        while (true) {
+            VersionedBodies current = bodies.get();
+            if (current.version() == version) {
+                return current.bodies();
+            }
+            if (current.version() > version) {
+                return null;
+            }
+            VersionedBodies fresh = new VersionedBodies(version, new ConcurrentHashMap<>());
+            if (bodies.compareAndSet(current, fresh)) {
+                return fresh.bodies();
+            }
+        }
+    }
+
+    private static String etag(long version, String variant) {
+        return "\"" + Long.toString(version, 36) + "-" + variant + "\"";
+    }
+
+    private Body serialize(Supplier<?> loader) throws JsonProcessingException {
+        byte[] json = objectMapper.writeValueAsBytes(Result.ok(loader.get()));
+        return new Body(json, ZipUtil.gzip(json));
+    }
+
+    private static ResponseEntity<byte[]> ok(String etag, Body body, WebRequest request) {
+        boolean gzip = acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            builder.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return builder.body(gzip ? body.gzip() : body.json());
+    }
+
+    /**
+     * Accept-Encoding 是否接受 gzip：按 q 值判断，gzip;q=0 表示拒绝；
+     * 未列出 gzip 时取 * 的 q 值，两者都未列出视为不接受
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzip = null;
+        Double any = null;
+        for (String part : acceptEncoding.split(",")) {
+            String[] params = part.split(";");
+            String coding = params[0].trim().toLowerCase(Locale.ROOT);
+            double q = 1;
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].trim();
+                if (param.length() > 2 && (param.charAt(0) == 'q' || param.charAt(0) == 'Q') && param.charAt(1) == '=') {
+                    try {
+                        q = Double.parseDouble(param.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzip = q;
+            } else if (coding.equals("*")) {
+                any = q;
+            }
+        }
+        double q = gzip != null ? gzip : any != null ? any : 0;
+        return q > 0;
+    }
+}
@@ -1,6 +1,8 @@
 package com.cost.costserver.metadata.dto;
 
 import com.cost.costserver.metadata.entity.ColumnMetadata;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 
 /**
  * 列元数据 DTO - 用于 API 返回
@@ -26,6 +28,11 @@ public record ColumnMetadataDTO(
     String rulesConfig,
     Boolean isVirtual
 ) {
+    /**
+     * 仅用于合并 rulesConfig，线程安全，所有列共享
+     */
+    private static final ObjectMapper RULES_MAPPER = new ObjectMapper();
+
     public static ColumnMetadataDTO from(ColumnMetadata entity) {
         return new ColumnMetadataDTO(
             entity.getId(),
@@ -55,17 +62,21 @@ public record ColumnMetadataDTO(
      * 同时将 cellEditorParams 中的 lookup 配置转换为 rulesConfig.lookup 格式
      */
     private static String mergeEditorIntoRulesConfig(String rulesConfig, String cellEditor) {
+        boolean hasRules = rulesConfig != null && !rulesConfig.isBlank();
+        boolean hasEditor = cellEditor != null && !cellEditor.isBlank();
+        if (!hasRules && !hasEditor) {
+            return null;
+        }
         try {
-            com.fasterxml.jackson.databind.ObjectMapper om = new com.fasterxml.jackson.databind.ObjectMapper();
-            com.fasterxml.jackson.databind.node.ObjectNode node;
-            if (rulesConfig != null && !rulesConfig.isBlank()) {
-                node = (com.fasterxml.jackson.databind.node.ObjectNode) om.readTree(rulesConfig);
+            ObjectNode node;
+            if (hasRules) {
+                node = (ObjectNode) RULES_MAPPER.readTree(rulesConfig);
             } else {
-                node = om.createObjectNode();
+                node = RULES_MAPPER.createObjectNode();
             }
 
             // 合并 cellEditor
-            if (cellEditor != null && !cellEditor.isBlank() && !node.has("cellEditor")) {
+            if (hasEditor && !node.has("cellEditor")) {
                 node.put("cellEditor", cellEditor);
             }
 
@@ -74,7 +85,7 @@ public record ColumnMetadataDTO(
             if (node.has("cellEditorParams")) {
                 var params = node.get("cellEditorParams");
                 if (params.isObject() && params.has("lookupCode") && !node.has("lookup")) {
-                    var lookupNode = om.createObjectNode();
+                    var lookupNode = RULES_MAPPER.createObjectNode();
                     lookupNode.put("code", params.get("lookupCode").asText());
                     if (params.has("mapping")) lookupNode.set("mapping", params.get("mapping"));
                     if (params.has("noFillback")) lookupNode.set("noFillback", params.get("noFillback"));
@@ -87,7 +98,7 @@ public record ColumnMetadataDTO(
 
             // 如果最终是空对象，返回 null 而不是 "{}"
             if (node.isEmpty()) return null;
-            return om.writeValueAsString(node);
+            return RULES_MAPPER.writeValueAsString(node);
         } catch (Exception e) {
             return rulesConfig;
         }
@@ -0,0 +1,17 @@
+package com.cost.costserver.metadata.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 页面启动包：打开页面所需的全部配置，一次请求返回
+ */
+public record PageBundleDTO(
+    String pageCode,
+    List<PageComponentDTO> components,                 // 按钮已按权限过滤的组件树
+    Map<String, TableMetadataDTO> tables,              // gridKey -> 合并权限和个人偏好的表元数据
+    Map<String, Object> gridConfigs,                   // gridKey -> 用户列配置
+    Map<String, List<DictionaryItemDTO>> dicts,        // dictType -> 字典项
+    Map<String, LookupConfigDTO> lookups               // lookupCode -> 弹窗选择器配置
+) {
+}
@@ -0,0 +1,106 @@
+package com.cost.costserver.metadata.dto;
+
+import cn.hutool.core.util.StrUtil;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 表元数据运行时索引（不可变）
+ * 随元数据缓存加载时构建一次，查询/保存/导出/审计热路径直接按键取列，
+ * 不再每次请求重建列映射或线性扫描列列表
+ */
+public final class TableMetadataIndex {
+
+    /**
+     * 审计字段（运行时列名），由框架维护，不要求出现在列元数据中
+     */
+    public static final Set<String> AUDIT_COLUMNS =
+            Set.of("ID", "DELETED", "CREATE_TIME", "UPDATE_TIME", "CREATE_BY", "UPDATE_BY");
+
+    private final TableMetadataDTO metadata;
+    /**
+     * 运行时列名（去空格大写）-> 列，按显示顺序，同名取第一个
+     */
+    private final Map<String, ColumnMetadataDTO> columnsByRuntimeName;
+    /**
+     * 物理列名（targetColumn，未配置时为 columnName，去空格大写）-> 运行时列名
+     */
+    private final Map<String, String> runtimeNameByTarget;
+    /**
+     * columnName -> 表头中文名，用于审计日志
+     */
+    private final Map<String, String> labels;
+
+    private TableMetadataIndex(TableMetadataDTO metadata) {
+        this.metadata = metadata;
+        Map<String, ColumnMetadataDTO> byRuntime = new LinkedHashMap<>();
+        Map<String, String> byTarget = new HashMap<>();
+        Map<String, String> labelMap = new HashMap<>();
+        for (ColumnMetadataDTO col : metadata.columns()) {
+            byRuntime.putIfAbsent(normalize(col.columnName()), col);
+            String target = StrUtil.isNotBlank(col.targetColumn()) ? col.targetColumn() : col.columnName();
+            byTarget.putIfAbsent(normalize(target), col.columnName());
+            if (col.columnName() != null && col.headerText() != null) {
+                labelMap.putIfAbsent(col.columnName(), col.headerText());
+            }
+        }
+        this.columnsByRuntimeName = Collections.unmodifiableMap(byRuntime);
+        this.runtimeNameByTarget = Collections.unmodifiableMap(byTarget);
+        this.labels = Collections.unmodifiableMap(labelMap);
+    }
+
+    public static TableMetadataIndex of(TableMetadataDTO metadata) {
+        return new TableMetadataIndex(metadata);
+    }
+
+    public TableMetadataDTO metadata() {
+        return metadata;
+    }
+
+    public Map<String, ColumnMetadataDTO> columnsByRuntimeName() {
+        return columnsByRuntimeName;
+    }
+
+    public ColumnMetadataDTO column(String runtimeName) {
+        return columnsByRuntimeName.get(normalize(runtimeName));
+    }
+
+    public Map<String, String> labels() {
+        return labels;
+    }
+
+    /**
+     * 物理列名 -> 运行时列名，未匹配到列时返回规范化后的物理列名
+     */
+    public String resolveRuntimeColumnName(String targetColumnName) {
+        String normalizedTarget = normalize(targetColumnName);
+        if (normalizedTarget.isEmpty()) {
+            return normalizedTarget;
+        }
+        return runtimeNameByTarget.getOrDefault(normalizedTarget, normalizedTarget);
+    }
+
+    /**
+     * 物理列名 -> 查询视图列名（queryColumn，未配置时为 columnName），未匹配到列时返回规范化后的物理列名
+     */
+    public String resolveQueryColumnName(String targetColumnName) {
+        ColumnMetadataDTO col = column(resolveRuntimeColumnName(targetColumnName));
+        if (col == null) {
+            return normalize(targetColumnName);
+        }
+        return StrUtil.isNotBlank(col.queryColumn()) ? col.queryColumn() : col.columnName();
+    }
+
+    public static boolean isAuditColumn(String columnName) {
+        return AUDIT_COLUMNS.contains(normalize(columnName));
+    }
+
+    public static String normalize(String name) {
+        return name == null ? "" : name.trim().toUpperCase(Locale.ROOT);
+    }
+}
@@ -6,6 +6,8 @@ import com.cost.costserver.auth.entity.Resource;
 import com.cost.costserver.auth.entity.RolePage;
 import com.cost.costserver.auth.mapper.ResourceMapper;
 import com.cost.costserver.auth.mapper.RolePageMapper;
+import com.cost.costserver.auth.service.MenuService;
+import com.cost.costserver.auth.service.PermissionService;
 import com.cost.costserver.dynamic.mapper.DynamicMapper;
 import com.cost.costserver.export.entity.ExportConfig;
 import com.cost.costserver.export.entity.ExportConfigDetail;
@@ -37,6 +39,8 @@ public class MetaConfigService {
 
     private final ResourceMapper resourceMapper;
     private final RolePageMapper rolePageMapper;
+    private final PermissionService permissionService;
+    private final MenuService menuService;
     private final TableMetadataMapper tableMetadataMapper;
     private final ColumnMetadataMapper columnMetadataMapper;
     private final PageComponentMapper pageComponentMapper;
@@ -68,12 +72,14 @@ public class MetaConfigService {
         } else {
             resourceMapper.updateById(r);
         }
+        menuService.evictAll();
         return r;
     }
 
     @Transactional
     public void deleteResource(Long id) {
         resourceMapper.deleteById(id);
+        menuService.evictAll();
     }
 
     // ==================== 表管理 ====================
@@ -269,6 +275,7 @@ public class MetaConfigService {
             if (migrated != null) {
                 rolePage.setColumnPolicy(migrated);
                 rolePageMapper.updateById(rolePage);
+                permissionService.evictAll();
             }
         }
     }
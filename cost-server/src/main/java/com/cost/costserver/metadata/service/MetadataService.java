@@ -10,15 +10,21 @@ import com.cost.costserver.grid.service.UserGridConfigService;
 import com.cost.costserver.metadata.dto.*;
 import com.cost.costserver.metadata.entity.*;
 import com.cost.costserver.metadata.mapper.*;
+import com.cost.costserver.monitor.CacheMetrics;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 @Service
@@ -40,14 +46,77 @@ public class MetadataService {
     private final ObjectMapper objectMapper;
     private final UserGridConfigService userGridConfigService;
 
-    private final Map<String, TableMetadataDTO> cache = new ConcurrentHashMap<>();
+    private final Map<String, TableMetadataIndex> cache = new ConcurrentHashMap<>();
+    /**
+     * tableCode -> 进行中的加载
+     */
+    private final Map<String, CompletableFuture<TableMetadataIndex>> loading = new ConcurrentHashMap<>();
+    /**
+     * 配置版本：每次清理元数据缓存时递增，作为元数据接口 ETag 的一部分。
+     * 初值取启动时间，重启后不会误用重启前的 ETag
+     */
+    private final AtomicLong configVersion = new AtomicLong(System.currentTimeMillis());
+    /**
+     * pageCode -> 组件树（规则已挂载、按钮未过滤）
+     */
+    private final Map<String, PageComponentTree> pageComponentCache = new ConcurrentHashMap<>();
+    /**
+     * pageCode + 按钮集合指纹 -> 按钮已过滤的组件树，角色相同的用户共享
+     */
+    private final Map<String, List<PageComponentDTO>> filteredPageComponentCache = new ConcurrentHashMap<>();
+
+    private static final int MAX_FILTERED_PAGE_COMPONENTS = 5000;
+
+    private record PageComponentTree(List<PageComponentDTO> roots, Map<String, String> tableNameMap) {
+    }
+
+    public long getConfigVersion() {
+        return configVersion.get();
+    }
 
     public TableMetadataDTO getTableMetadata(String tableCode) {
-        TableMetadataDTO cached = cache.get(tableCode);
+        return getTableIndex(tableCode).metadata();
+    }
+
+    /**
+     * 表元数据及其运行时索引（列映射、物理列解析、审计标签），随缓存加载构建一次
+     * 同一 tableCode 的并发未命中只有一个线程查库，其余等待其结果
+     */
+    public TableMetadataIndex getTableIndex(String tableCode) {
+        TableMetadataIndex cached = cache.get(tableCode);
         if (cached != null) {
+            CacheMetrics.hit("table-metadata");
             return cached;
         }
 
+        CompletableFuture<TableMetadataIndex> load = new CompletableFuture<>();
+        CompletableFuture<TableMetadataIndex> inFlight = loading.putIfAbsent(tableCode, load);
+        if (inFlight != null) {
+            CacheMetrics.hit("table-metadata");
+            return awaitLoad(inFlight);
+        }
+        try {
+            cached = cache.get(tableCode);
+            if (cached != null) {
+                CacheMetrics.hit("table-metadata");
+                load.complete(cached);
+                return cached;
+            }
+            CacheMetrics.miss("table-metadata");
+            long version = configVersion.get();
+            TableMetadataIndex index = loadTableIndex(tableCode);
+            cacheIfCurrent(tableCode, index, version);
+            load.complete(index);
+            return index;
+        } catch (RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(tableCode, load);
+        }
+    }
+
+    private TableMetadataIndex loadTableIndex(String tableCode) {
         TableMetadata table = tableMetadataMapper.selectOne(
                 new LambdaQueryWrapper<TableMetadata>()
                         .eq(TableMetadata::getTableCode, tableCode));
@@ -60,9 +129,66 @@ public class MetadataService {
                         .eq(ColumnMetadata::getTableMetadataId, table.getId())
                         .orderByAsc(ColumnMetadata::getDisplayOrder));
 
-        TableMetadataDTO dto = TableMetadataDTO.from(table, columns);
-        cache.put(tableCode, dto);
-        return dto;
+        return TableMetadataIndex.of(TableMetadataDTO.from(table, columns));
+    }
+
+    /**
+     * 加载期间缓存被清理（版本变化）时不回填，避免旧数据覆盖清理结果
+     */
+    private void cacheIfCurrent(String tableCode, TableMetadataIndex index, long version) {
+        if (configVersion.get() != version) {
+            return;
+        }
+        cache.put(tableCode, index);
+        if (configVersion.get() != version) {
+            cache.remove(tableCode, index);
+        }
+    }
+
+    private static TableMetadataIndex awaitLoad(CompletableFuture<TableMetadataIndex> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 预热全部表元数据：表、列各查询一次，按表并行构建索引
+     * 启动时及全量清理缓存后调用；失败只记录日志，未预热的表仍按需加载
+     *
+     * @return 预热的表数量
+     */
+    public int warmUp() {
+        long start = System.currentTimeMillis();
+        long version = configVersion.get();
+        try {
+            List<TableMetadata> tables = tableMetadataMapper.selectList(null);
+            Map<Long, List<ColumnMetadata>> columnsByTable = new HashMap<>();
+            for (ColumnMetadata column : columnMetadataMapper.selectList(
+                    new LambdaQueryWrapper<ColumnMetadata>()
+                            .orderByAsc(ColumnMetadata::getTableMetadataId)
+                            .orderByAsc(ColumnMetadata::getDisplayOrder))) {
+                columnsByTable.computeIfAbsent(column.getTableMetadataId(), k -> new ArrayList<>()).add(column);
+            }
+
+            Map<String, TableMetadataIndex> loaded = tables.parallelStream()
+                    .filter(table -> StrUtil.isNotBlank(table.getTableCode()))
+                    .collect(Collectors.toConcurrentMap(
+                            TableMetadata::getTableCode,
+                            table -> TableMetadataIndex.of(TableMetadataDTO.from(
+                                    table, columnsByTable.getOrDefault(table.getId(), List.of()))),
+                            (left, right) -> left));
+            loaded.forEach((tableCode, index) -> cacheIfCurrent(tableCode, index, version));
+            log.info("元数据预热完成: {} 张表, 耗时 {} ms", loaded.size(), System.currentTimeMillis() - start);
+            return loaded.size();
+        } catch (Exception e) {
+            log.warn("元数据预热失败: {}", e.getMessage());
+            return 0;
+        }
     }
 
     /**
@@ -98,12 +224,58 @@ public class MetadataService {
         return base.withColumns(columns);
     }
 
+    /**
+     * 获取表元数据（合并权限和已加载的用户列偏好）
+     */
+    public TableMetadataDTO getTableMetadataWithPermission(
+            String tableCode,
+            String gridKey,
+            PagePermission permission,
+            Map<String, ColumnPreference> preferences) {
+        TableMetadataDTO base = getTableMetadata(tableCode);
+        List<ColumnMetadataDTO> columns = applyPermission(base.columns(), permission, gridKey);
+        return base.withColumns(applyUserPreferences(columns, preferences));
+    }
+
+    /**
+     * 清理元数据缓存并递增配置版本
+     * 在事务内调用时提交后再清理一次，避免提交前被并发请求以旧数据回填
+     */
     public void clearCache(String tableCode) {
+        evict(tableCode);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(tableCode);
+                    rewarm(tableCode);
+                }
+            });
+        } else {
+            rewarm(tableCode);
+        }
+    }
+
+    private void evict(String tableCode) {
+        // 先递增版本，清理前已开始的加载不再回填
+        configVersion.incrementAndGet();
         if (tableCode == null) {
             cache.clear();
         } else {
             cache.remove(tableCode);
         }
+        // 组件树中的按钮分组名取自表名，任何元数据变更都重建
+        pageComponentCache.clear();
+        filteredPageComponentCache.clear();
+    }
+
+    /**
+     * 全量清理后由发起变更的请求重新预热，业务请求不再集中未命中
+     */
+    private void rewarm(String tableCode) {
+        if (tableCode == null) {
+            warmUp();
+        }
     }
 
     private List<ColumnMetadataDTO> applyPermission(
@@ -144,6 +316,12 @@ public class MetadataService {
         }
         Map<String, ColumnPreference> preferences = userGridConfigService.getColumnPreferences(userId, pageCode,
                 gridKey);
+        return applyUserPreferences(columns, preferences);
+    }
+
+    private List<ColumnMetadataDTO> applyUserPreferences(
+            List<ColumnMetadataDTO> columns,
+            Map<String, ColumnPreference> preferences) {
         if (preferences.isEmpty()) {
             return columns;
         }
@@ -693,6 +871,21 @@ public class MetadataService {
         }
     }
 
+    /**
+     * 表元数据是否已在缓存中（不查库），用于指标标签等只需判断已知编码的场景
+     */
+    public boolean isCachedTable(String tableCode) {
+        return tableCode != null && cache.containsKey(tableCode);
+    }
+
+    /**
+     * 页面组件树是否已缓存且非空（不查库），未知 pageCode 加载出的空树不算
+     */
+    public boolean isCachedPage(String pageCode) {
+        PageComponentTree tree = pageCode != null ? pageComponentCache.get(pageCode) : null;
+        return tree != null && !tree.roots().isEmpty();
+    }
+
     public boolean isValidTable(String tableCode) {
         return cache.containsKey(tableCode) || tableMetadataMapper.selectCount(
                 new LambdaQueryWrapper<TableMetadata>()
@@ -720,8 +913,57 @@ public class MetadataService {
     
     /**
      * 获取页面组件树（带权限过滤）
+     * 基础树按 pageCode 缓存，按钮过滤结果按 (pageCode, 按钮集合) 缓存，元数据缓存清理时一并失效
      */
     public List<PageComponentDTO> getPageComponents(String pageCode, Set<String> allowedButtons) {
+        long version = configVersion.get();
+        PageComponentTree tree = pageComponentCache.get(pageCode);
+        if (tree != null) {
+            CacheMetrics.hit("page-components");
+        } else {
+            CacheMetrics.miss("page-components");
+            tree = loadPageComponentTree(pageCode);
+            if (configVersion.get() == version) {
+                pageComponentCache.put(pageCode, tree);
+            }
+        }
+        // null 表示不过滤（如 admin 用户或未传入权限），包含 "*" 表示全部权限
+        if (allowedButtons == null || allowedButtons.contains("*")) {
+            return tree.roots();
+        }
+
+        String key = pageCode + '\u0000' + String.join(",", new TreeSet<>(allowedButtons));
+        List<PageComponentDTO> filtered = filteredPageComponentCache.get(key);
+        if (filtered != null) {
+            CacheMetrics.hit("page-components-filtered");
+            return filtered;
+        }
+        CacheMetrics.miss("page-components-filtered");
+        Map<String, String> tableNameMap = tree.tableNameMap();
+        filtered = tree.roots().stream()
+                .map(root -> filterButtonsInTree(root, allowedButtons, tableNameMap))
+                .toList();
+        if (configVersion.get() == version) {
+            if (filteredPageComponentCache.size() >= MAX_FILTERED_PAGE_COMPONENTS) {
+                filteredPageComponentCache.clear();
+            }
+            filteredPageComponentCache.put(key, filtered);
+        }
+        return filtered;
+    }
+
+    private PageComponentDTO filterButtonsInTree(PageComponentDTO node, Set<String> allowedButtons,
+            Map<String, String> tableNameMap) {
+        PageComponentDTO filtered = filterButtonsInComponent(node, allowedButtons, tableNameMap);
+        if (node.children() == null || node.children().isEmpty()) {
+            return filtered;
+        }
+        return filtered.withChildren(node.children().stream()
+                .map(child -> filterButtonsInTree(child, allowedButtons, tableNameMap))
+                .toList());
+    }
+
+    private PageComponentTree loadPageComponentTree(String pageCode) {
         List<PageComponent> components = pageComponentMapper.selectList(
                 new LambdaQueryWrapper<PageComponent>()
                         .eq(PageComponent::getPageCode, pageCode)
@@ -738,21 +980,18 @@ public class MetadataService {
         Map<String, List<PageComponentDTO>> childrenMap = components.stream()
                 .filter(c -> StrUtil.isNotBlank(c.getParentKey()))
                 .map(component -> toDTOWithRules(component, rulesByComponent))
-                .map(dto -> filterButtonsInComponent(dto, allowedButtons, tableNameMap))
                 .collect(Collectors.groupingBy(PageComponentDTO::parentKey));
 
         List<PageComponentDTO> roots = components.stream()
                 .filter(c -> StrUtil.isBlank(c.getParentKey()))
                 .map(component -> toDTOWithRules(component, rulesByComponent))
-                .map(dto -> filterButtonsInComponent(dto, allowedButtons, tableNameMap))
                 .map(dto -> buildTree(dto, childrenMap))
                 .toList();
 
-        if (!roots.isEmpty()) {
-            return roots;
+        if (roots.isEmpty()) {
+            roots = buildImplicitRootTree(pageCode, childrenMap);
         }
-
-        return buildImplicitRootTree(pageCode, childrenMap);
+        return new PageComponentTree(roots, tableNameMap);
     }
     
     /**
@@ -800,11 +1039,6 @@ public class MetadataService {
      * 过滤组件中的按钮（根据用户权限）
      */
     private PageComponentDTO filterButtonsInComponent(PageComponentDTO dto, Set<String> allowedButtons, Map<String, String> tableNameMap) {
-        // null 表示不过滤（如 admin 用户或未传入权限）
-        // 包含 "*" 表示全部权限
-        if (allowedButtons == null || allowedButtons.contains("*")) {
-            return dto;
-        }
         // 空集合表示没有任何按钮权限，需要过滤掉所有按钮
         
         String config = dto.componentConfig();
@@ -1012,6 +1246,39 @@ public class MetadataService {
         return items.stream().map(DictionaryItemDTO::from).toList();
     }
 
+    /**
+     * 批量获取字典项（dictType -> 字典项），类型和字典项各一次查询
+     */
+    public Map<String, List<DictionaryItemDTO>> getDictItems(Collection<String> dictTypes) {
+        if (dictTypes.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        List<DictionaryType> types = dictionaryTypeMapper.selectList(
+                new LambdaQueryWrapper<DictionaryType>()
+                        .in(DictionaryType::getTypeCode, dictTypes));
+        if (types.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<Long, String> typeCodes = new HashMap<>();
+        for (DictionaryType type : types) {
+            typeCodes.put(type.getId(), type.getTypeCode());
+        }
+
+        List<DictionaryItem> items = dictionaryItemMapper.selectList(
+                new LambdaQueryWrapper<DictionaryItem>()
+                        .in(DictionaryItem::getTypeId, typeCodes.keySet())
+                        .orderByAsc(DictionaryItem::getSortOrder));
+
+        Map<String, List<DictionaryItemDTO>> result = new LinkedHashMap<>();
+        for (DictionaryType type : types) {
+            result.put(type.getTypeCode(), new ArrayList<>());
+        }
+        for (DictionaryItem item : items) {
+            result.get(typeCodes.get(item.getTypeId())).add(DictionaryItemDTO.from(item));
+        }
+        return result;
+    }
+
     private String camelToKebab(String camel) {
         StringBuilder sb = new StringBuilder();
         for (char c : camel.toCharArray()) {
@@ -1039,6 +1306,23 @@ public class MetadataService {
         return LookupConfigDTO.from(config);
     }
 
+    /**
+     * 批量获取弹窗选择器配置（lookupCode -> 配置），不存在的编码忽略
+     */
+    public Map<String, LookupConfigDTO> getLookupConfigs(Collection<String> lookupCodes) {
+        if (lookupCodes.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        List<LookupConfig> configs = lookupConfigMapper.selectList(
+                new LambdaQueryWrapper<LookupConfig>()
+                        .in(LookupConfig::getLookupCode, lookupCodes));
+        Map<String, LookupConfigDTO> result = new LinkedHashMap<>();
+        for (LookupConfig config : configs) {
+            result.put(config.getLookupCode(), LookupConfigDTO.from(config));
+        }
+        return result;
+    }
+
     /**
      * 通过页面编码获取关联的主表元数据
      * 查找页面组件中 componentType=GRID 且 componentKey=masterGrid 的组件，获取其 refTableCode
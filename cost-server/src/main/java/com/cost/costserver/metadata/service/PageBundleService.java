@@ -0,0 +1,136 @@
+package com.cost.costserver.metadata.service;
+
+import cn.hutool.core.util.StrUtil;
+import com.cost.costserver.auth.dto.PagePermission;
+import com.cost.costserver.grid.service.UserGridConfigService;
+import com.cost.costserver.metadata.dto.ColumnMetadataDTO;
+import com.cost.costserver.metadata.dto.PageBundleDTO;
+import com.cost.costserver.metadata.dto.PageComponentDTO;
+import com.cost.costserver.metadata.dto.TableMetadataDTO;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * 页面启动包
+ * 组件树、各表格的权限元数据与个人列配置、引用到的字典和弹窗选择器配置一次组装返回，
+ * 页面打开由 8~15 个请求合并为 1 个。元数据和权限取自缓存，列配置、字典、弹窗配置各一次批量查询
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PageBundleService {
+
+    private final MetadataService metadataService;
+    private final UserGridConfigService userGridConfigService;
+    private final ObjectMapper objectMapper;
+
+    public PageBundleDTO getPageBundle(Long userId, String pageCode, PagePermission permission) {
+        return getPageBundle(pageCode, permission, userGridConfigService.getConfigDataByGrid(userId, pageCode));
+    }
+
+    /**
+     * @param configData 用户在该页面下的列配置（gridKey -> configData），调用方已查询时直接传入
+     */
+    public PageBundleDTO getPageBundle(String pageCode, PagePermission permission, Map<String, String> configData) {
+        List<PageComponentDTO> components = metadataService.getPageComponents(pageCode, permission.buttons());
+
+        Map<String, String> gridTables = new LinkedHashMap<>();
+        collectGrids(components, gridTables);
+
+        Map<String, TableMetadataDTO> tables = new LinkedHashMap<>();
+        Map<String, Object> gridConfigs = new LinkedHashMap<>();
+        Set<String> dictTypes = new LinkedHashSet<>();
+        Set<String> lookupCodes = new LinkedHashSet<>();
+        for (Map.Entry<String, String> grid : gridTables.entrySet()) {
+            String gridKey = grid.getKey();
+            String raw = configData.get(gridKey);
+            TableMetadataDTO table;
+            try {
+                table = metadataService.getTableMetadataWithPermission(grid.getValue(), gridKey, permission,
+                        userGridConfigService.toColumnPreferences(raw));
+            } catch (Exception e) {
+                // 单个表格配置错误不影响整个页面，前端对缺失的表格回退为单独加载
+                log.warn("页面 {} 表格 {} 元数据加载失败: {}", pageCode, gridKey, e.getMessage());
+                continue;
+            }
+            tables.put(gridKey, table);
+            if (raw != null) {
+                gridConfigs.put(gridKey, userGridConfigService.parseConfig(raw));
+            }
+            for (ColumnMetadataDTO column : table.columns()) {
+                if (StrUtil.isNotBlank(column.dictType())) {
+                    dictTypes.add(column.dictType());
+                }
+                String lookupCode = lookupCode(column.rulesConfig());
+                if (lookupCode != null) {
+                    lookupCodes.add(lookupCode);
+                }
+            }
+        }
+
+        return new PageBundleDTO(
+                pageCode,
+                components,
+                tables,
+                gridConfigs,
+                metadataService.getDictItems(dictTypes),
+                metadataService.getLookupConfigs(lookupCodes));
+    }
+
+    /**
+     * 收集页面中的表格：GRID/DETAIL_GRID 组件（gridKey = componentKey）和 TABS 组件中配置了 tableCode 的页签（gridKey = tab.key）
+     */
+    private void collectGrids(List<PageComponentDTO> components, Map<String, String> gridTables) {
+        if (components == null) {
+            return;
+        }
+        for (PageComponentDTO component : components) {
+            String type = component.componentType();
+            if (("GRID".equalsIgnoreCase(type) || "DETAIL_GRID".equalsIgnoreCase(type))
+                    && StrUtil.isNotBlank(component.refTableCode())) {
+                gridTables.putIfAbsent(component.componentKey(), component.refTableCode());
+            } else if ("TABS".equalsIgnoreCase(type) && StrUtil.isNotBlank(component.componentConfig())) {
+                collectTabGrids(component, gridTables);
+            }
+            collectGrids(component.children(), gridTables);
+        }
+    }
+
+    private void collectTabGrids(PageComponentDTO component, Map<String, String> gridTables) {
+        try {
+            JsonNode tabs = objectMapper.readTree(component.componentConfig()).get("tabs");
+            if (tabs == null || !tabs.isArray()) {
+                return;
+            }
+            for (JsonNode tab : tabs) {
+                String key = tab.path("key").asText(null);
+                String tableCode = tab.path("tableCode").asText(null);
+                if (StrUtil.isNotBlank(key) && StrUtil.isNotBlank(tableCode)) {
+                    gridTables.putIfAbsent(key, tableCode);
+                }
+            }
+        } catch (Exception e) {
+            log.warn("解析页签配置失败, componentKey={}: {}", component.componentKey(), e.getMessage());
+        }
+    }
+
+    /**
+     * 列规则中的 lookup.code（ColumnMetadataDTO 已将 cellEditorParams.lookupCode 合并为该格式）
+     */
+    private String lookupCode(String rulesConfig) {
+        if (rulesConfig == null || !rulesConfig.contains("lookup")) {
+            return null;
+        }
+        try {
+            String code = objectMapper.readTree(rulesConfig).path("lookup").path("code").asText(null);
+            return StrUtil.isNotBlank(code) ? code : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
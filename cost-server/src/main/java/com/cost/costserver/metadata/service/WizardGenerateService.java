@@ -2,6 +2,8 @@ package com.cost.costserver.metadata.service;
 
 import cn.hutool.core.util.StrUtil;
 import com.cost.costserver.auth.entity.Resource;
+import com.cost.costserver.auth.service.MenuService;
+import com.cost.costserver.auth.service.PermissionService;
 import com.cost.costserver.common.BusinessException;
 import com.cost.costserver.config.AppWebSocketHandler;
 import com.cost.costserver.dynamic.mapper.DynamicMapper;
@@ -29,6 +31,8 @@ public class WizardGenerateService {
     private final MetaConfigService metaConfigService;
     private final DynamicMapper dynamicMapper;
     private final MetadataService metadataService;
+    private final PermissionService permissionService;
+    private final MenuService menuService;
     private final AppWebSocketHandler appWebSocketHandler;
     private final ObjectMapper objectMapper;
 
@@ -234,6 +238,7 @@ public class WizardGenerateService {
         String sql = "INSERT INTO T_COST_ROLE_PAGE (ID, ROLE_ID, PAGE_CODE, BUTTON_POLICY, COLUMN_POLICY, ROW_POLICY) " +
                 "VALUES (SEQ_COST_ROLE_PAGE.NEXTVAL, " + roleId + ", '" + pageCode.replace("'", "''") + "', '[\"*\"]', NULL, NULL)";
         dynamicMapper.insert(sql);
+        permissionService.evictAll();
     }
 
     /**
@@ -256,6 +261,7 @@ public class WizardGenerateService {
         dynamicMapper.update("DELETE FROM T_COST_PAGE_COMPONENT WHERE PAGE_CODE = '" + safe + "'");
         // 4. 删除角色页面权限
         dynamicMapper.update("DELETE FROM T_COST_ROLE_PAGE WHERE PAGE_CODE = '" + safe + "'");
+        permissionService.evictAll();
         // 5. 删除关联的表元数据和列元数据（仅删除未被其他页面引用的表）
         for (Map<String, Object> comp : comps) {
             Object tc = comp.get("REF_TABLE_CODE");
@@ -284,6 +290,7 @@ public class WizardGenerateService {
         }
         // 6. 删除资源
         dynamicMapper.update("DELETE FROM T_COST_RESOURCE WHERE PAGE_CODE = '" + safe + "'");
+        menuService.evictAll();
 
         metadataService.clearCache(null);
         log.info("级联删除页面 {} 完成", pageCode);
@@ -0,0 +1,34 @@
+package com.cost.costserver.monitor;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 应用内缓存命中统计：cost.cache.requests{cache, result=hit|miss}
+ * 使用全局注册表，便于在各服务中直接打点
+ */
+public final class CacheMetrics {
+
+    private static final Map<String, Counter> HITS = new ConcurrentHashMap<>();
+    private static final Map<String, Counter> MISSES = new ConcurrentHashMap<>();
+
+    private CacheMetrics() {
+    }
+
+    public static void hit(String cache) {
+        HITS.computeIfAbsent(cache, c -> counter(c, "hit")).increment();
+    }
+
+    public static void miss(String cache) {
+        MISSES.computeIfAbsent(cache, c -> counter(c, "miss")).increment();
+    }
+
+    private static Counter counter(String cache, String result) {
+        return Counter.builder("cost.cache.requests")
+                .tags("cache", cache, "result", result)
+                .register(Metrics.globalRegistry);
+    }
+}
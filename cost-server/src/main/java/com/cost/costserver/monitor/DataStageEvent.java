@@ -0,0 +1,74 @@
+package com.cost.costserver.monitor;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 动态数据管线阶段事件（JFR）
+ * operation 为 query/save/export/action，stage 为阶段名（TOTAL 表示整个操作），
+ * 导出事件的 tableCode 记录导出编码，动作事件的 tableCode 记录 actionCode、stage 为执行器类型。
+ * 未开启录制或短于阈值时 commit 直接丢弃，常驻开销可忽略
+ */
+@Name(DataStageEvent.NAME)
+@Label("Data Stage")
+@Category({"Cost Server", "Data Pipeline"})
+@Description("动态查询/保存/导出/动作执行的阶段耗时")
+@StackTrace(false)
+public class DataStageEvent extends Event {
+
+    public static final String NAME = "com.cost.DataStage";
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Stage")
+    String stage;
+
+    @Label("Table Code")
+    String tableCode;
+
+    @Label("Page Code")
+    String pageCode;
+
+    @Label("Rows")
+    long rowCount;
+
+    public static DataStageEvent begin(String operation, String stage, String tableCode, String pageCode) {
+        DataStageEvent event = new DataStageEvent();
+        event.operation = operation;
+        event.stage = stage;
+        event.tableCode = tableCode;
+        event.pageCode = pageCode;
+        event.begin();
+        return event;
+    }
+
+    /**
+     * 记录本阶段处理的行数
+     */
+    public DataStageEvent rows(long rows) {
+        this.rowCount = rows;
+        return this;
+    }
+
+    /**
+     * 补充标签（阶段开始时尚不知道表/页面的场景，如响应序列化）
+     */
+    public DataStageEvent tags(String tableCode, String pageCode) {
+        this.tableCode = tableCode;
+        this.pageCode = pageCode;
+        return this;
+    }
+
+    /**
+     * 提交当前阶段，并以相同的 operation/tableCode/pageCode 开始下一阶段
+     */
+    public DataStageEvent next(String nextStage) {
+        commit();
+        return begin(operation, nextStage, tableCode, pageCode);
+    }
+}
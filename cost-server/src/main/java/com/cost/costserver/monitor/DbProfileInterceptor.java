@@ -0,0 +1,92 @@
+package com.cost.costserver.monitor;
+
+import com.cost.costserver.config.DbProfileProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 请求级数据库往返剖析
+ * 统计每个请求的 SQL 条数、DB 总耗时和重复指纹：
+ * 超出条数预算或出现疑似 N+1（同一指纹重复执行）时告警，正常请求按比例抽样记录
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DbProfileInterceptor implements HandlerInterceptor {
+
+    private static final int MAX_LOGGED_FINGERPRINTS = 5;
+
+    private final DbProfileProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (properties.isEnabled()) {
+            RequestProfile.start();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        RequestProfile profile = RequestProfile.end();
+        if (profile == null) {
+            return;
+        }
+        try {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+            int budget = properties.budgetFor(uri);
+            int count = profile.getSqlCount();
+            List<Map.Entry<String, Integer>> repeated = profile.repeatedFingerprints(properties.getRepeatThreshold());
+
+            DistributionSummary.builder("cost.db.statements")
+                    .tag("uri", uri)
+                    .register(meterRegistry)
+                    .record(count);
+
+            boolean overBudget = count > budget;
+            if (overBudget || !repeated.isEmpty()) {
+                Counter.builder("cost.db.budget.exceeded")
+                        .tags("uri", uri, "reason", overBudget ? "statements" : "repeated")
+                        .register(meterRegistry)
+                        .increment();
+                log.warn("[DB PROFILE] {} {} | {} 条 SQL（预算 {}）| DB {}ms | 重复指纹: {}",
+                        request.getMethod(), request.getRequestURI(), count, budget,
+                        profile.phase(RequestProfile.Phase.SQL) / 1_000_000, describe(repeated));
+            } else if (properties.getSampleRate() > 0
+                    && ThreadLocalRandom.current().nextDouble() < properties.getSampleRate()) {
+                log.info("[DB PROFILE] {} {} | {} 条 SQL | DB {}ms | 最大重复 {}",
+                        request.getMethod(), request.getRequestURI(), count,
+                        profile.phase(RequestProfile.Phase.SQL) / 1_000_000, profile.maxRepeat());
+            }
+        } catch (Exception e) {
+            log.debug("请求剖析统计失败: {}", e.getMessage());
+        }
+    }
+
+    private String describe(List<Map.Entry<String, Integer>> repeated) {
+        if (repeated.isEmpty()) {
+            return "无";
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < repeated.size() && i < MAX_LOGGED_FINGERPRINTS; i++) {
+            Map.Entry<String, Integer> e = repeated.get(i);
+            String fingerprint = e.getKey().length() > 200 ? e.getKey().substring(0, 200) + "..." : e.getKey();
+            sb.append("\n  x").append(e.getValue()).append(' ').append(fingerprint);
+        }
+        return sb.toString();
+    }
+}
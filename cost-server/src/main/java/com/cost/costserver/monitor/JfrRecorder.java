@@ -0,0 +1,148 @@
+package com.cost.costserver.monitor;
+
+import cn.hutool.core.util.StrUtil;
+import com.cost.costserver.common.BusinessException;
+import com.cost.costserver.config.JfrProperties;
+import com.cost.costserver.log.sql.LatencyHistogram;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 常驻 JFR 录制
+ * 1. 以 JDK 内置配置开启流式录制（app.jfr.enabled 控制启动时是否开启，也可由管理端随时启停），
+ *    按 maxAge/maxSize 滚动保留最近窗口，供管理端 dump
+ * 2. 订阅 DataStageEvent，按 operation/stage 汇总耗时分布，无需 JMC 即可查看各阶段占比
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class JfrRecorder {
+
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final JfrProperties properties;
+    private final Map<String, StageStats> stages = new ConcurrentHashMap<>();
+    private volatile RecordingStream stream;
+
+    public record StageReport(String operation, String stage, long count, long rows,
+                              double p50Ms, double p99Ms, double maxMs) {
+    }
+
+    private static class StageStats {
+        final String operation;
+        final String stage;
+        final LongAdder count = new LongAdder();
+        final LongAdder rows = new LongAdder();
+        final LatencyHistogram latency = new LatencyHistogram();
+
+        StageStats(String operation, String stage) {
+            this.operation = operation;
+            this.stage = stage;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        if (properties.isEnabled()) {
+            start();
+        }
+    }
+
+    /**
+     * 开启录制（已开启时忽略）
+     */
+    public synchronized void start() {
+        if (stream != null) {
+            return;
+        }
+        try {
+            RecordingStream recording = StrUtil.isBlank(properties.getSettings()) || "none".equals(properties.getSettings())
+                    ? new RecordingStream()
+                    : new RecordingStream(Configuration.getConfiguration(properties.getSettings()));
+            recording.setMaxAge(properties.getMaxAge());
+            recording.setMaxSize(properties.getMaxSize().toBytes());
+            recording.enable(DataStageEvent.NAME).withThreshold(properties.getStageThreshold());
+            recording.onEvent(DataStageEvent.NAME, this::onStage);
+            recording.startAsync();
+            stream = recording;
+            log.info("JFR 常驻录制已开启: settings={}, maxAge={}, stageThreshold={}",
+                    properties.getSettings(), properties.getMaxAge(), properties.getStageThreshold());
+        } catch (Exception e) {
+            log.warn("JFR 常驻录制启动失败: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        RecordingStream recording = stream;
+        stream = null;
+        if (recording != null) {
+            recording.close();
+            log.info("JFR 常驻录制已关闭");
+        }
+    }
+
+    public boolean isRunning() {
+        return stream != null;
+    }
+
+    private void onStage(RecordedEvent event) {
+        String operation = event.getString("operation");
+        String stage = event.getString("stage");
+        StageStats entry = stages.computeIfAbsent(operation + "/" + stage, k -> new StageStats(operation, stage));
+        entry.count.increment();
+        entry.rows.add(event.getLong("rowCount"));
+        entry.latency.record(event.getDuration().toNanos());
+    }
+
+    /**
+     * 将保留窗口内的录制写入临时文件，调用方负责删除
+     */
+    public Path dump() throws IOException {
+        RecordingStream recording = stream;
+        if (recording == null) {
+            throw new BusinessException(400, "JFR 录制未开启");
+        }
+        Path dir = Path.of(StrUtil.isNotBlank(properties.getDumpDir())
+                ? properties.getDumpDir() : System.getProperty("java.io.tmpdir"));
+        Files.createDirectories(dir);
+        Path file = dir.resolve("cost-server-" + LocalDateTime.now().format(FILE_TIME) + ".jfr");
+        recording.dump(file);
+        return file;
+    }
+
+    /**
+     * 各阶段耗时汇总（按 p99 倒序），统计的是超过阈值而落盘的事件
+     */
+    public List<StageReport> stageReports() {
+        List<StageReport> reports = new ArrayList<>(stages.size());
+        for (StageStats entry : stages.values()) {
+            reports.add(new StageReport(entry.operation, entry.stage, entry.count.sum(), entry.rows.sum(),
+                    entry.latency.percentileMs(0.5), entry.latency.percentileMs(0.99), entry.latency.maxMs()));
+        }
+        reports.sort(Comparator.comparingDouble(StageReport::p99Ms).reversed());
+        return reports;
+    }
+
+    public void resetStageReports() {
+        stages.clear();
+    }
+}
@@ -0,0 +1,63 @@
+package com.cost.costserver.monitor;
+
+import com.alibaba.druid.pool.DruidDataSource;
+import com.cost.costserver.log.AsyncBatchWriter;
+import com.cost.costserver.log.AuditLogWriter;
+import com.cost.costserver.log.OperationLogWriter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * 自定义指标：Druid 连接池、日志写入队列
+ * Spring 任务线程池（@Async）的队列指标由 Actuator 自动提供（executor.*）
+ */
+@Configuration
+public class MonitorMetricsConfig {
+
+    @Bean
+    public MeterBinder druidPoolMetrics(DataSource dataSource) {
+        return registry -> {
+            if (!(dataSource instanceof DruidDataSource druid)) {
+                return;
+            }
+            Gauge.builder("druid.pool.active", druid, DruidDataSource::getActiveCount)
+                    .description("正在使用的连接数").register(registry);
+            Gauge.builder("druid.pool.idle", druid, DruidDataSource::getPoolingCount)
+                    .description("空闲连接数").register(registry);
+            Gauge.builder("druid.pool.max", druid, DruidDataSource::getMaxActive)
+                    .description("最大连接数").register(registry);
+            Gauge.builder("druid.pool.waiting", druid, DruidDataSource::getWaitThreadCount)
+                    .description("等待获取连接的线程数").register(registry);
+            FunctionCounter.builder("druid.pool.wait.count", druid, DruidDataSource::getNotEmptyWaitCount)
+                    .description("获取连接时发生等待的次数").register(registry);
+            FunctionCounter.builder("druid.pool.wait.time", druid, d -> d.getNotEmptyWaitMillis() / 1000.0)
+                    .baseUnit("seconds").description("获取连接累计等待时间").register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder logWriterMetrics(AuditLogWriter auditLogWriter, OperationLogWriter operationLogWriter) {
+        return registry -> {
+            bindWriter(registry, "audit-log", auditLogWriter);
+            bindWriter(registry, "operation-log", operationLogWriter);
+        };
+    }
+
+    private void bindWriter(io.micrometer.core.instrument.MeterRegistry registry, String name, AsyncBatchWriter<?> writer) {
+        Gauge.builder("cost.log.writer.queue.depth", writer, w -> w.getStats().queueDepth())
+                .tag("writer", name).register(registry);
+        FunctionCounter.builder("cost.log.writer.written", writer, w -> w.getStats().written())
+                .tag("writer", name).register(registry);
+        FunctionCounter.builder("cost.log.writer.dropped", writer, w -> w.getStats().dropped())
+                .tag("writer", name).register(registry);
+        FunctionCounter.builder("cost.log.writer.failed", writer, w -> w.getStats().failed())
+                .tag("writer", name).register(registry);
+        Gauge.builder("cost.log.writer.flush.last", writer, w -> w.getStats().lastFlushMs())
+                .tag("writer", name).baseUnit("milliseconds").register(registry);
+    }
+}
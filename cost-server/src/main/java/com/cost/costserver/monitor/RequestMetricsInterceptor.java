@@ -0,0 +1,83 @@
+package com.cost.costserver.monitor;
+
+import com.cost.costserver.log.sql.SqlTagContext;
+import com.cost.costserver.metadata.service.MetadataService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * 动态数据接口的请求耗时指标
+ * cost.data.request：整体耗时；cost.data.request.phase：按阶段拆分（permission/metadata/sql/post_process/serialize/other）
+ * 同时提交响应序列化阶段的 JFR 事件（DataStageEvent response/SERIALIZE）
+ * RequestProfile 的生命周期由 DbProfileInterceptor 管理，本拦截器需注册在其之后
+ * tableCode/pageCode 来自请求参数，只有元数据缓存中已知的编码作为标签值，其余归为 other，避免时间序列无限增长
+ */
+@Component
+@RequiredArgsConstructor
+public class RequestMetricsInterceptor implements HandlerInterceptor {
+
+    private static final String UNKNOWN_TAG = "other";
+
+    private final MeterRegistry meterRegistry;
+    private final MetadataService metadataService;
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        RequestProfile profile = RequestProfile.current();
+        if (profile == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        long total = now - profile.getStartNanos();
+        long serialize = profile.getBodyWriteNanos() > 0 ? now - profile.getBodyWriteNanos() : 0;
+
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        SqlTagContext.Tags tags = SqlTagContext.get();
+        String tableCode = tagValue(tags != null ? tags.tableCode() : null, metadataService::isCachedTable);
+        String pageCode = tagValue(tags != null ? tags.pageCode() : null, metadataService::isCachedPage);
+        String outcome = ex != null || response.getStatus() >= 500 ? "error" : "success";
+        if (profile.getSerializeEvent() != null) {
+            profile.getSerializeEvent().tags(tableCode, pageCode).commit();
+        }
+
+        Timer.builder("cost.data.request")
+                .tags("uri", uri, "tableCode", tableCode, "pageCode", pageCode, "outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(total, TimeUnit.NANOSECONDS);
+
+        long accounted = serialize;
+        for (RequestProfile.Phase phase : RequestProfile.Phase.values()) {
+            long nanos = phase == RequestProfile.Phase.SERIALIZE ? serialize : profile.phase(phase);
+            if (phase != RequestProfile.Phase.SERIALIZE) {
+                accounted += nanos;
+            }
+            recordPhase(uri, tableCode, pageCode, phase.name().toLowerCase(), nanos);
+        }
+        recordPhase(uri, tableCode, pageCode, "other", Math.max(0, total - accounted));
+    }
+
+    private static String tagValue(String code, Predicate<String> known) {
+        if (code == null) {
+            return "none";
+        }
+        return known.test(code) ? code : UNKNOWN_TAG;
+    }
+
+    private void recordPhase(String uri, String tableCode, String pageCode, String phase, long nanos) {
+        Timer.builder("cost.data.request.phase")
+                .tags("uri", uri, "tableCode", tableCode, "pageCode", pageCode, "phase", phase)
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,137 @@
+package com.cost.costserver.monitor;
+
+import lombok.Getter;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 请求级性能剖析（线程绑定）
+ * 记录各阶段耗时、SQL 条数及每个指纹的执行次数，
+ * 由 DbProfileInterceptor 开启/结束，RequestMetricsInterceptor 汇总为指标
+ */
+@Getter
+public class RequestProfile {
+
+    /**
+     * 请求阶段：SQL 为拦截器统计的语句执行耗时，其余为对应代码段的墙钟时间减去其中执行的 SQL 耗时
+     */
+    public enum Phase {
+        PERMISSION, METADATA, SQL, POST_PROCESS, SERIALIZE
+    }
+
+    private static final ThreadLocal<RequestProfile> CONTEXT = new ThreadLocal<>();
+
+    private final long startNanos = System.nanoTime();
+    private final long[] phaseNanos = new long[Phase.values().length];
+    private int sqlCount;
+    /**
+     * 上次 mark/lap 时的 SQL 累计耗时，用于从分段墙钟时间中扣除段内 SQL
+     */
+    private long sqlNanosAtMark;
+    private final Map<String, Integer> fingerprintCounts = new HashMap<>();
+    private long bodyWriteNanos;
+    private DataStageEvent serializeEvent;
+
+    public static RequestProfile start() {
+        RequestProfile profile = new RequestProfile();
+        CONTEXT.set(profile);
+        return profile;
+    }
+
+    public static RequestProfile current() {
+        return CONTEXT.get();
+    }
+
+    public static RequestProfile end() {
+        RequestProfile profile = CONTEXT.get();
+        CONTEXT.remove();
+        return profile;
+    }
+
+    /**
+     * 累加阶段耗时（无活跃请求时忽略）
+     */
+    public static void addPhase(Phase phase, long nanos) {
+        RequestProfile profile = CONTEXT.get();
+        if (profile != null) {
+            profile.phaseNanos[phase.ordinal()] += nanos;
+        }
+    }
+
+    /**
+     * 开始一个分段，返回起点供 lap 使用
+     */
+    public static long mark() {
+        RequestProfile profile = CONTEXT.get();
+        if (profile != null) {
+            profile.sqlNanosAtMark = profile.phase(Phase.SQL);
+        }
+        return System.nanoTime();
+    }
+
+    /**
+     * 将 [start, now) 扣除段内 SQL 耗时后计入阶段，返回 now 便于连续分段
+     * start 须来自 mark 或上一次 lap，段内 SQL 已计入 SQL 阶段，不再重复计算
+     */
+    public static long lap(Phase phase, long start) {
+        long now = System.nanoTime();
+        RequestProfile profile = CONTEXT.get();
+        if (profile != null) {
+            long sql = profile.phase(Phase.SQL);
+            profile.phaseNanos[phase.ordinal()] += Math.max(0, now - start - (sql - profile.sqlNanosAtMark));
+            profile.sqlNanosAtMark = sql;
+        }
+        return now;
+    }
+
+    /**
+     * 记录一条 SQL 执行
+     */
+    public static void recordSql(String fingerprint, long nanos) {
+        RequestProfile profile = CONTEXT.get();
+        if (profile != null) {
+            profile.sqlCount++;
+            profile.phaseNanos[Phase.SQL.ordinal()] += nanos;
+            profile.fingerprintCounts.merge(fingerprint, 1, Integer::sum);
+        }
+    }
+
+    /**
+     * 标记开始写响应体（之后的耗时计入序列化阶段）
+     */
+    public static void markBodyWrite() {
+        RequestProfile profile = CONTEXT.get();
+        if (profile != null && profile.bodyWriteNanos == 0) {
+            profile.bodyWriteNanos = System.nanoTime();
+            profile.serializeEvent = DataStageEvent.begin("response", "SERIALIZE", null, null);
+        }
+    }
+
+    public long phase(Phase phase) {
+        return phaseNanos[phase.ordinal()];
+    }
+
+    /**
+     * 重复执行次数达到阈值的指纹（按次数倒序）
+     */
+    public List<Map.Entry<String, Integer>> repeatedFingerprints(int threshold) {
+        return fingerprintCounts.entrySet().stream()
+                .filter(e -> e.getValue() >= threshold)
+                .sorted(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder()))
+                .toList();
+    }
+
+    /**
+     * 单个指纹的最大重复次数
+     */
+    public int maxRepeat() {
+        int max = 0;
+        for (int count : fingerprintCounts.values()) {
+            max = Math.max(max, count);
+        }
+        return max;
+    }
+}
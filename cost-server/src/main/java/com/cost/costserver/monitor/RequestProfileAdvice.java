@@ -0,0 +1,44 @@
+package com.cost.costserver.monitor;
+
+import com.cost.costserver.config.DbProfileProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * 响应体写出前的剖析处理
+ * 1. 打点序列化开始时间，用于拆分序列化阶段耗时
+ * 2. 非生产环境通过响应头输出本次请求的 DB 统计（X-Db-Statements / X-Db-Time-Ms / X-Db-Max-Repeat）
+ */
+@RestControllerAdvice
+@RequiredArgsConstructor
+public class RequestProfileAdvice implements ResponseBodyAdvice<Object> {
+
+    private final DbProfileProperties properties;
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        RequestProfile.markBodyWrite();
+        RequestProfile profile = RequestProfile.current();
+        if (profile != null && properties.isResponseHeaders()) {
+            HttpHeaders headers = response.getHeaders();
+            headers.set("X-Db-Statements", String.valueOf(profile.getSqlCount()));
+            headers.set("X-Db-Time-Ms", String.valueOf(profile.phase(RequestProfile.Phase.SQL) / 1_000_000));
+            headers.set("X-Db-Max-Repeat", String.valueOf(profile.maxRepeat()));
+        }
+        return body;
+    }
+}
@@ -609,6 +609,22 @@ CREATE TABLE T_COST_OPERATION_LOG_DETAIL (
   CONSTRAINT FK_LOG_DETAIL_LOG FOREIGN KEY (LOG_ID) REFERENCES T_COST_OPERATION_LOG (ID)
 );
 
+-- 单据复制 ID 映射（会话级临时表，提交后自动清空）
+CREATE GLOBAL TEMPORARY TABLE T_COST_CLONE_ID_MAP (
+  TABLE_CODE VARCHAR2(64) NOT NULL,
+  OLD_ID     NUMBER(19) NOT NULL,
+  NEW_ID     NUMBER(19) NOT NULL
+) ON COMMIT DELETE ROWS;
+CREATE INDEX IDX_CLONE_ID_MAP ON T_COST_CLONE_ID_MAP (TABLE_CODE, OLD_ID);
+
+-- 物化行权限键集（mode=materialized 的行权限，按键集编号 + TTL 由应用刷新）
+CREATE TABLE T_COST_ROW_PERM_KEY (
+  SET_KEY     VARCHAR2(64) NOT NULL,
+  KEY_VALUE   VARCHAR2(200) NOT NULL,
+  CREATE_TIME DATE DEFAULT SYSDATE NOT NULL
+);
+CREATE INDEX IDX_ROW_PERM_KEY ON T_COST_ROW_PERM_KEY (SET_KEY, KEY_VALUE);
+
 -- ============================================================
 -- 15. 成品发运单（WMS）
 -- ============================================================
@@ -0,0 +1,21 @@
+-- 单据复制 ID 映射临时表
+-- 服务端复制（/api/data/{tableCode}/{id}/clone）逐层 INSERT ... SELECT 时记录新旧 ID 对应关系。
+
+DECLARE
+  V_COUNT NUMBER;
+BEGIN
+  SELECT COUNT(1)
+    INTO V_COUNT
+    FROM USER_TABLES
+   WHERE TABLE_NAME = 'T_COST_CLONE_ID_MAP';
+
+  IF V_COUNT = 0 THEN
+    EXECUTE IMMEDIATE 'CREATE GLOBAL TEMPORARY TABLE T_COST_CLONE_ID_MAP (
+      TABLE_CODE VARCHAR2(64) NOT NULL,
+      OLD_ID     NUMBER(19) NOT NULL,
+      NEW_ID     NUMBER(19) NOT NULL
+    ) ON COMMIT DELETE ROWS';
+    EXECUTE IMMEDIATE 'CREATE INDEX IDX_CLONE_ID_MAP ON T_COST_CLONE_ID_MAP (TABLE_CODE, OLD_ID)';
+  END IF;
+END;
+/
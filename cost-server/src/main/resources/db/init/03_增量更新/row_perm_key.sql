@@ -0,0 +1,22 @@
+-- 物化行权限键集表
+-- ROW_POLICY 为 {"mode":"materialized","column":...,"keySql":...} 时，键集按 TTL 物化到此表，
+-- 网格查询以 column IN (SELECT KEY_VALUE FROM T_COST_ROW_PERM_KEY WHERE SET_KEY = ?) 过滤。
+
+DECLARE
+  V_COUNT NUMBER;
+BEGIN
+  SELECT COUNT(1)
+    INTO V_COUNT
+    FROM USER_TABLES
+   WHERE TABLE_NAME = 'T_COST_ROW_PERM_KEY';
+
+  IF V_COUNT = 0 THEN
+    EXECUTE IMMEDIATE 'CREATE TABLE T_COST_ROW_PERM_KEY (
+      SET_KEY     VARCHAR2(64) NOT NULL,
+      KEY_VALUE   VARCHAR2(200) NOT NULL,
+      CREATE_TIME DATE DEFAULT SYSDATE NOT NULL
+    )';
+    EXECUTE IMMEDIATE 'CREATE INDEX IDX_ROW_PERM_KEY ON T_COST_ROW_PERM_KEY (SET_KEY, KEY_VALUE)';
+  END IF;
+END;
+/
@@ -0,0 +1,69 @@
+package com.cost.costserver.auth.service;
+
+import com.cost.costserver.auth.dto.UserRoute;
+import com.cost.costserver.auth.entity.Resource;
+import com.cost.costserver.auth.mapper.ResourceMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class MenuServiceTest {
+
+    private final ResourceMapper resourceMapper = mock(ResourceMapper.class);
+    private final PermissionService permissionService = mock(PermissionService.class);
+    private final MenuService service = new MenuService(resourceMapper, permissionService);
+
+    @BeforeEach
+    void setUp() {
+        UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(1001L, null, List.of());
+        auth.setDetails("zhangsan");
+        SecurityContextHolder.getContext().setAuthentication(auth);
+        when(resourceMapper.selectList(any())).thenReturn(List.of(
+                resource(1L, null, "DIRECTORY", "cost"),
+                resource(2L, 1L, "PAGE", "cost-goods"),
+                resource(3L, 1L, "PAGE", "cost-price")));
+    }
+
+    @AfterEach
+    void logout() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void users_with_same_pages_share_route_tree_until_evicted() {
+        when(permissionService.getPageCodes(1001L)).thenReturn(Set.of("cost-goods"));
+        when(permissionService.getPageCodes(1002L)).thenReturn(Set.of("cost-goods"));
+        when(permissionService.getPageCodes(1003L)).thenReturn(Set.of("cost-goods", "cost-price"));
+
+        UserRoute first = service.getUserRoutes(1001L);
+
+        assertThat(service.getUserRoutes(1002L)).isSameAs(first);
+        assertThat(first.routes().get(0).getChildren()).extracting(r -> r.getMeta().getPageCode())
+                .containsExactly("cost-goods");
+        assertThat(service.getUserRoutes(1003L).routes().get(0).getChildren()).hasSize(2);
+        verify(resourceMapper, times(2)).selectList(any());
+
+        service.evictAll();
+        assertThat(service.getUserRoutes(1001L)).isNotSameAs(first);
+        verify(resourceMapper, times(3)).selectList(any());
+    }
+
+    private Resource resource(Long id, Long parentId, String type, String pageCode) {
+        Resource resource = new Resource();
+        resource.setId(id);
+        resource.setParentId(parentId);
+        resource.setResourceType(type);
+        resource.setPageCode(pageCode);
+        resource.setRoute(parentId == null ? null : "/dynamic/" + pageCode);
+        return resource;
+    }
+}
@@ -0,0 +1,108 @@
+package com.cost.costserver.auth.service;
+
+import com.cost.costserver.auth.dto.PagePermission;
+import com.cost.costserver.auth.dto.RowFilter;
+import com.cost.costserver.auth.entity.RolePage;
+import com.cost.costserver.auth.mapper.RolePageMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class PermissionServiceTest {
+
+    private final RolePageMapper rolePageMapper = mock(RolePageMapper.class);
+    private final PermissionService service = new PermissionService(rolePageMapper);
+
+    @BeforeEach
+    void login() {
+        UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(1001L, null, List.of());
+        auth.setDetails("zhangsan");
+        SecurityContextHolder.getContext().setAuthentication(auth);
+    }
+
+    @AfterEach
+    void logout() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void compiles_roles_once_and_reloads_after_eviction() {
+        when(rolePageMapper.selectByUserId(1001L)).thenReturn(List.of(
+                rolePage(2L, "cost-goods", "[\"add\"]", "{\"GOODS_NAME\":{\"visible\":false,\"editable\":false}}",
+                        "CREATE_BY = ${username}"),
+                rolePage(1L, "cost-goods", "[\"grid:edit\"]", "{\"GOODS_NAME\":{\"visible\":true,\"editable\":false}}",
+                        "{\"mode\":\"visual\",\"sql\":\"DEPT_ID = ${userId}\"}")));
+
+        PagePermission permission = service.getPagePermission(1001L, "cost-goods");
+        service.getPagePermission(1001L, "cost-goods");
+
+        verify(rolePageMapper, times(1)).selectByUserId(1001L);
+        assertThat(permission.buttons()).contains("add", "grid:edit", "edit");
+        assertThat(permission.getColumnPermission(null, "GOODS_NAME").visible()).isTrue();
+        assertThat(permission.getColumnPermission(null, "GOODS_NAME").editable()).isFalse();
+        assertThat(permission.rowFilter().sql()).isEqualTo("(DEPT_ID = ?) OR (CREATE_BY = ?)");
+        assertThat(permission.rowFilter().bindValues()).containsExactly(1001L, "zhangsan");
+        assertThat(service.getPagePermission(1001L, "cost-price")).isNull();
+
+        service.evictUser(1001L);
+        service.getPagePermission(1001L, "cost-goods");
+        service.evictAll();
+        service.buildUserPermissionContext(1001L, "zhangsan", List.of("ADMIN"));
+
+        verify(rolePageMapper, times(3)).selectByUserId(1001L);
+    }
+
+    @Test
+    void users_with_same_roles_share_one_row_filter() {
+        RolePage policy = rolePage(1L, "cost-goods", "[\"*\"]", null, "CREATE_BY = ${username}");
+        when(rolePageMapper.selectByUserId(1001L)).thenReturn(List.of(policy));
+        when(rolePageMapper.selectByUserId(1002L)).thenReturn(List.of(policy));
+
+        assertThat(service.getPagePermission(1002L, "cost-goods").rowFilter())
+                .isSameAs(service.getPagePermission(1001L, "cost-goods").rowFilter());
+    }
+
+    @Test
+    void placeholders_inside_string_literals_become_binds() {
+        RowFilter filter = service.parseRowFilter("OWNER = '${username}' OR REMARK LIKE '%${username}%' OR ID = '${unknown}'");
+
+        assertThat(filter.sql()).isEqualTo("OWNER = ? OR REMARK LIKE '%' || ? || '%' OR ID = '${unknown}'");
+        assertThat(filter.bindValues()).containsExactly("zhangsan", "zhangsan");
+    }
+
+    @Test
+    void materialized_policy_becomes_key_set_semi_join() {
+        RowFilter filter = service.parseRowFilter("{\"mode\":\"materialized\",\"column\":\"dept_id\","
+                + "\"keySql\":\"SELECT DEPT_ID FROM T_DEPT_USER WHERE USER_ID = ${userId}\",\"ttlSeconds\":60}");
+
+        assertThat(filter.sql()).isEqualTo("DEPT_ID IN (SELECT KEY_VALUE FROM T_COST_ROW_PERM_KEY WHERE SET_KEY = ?)");
+        assertThat(filter.params()).containsExactly(RowFilter.KEY_SET);
+        assertThat(filter.keySets().get(0).query().sql()).isEqualTo("SELECT DEPT_ID FROM T_DEPT_USER WHERE USER_ID = ?");
+        assertThat(filter.bindValues(keySet -> "k1")).containsExactly("k1");
+
+        RowFilter invalid = service.parseRowFilter("{\"mode\":\"materialized\",\"column\":\"DEPT_ID\",\"ttlSeconds\":60}");
+        assertThat(invalid.sql()).isEqualTo("1 = 0");
+
+        RowFilter twoColumns = service.parseRowFilter("{\"mode\":\"materialized\",\"column\":\"DEPT_ID\","
+                + "\"keySql\":\"SELECT DEPT_ID, USER_ID FROM T_DEPT_USER\",\"sql\":\"OWNER = '${username}'\"}");
+        assertThat(twoColumns.keySets()).isEmpty();
+        assertThat(twoColumns.sql()).isEqualTo("OWNER = ?");
+    }
+
+    private RolePage rolePage(Long roleId, String pageCode, String buttons, String columns, String rows) {
+        RolePage rolePage = new RolePage();
+        rolePage.setRoleId(roleId);
+        rolePage.setPageCode(pageCode);
+        rolePage.setButtonPolicy(buttons);
+        rolePage.setColumnPolicy(columns);
+        rolePage.setRowPolicy(rows);
+        return rolePage;
+    }
+}
@@ -0,0 +1,54 @@
+package com.cost.costserver.auth.service;
+
+import com.cost.costserver.auth.dto.RowFilter;
+import com.cost.costserver.dynamic.jdbc.DynamicJdbcExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RowPermissionKeyServiceTest {
+
+    private final DynamicJdbcExecutor jdbcExecutor = mock(DynamicJdbcExecutor.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final RowPermissionKeyService service = new RowPermissionKeyService(jdbcExecutor, transactionManager);
+
+    private final RowFilter filter = RowFilter.materialized("DEPT_ID",
+            RowFilter.compile("SELECT DEPT_ID FROM T_DEPT_USER WHERE USER_ID = ${userId}"), Duration.ofMinutes(5));
+
+    @AfterEach
+    void logout() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void materializes_key_set_once_per_user_within_ttl() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+        login(1001L);
+        Object[] first = service.bindValues(filter);
+        Object[] again = service.bindValues(filter);
+        login(1002L);
+        Object[] other = service.bindValues(filter);
+
+        assertThat(again).containsExactly(first);
+        assertThat(other[0]).isNotEqualTo(first[0]);
+        verify(jdbcExecutor, times(2)).update(startsWith("INSERT INTO T_COST_ROW_PERM_KEY"), any(Object[].class));
+        verify(jdbcExecutor).update(contains("WITH k (KEY_VALUE) AS (SELECT DEPT_ID FROM T_DEPT_USER WHERE USER_ID = ?) "
+                        + "SELECT DISTINCT ?, k.KEY_VALUE FROM k WHERE k.KEY_VALUE IS NOT NULL"),
+                eq(1001L), eq(first[0]));
+    }
+
+    private void login(Long userId) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(userId, null, List.of()));
+    }
+}
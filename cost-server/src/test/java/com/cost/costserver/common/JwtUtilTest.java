@@ -0,0 +1,49 @@
+package com.cost.costserver.common;
+
+import com.cost.costserver.config.JwtProperties;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtUtilTest {
+
+    private final JwtUtil jwtUtil = new JwtUtil(properties("0123456789abcdef0123456789abcdef"));
+
+    @Test
+    void verified_token_claims_are_reused() {
+        String token = jwtUtil.generateAccessToken(1001L, "zhangsan");
+
+        Claims claims = jwtUtil.verify(token);
+
+        assertThat(jwtUtil.verify(token)).isSameAs(claims);
+        assertThat(JwtUtil.getUserId(claims)).isEqualTo(1001L);
+        assertThat(claims.getSubject()).isEqualTo("zhangsan");
+        assertThat(JwtUtil.isRefreshToken(claims)).isFalse();
+        assertThat(jwtUtil.isRefreshToken(jwtUtil.generateRefreshToken(1001L, "zhangsan"))).isTrue();
+    }
+
+    @Test
+    void rejects_tampered_and_foreign_tokens() {
+        String token = jwtUtil.generateAccessToken(1001L, "zhangsan");
+        JwtUtil other = new JwtUtil(properties("fedcba9876543210fedcba9876543210"));
+
+        assertThat(jwtUtil.verify(token.substring(0, token.length() - 2) + "xx")).isNull();
+        assertThat(other.verify(token)).isNull();
+    }
+
+    @Test
+    void expired_tokens_are_not_served_from_cache() {
+        JwtProperties properties = properties("0123456789abcdef0123456789abcdef");
+        properties.setAccessTokenExpire(-1000);
+        JwtUtil expiring = new JwtUtil(properties);
+
+        assertThat(expiring.verify(expiring.generateAccessToken(1001L, "zhangsan"))).isNull();
+    }
+
+    private static JwtProperties properties(String secret) {
+        JwtProperties properties = new JwtProperties();
+        properties.setSecret(secret);
+        return properties;
+    }
+}
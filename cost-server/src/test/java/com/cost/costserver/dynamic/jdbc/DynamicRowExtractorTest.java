@@ -0,0 +1,55 @@
+package com.cost.costserver.dynamic.jdbc;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class DynamicRowExtractorTest {
+
+    @Test
+    void maps_rows_with_upper_keys_converted_values_and_no_nulls() throws Exception {
+        ResultSetMetaData meta = mock(ResultSetMetaData.class);
+        when(meta.getColumnCount()).thenReturn(5);
+        when(meta.getColumnLabel(1)).thenReturn("id");
+        when(meta.getColumnLabel(2)).thenReturn(" Goods_Name ");
+        when(meta.getColumnLabel(3)).thenReturn("UPDATE_TIME");
+        when(meta.getColumnLabel(4)).thenReturn("REMARK");
+        when(meta.getColumnLabel(5)).thenReturn("BIZ_DATE");
+        when(meta.getColumnType(1)).thenReturn(Types.NUMERIC);
+        when(meta.getColumnType(2)).thenReturn(Types.VARCHAR);
+        when(meta.getColumnType(3)).thenReturn(Types.TIMESTAMP);
+        when(meta.getColumnType(4)).thenReturn(Types.CLOB);
+        when(meta.getColumnType(5)).thenReturn(Types.DATE);
+
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getMetaData()).thenReturn(meta);
+        when(rs.next()).thenReturn(true, true, false);
+        when(rs.getObject(1)).thenReturn(new BigDecimal("1"), (Object) new BigDecimal("2"));
+        when(rs.getObject(2)).thenReturn("钢材", (Object) null);
+        when(rs.getTimestamp(3)).thenReturn(Timestamp.valueOf(LocalDateTime.of(2024, 5, 1, 8, 30, 0)), (Timestamp) null);
+        when(rs.getString(4)).thenReturn("长文本", (String) null);
+        when(rs.getObject(5)).thenReturn(java.sql.Date.valueOf("2024-05-01"), (Object) null);
+
+        List<Map<String, Object>> rows = DynamicRowExtractor.INSTANCE.extractData(rs);
+
+        assertThat(rows).hasSize(2);
+        assertThat(rows.get(0)).containsExactly(
+                Map.entry("ID", new BigDecimal("1")),
+                Map.entry("GOODS_NAME", "钢材"),
+                Map.entry("UPDATE_TIME", "2024-05-01 08:30:00"),
+                Map.entry("REMARK", "长文本"),
+                Map.entry("BIZ_DATE", "2024-05-01"));
+        assertThat(rows.get(1)).containsOnlyKeys("ID");
+        verify(meta, times(1)).getColumnLabel(1);
+    }
+}
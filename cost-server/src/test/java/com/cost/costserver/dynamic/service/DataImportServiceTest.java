@@ -0,0 +1,149 @@
+package com.cost.costserver.dynamic.service;
+
+import com.cost.costserver.auth.dto.PagePermission;
+import com.cost.costserver.auth.service.PermissionService;
+import com.cost.costserver.dynamic.dto.ImportResult;
+import com.cost.costserver.dynamic.jdbc.DynamicJdbcExecutor;
+import com.cost.costserver.dynamic.validation.ValidationReport;
+import com.cost.costserver.log.AuditLogService;
+import com.cost.costserver.log.OperationLogContext;
+import com.cost.costserver.log.OperationLogService;
+import com.cost.costserver.metadata.dto.ColumnMetadataDTO;
+import com.cost.costserver.metadata.dto.TableMetadataDTO;
+import com.cost.costserver.metadata.service.MetadataService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class DataImportServiceTest {
+
+    private final MetadataService metadataService = mock(MetadataService.class);
+    private final ValidationService validationService = mock(ValidationService.class);
+    private final PermissionService permissionService = mock(PermissionService.class);
+    private final DynamicJdbcExecutor jdbcExecutor = mock(DynamicJdbcExecutor.class);
+    private final AuditLogService auditLogService = mock(AuditLogService.class);
+    private final OperationLogService operationLogService = mock(OperationLogService.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    // 同步执行导入任务，便于断言
+    private final DataImportService service = new DataImportService(metadataService, validationService,
+            permissionService, jdbcExecutor, auditLogService, operationLogService, transactionManager, Runnable::run);
+
+    @BeforeEach
+    void setUp() {
+        UsernamePasswordAuthenticationToken token = new UsernamePasswordAuthenticationToken(1L, null, List.of());
+        token.setDetails("zhangsan");
+        SecurityContextHolder.getContext().setAuthentication(token);
+        when(permissionService.getPagePermission(1L, "order-page"))
+                .thenReturn(new PagePermission("order-page", Set.of("save"), null, null));
+        when(metadataService.getTableMetadata("order")).thenReturn(new TableMetadataDTO(1L, "order", "订单",
+                "V_ORDER", "T_ORDER", "SEQ_ORDER", "ID", null, null, null, List.of(
+                        column("ID", "主键", "number", false),
+                        column("DOC_NO", "单据号", "text", true),
+                        column("QTY", "数量", "number", false),
+                        column("REMARK", "备注", "text", false))));
+        when(jdbcExecutor.nextSequenceValues(eq("SEQ_ORDER"), anyInt())).thenAnswer(invocation ->
+                LongStream.rangeClosed(1, invocation.<Integer>getArgument(1)).boxed().toList());
+        when(validationService.validateBatch(eq("order"), eq("save"), anyList())).thenAnswer(invocation ->
+                invocation.<List<Map<String, Object>>>getArgument(2).stream()
+                        .map(row -> "bad".equals(row.get("REMARK")) ? ValidationReport.fail("备注不合法")
+                                : ValidationReport.success())
+                        .toList());
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        OperationLogContext.end();
+    }
+
+    @Test
+    void maps_headers_by_header_text_then_column_name() {
+        ImportResult result = importCsv("单据号,remark,ID,未知列\nA-1,first,99,x\n");
+
+        assertThat(result.getStatus()).isEqualTo("SUCCESS");
+        assertThat(result.getSuccessRows()).isEqualTo(1);
+        List<Object[]> args = capturedBatches().get(0);
+        verify(jdbcExecutor).batchUpdate(eq("INSERT INTO T_ORDER (ID, DOC_NO, REMARK, CREATE_BY, CREATE_TIME, DELETED, "
+                + "UPDATE_BY, UPDATE_TIME) VALUES (?, ?, ?, ?, ?, ?, ?, ?)"), anyList());
+        assertThat(args.get(0)).startsWith(1L, "A-1", "first", "zhangsan");
+        verify(auditLogService).logInsert(eq("zhangsan"), eq("order-page"), eq("order"), eq("订单"), eq(1L),
+                eq(Map.of("DOC_NO", "A-1", "REMARK", "first")));
+    }
+
+    @Test
+    void reports_conversion_and_validation_errors_by_row() {
+        ImportResult result = importCsv("单据号,数量,备注\nA-1,3,ok\n,4,ok\nA-3,abc,ok\nA-4,5,bad\n");
+
+        assertThat(result.getStatus()).isEqualTo("SUCCESS");
+        assertThat(result.getTotalRows()).isEqualTo(4);
+        assertThat(result.getSuccessRows()).isEqualTo(1);
+        assertThat(result.getFailedRows()).isEqualTo(3);
+        assertThat(result.getErrors()).extracting(ImportResult.RowError::getRowIndex, ImportResult.RowError::getMessage)
+                .containsExactly(
+                        tuple(3, "「单据号」不能为空"),
+                        tuple(4, "「数量」不是有效数字: abc"),
+                        tuple(5, "备注不合法"));
+        assertThat(capturedBatches().get(0)).hasSize(1);
+        assertThat(capturedBatches().get(0).get(0)[2]).isEqualTo(new BigDecimal("3"));
+    }
+
+    @Test
+    void commits_each_chunk_separately_and_keeps_committed_chunks_on_failure() {
+        StringBuilder csv = new StringBuilder("单据号\n");
+        for (int i = 1; i <= 1200; i++) {
+            csv.append("D-").append(i).append('\n');
+        }
+        when(jdbcExecutor.batchUpdate(anyString(), anyList()))
+                .thenReturn(500)
+                .thenReturn(500)
+                .thenThrow(new IllegalStateException("ORA-00001"));
+
+        ImportResult result = importCsv(csv.toString());
+
+        assertThat(capturedBatches()).extracting(List::size).containsExactly(500, 500, 200);
+        verify(transactionManager, times(2)).commit(any());
+        verify(transactionManager).rollback(any());
+        verify(auditLogService, times(1000)).logInsert(any(), any(), any(), any(), any(), anyMap());
+        assertThat(result.getStatus()).isEqualTo("FAILED");
+        assertThat(result.getSuccessRows()).isEqualTo(1000);
+        assertThat(result.getMessage()).contains("已提交 1000 行");
+        verify(operationLogService).saveAsync(argThat(session -> "IMPORT".equals(session.getOperationType())
+                && session.getRecordDesc().contains("成功1000行")), eq("FAILED"), anyString());
+    }
+
+    private ImportResult importCsv(String content) {
+        MockMultipartFile file = new MockMultipartFile("file", "orders.csv", "text/csv",
+                content.getBytes(StandardCharsets.UTF_8));
+        String taskId = service.importFile("order", "order-page", null, file).getTaskId();
+        return service.getProgress(taskId);
+    }
+
+    private List<List<Object[]>> capturedBatches() {
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> captor = ArgumentCaptor.forClass(List.class);
+        verify(jdbcExecutor, atLeastOnce()).batchUpdate(anyString(), captor.capture());
+        return captor.getAllValues();
+    }
+
+    private static ColumnMetadataDTO column(String name, String header, String dataType, boolean required) {
+        return new ColumnMetadataDTO(null, name, null, null, header, dataType, 0, 100,
+                true, true, required, false, true, null, null, null, null, null, false);
+    }
+}
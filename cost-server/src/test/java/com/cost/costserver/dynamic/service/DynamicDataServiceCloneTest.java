@@ -0,0 +1,143 @@
+package com.cost.costserver.dynamic.service;
+
+import com.cost.costserver.log.AuditLogService;
+import com.cost.costserver.auth.dto.PagePermission;
+import com.cost.costserver.auth.service.PermissionService;
+import com.cost.costserver.auth.service.RowPermissionKeyService;
+import com.cost.costserver.common.BusinessException;
+import com.cost.costserver.dynamic.dto.SaveResult;
+import com.cost.costserver.dynamic.jdbc.DynamicJdbcExecutor;
+import com.cost.costserver.dynamic.validation.ValidationReport;
+import com.cost.costserver.log.OperationLogService;
+import com.cost.costserver.metadata.dto.ColumnMetadataDTO;
+import com.cost.costserver.metadata.dto.PageComponentDTO;
+import com.cost.costserver.metadata.dto.TableMetadataDTO;
+import com.cost.costserver.metadata.dto.TableMetadataIndex;
+import com.cost.costserver.metadata.service.MetadataService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class DynamicDataServiceCloneTest {
+
+    private static final String VISIBLE_SQL = "SELECT COUNT(*) FROM V_ORDER a WHERE a.DELETED = 0 AND a.ID = ?";
+
+    private final DynamicJdbcExecutor jdbcExecutor = mock(DynamicJdbcExecutor.class);
+    private final MetadataService metadataService = mock(MetadataService.class);
+    private final ValidationService validationService = mock(ValidationService.class);
+    private final AuditLogService auditLogService = mock(AuditLogService.class);
+    private final PermissionService permissionService = mock(PermissionService.class);
+    private final DynamicDataService service = new DynamicDataService(jdbcExecutor, metadataService, validationService,
+            mock(OperationLogService.class), auditLogService, permissionService, mock(RowPermissionKeyService.class));
+
+    private final TableMetadataDTO order = new TableMetadataDTO(1L, "order", "订单", "V_ORDER", "T_ORDER", "SEQ_ORDER",
+            "ID", null, null, null, List.of(column("DOC_NO"), column("REMARK")));
+    private final TableMetadataDTO line = new TableMetadataDTO(2L, "line", "明细", "V_LINE", "T_LINE", "SEQ_LINE",
+            "ID", "order", "ORDER_ID", null, List.of(column("ORDER_ID"), column("QTY")));
+
+    @BeforeEach
+    void setUp() {
+        SecurityContextHolder.getContext().setAuthentication(login());
+        when(permissionService.getPagePermission(1L, "order-page"))
+                .thenReturn(new PagePermission("order-page", Set.of("save"), null, null));
+        when(metadataService.getPageComponents("order-page")).thenReturn(List.of(new PageComponentDTO(
+                1L, "order-page", "main", "GRID", null, null, "order", null, 1, null, List.of(), List.of())));
+        when(metadataService.getTableIndex("order")).thenReturn(TableMetadataIndex.of(order));
+        when(metadataService.getTableIndex("line")).thenReturn(TableMetadataIndex.of(line));
+        when(metadataService.getTableMetadata("order")).thenReturn(order);
+        when(metadataService.findChildTables("order")).thenReturn(List.of(line));
+        when(metadataService.findChildTables("line")).thenReturn(List.of());
+        when(jdbcExecutor.queryCount(VISIBLE_SQL, 5L)).thenReturn(1L);
+        when(jdbcExecutor.nextSequenceValue("SEQ_ORDER")).thenReturn(100L);
+        when(jdbcExecutor.update(anyString())).thenReturn(1);
+        when(jdbcExecutor.queryRows("SELECT NEW_ID FROM T_COST_CLONE_ID_MAP WHERE TABLE_CODE = ?", "line"))
+                .thenReturn(List.of(Map.of("NEW_ID", 201L)));
+        when(jdbcExecutor.queryRows("SELECT a.* FROM V_ORDER a WHERE a.DELETED = 0 AND a.ID IN (100)"))
+                .thenReturn(List.of(Map.of("ID", 100L, "DOC_NO", "N-2")));
+        when(jdbcExecutor.queryRows("SELECT a.* FROM V_LINE a WHERE a.DELETED = 0 AND a.ID IN (201)"))
+                .thenReturn(List.of(Map.of("ID", 201L, "ORDER_ID", 100L, "QTY", 3)));
+        when(validationService.uniqueFields("order", "save")).thenReturn(Set.of("ID", "DOC_NO"));
+        when(validationService.validateBatch(anyString(), eq("save"), anyList())).thenAnswer(invocation ->
+                ((List<?>) invocation.getArgument(2)).stream().map(row -> ValidationReport.success()).toList());
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void copies_master_and_children_through_the_id_map() {
+        SaveResult result = service.cloneRecord("order", 5L, "order-page", Map.of("doc_no", "N-2"));
+
+        List<String> sql = executedUpdates();
+        assertThat(sql).containsSubsequence(
+                "DELETE FROM T_COST_CLONE_ID_MAP",
+                "INSERT INTO T_COST_CLONE_ID_MAP (TABLE_CODE, OLD_ID, NEW_ID) VALUES ('order', 5, 100)",
+                "INSERT INTO T_COST_CLONE_ID_MAP (TABLE_CODE, OLD_ID, NEW_ID) SELECT 'line', c.ID, SEQ_LINE.NEXTVAL "
+                        + "FROM T_LINE c WHERE c.DELETED = 0 AND c.ORDER_ID IN "
+                        + "(SELECT OLD_ID FROM T_COST_CLONE_ID_MAP WHERE TABLE_CODE = 'order')");
+        assertThat(sql).anySatisfy(s -> assertThat(s)
+                .startsWith("INSERT INTO T_ORDER (ID, DOC_NO, REMARK, CREATE_TIME, UPDATE_TIME, CREATE_BY, UPDATE_BY, DELETED) "
+                        + "SELECT 100, 'N-2', s.REMARK, ")
+                .endsWith("FROM T_ORDER s WHERE s.ID = 5 AND s.DELETED = 0"));
+        assertThat(sql).anySatisfy(s -> assertThat(s)
+                .startsWith("INSERT INTO T_LINE (ID, ORDER_ID, QTY, CREATE_TIME, UPDATE_TIME, CREATE_BY, UPDATE_BY, DELETED) "
+                        + "SELECT m.NEW_ID, pm.NEW_ID, c.QTY, ")
+                .endsWith("FROM T_LINE c JOIN T_COST_CLONE_ID_MAP m ON m.TABLE_CODE = 'line' AND m.OLD_ID = c.ID "
+                        + "JOIN T_COST_CLONE_ID_MAP pm ON pm.TABLE_CODE = 'order' AND pm.OLD_ID = c.ORDER_ID"));
+
+        assertThat(result.getMasterRow()).containsEntry("DOC_NO", "N-2");
+        verify(auditLogService).logInsert(eq("zhangsan"), eq("order-page"), eq("line"), eq("明细"), eq(201L), anyMap());
+    }
+
+    @Test
+    void clears_unique_fields_that_are_not_overridden() {
+        service.cloneRecord("order", 5L, "order-page", null);
+
+        assertThat(executedUpdates()).anySatisfy(s -> assertThat(s).contains("SELECT 100, NULL, s.REMARK, "));
+    }
+
+    @Test
+    void rejects_rows_hidden_by_the_row_policy_and_tables_outside_the_page() {
+        when(jdbcExecutor.queryCount(VISIBLE_SQL, 5L)).thenReturn(0L);
+        assertThatThrownBy(() -> service.cloneRecord("order", 5L, "order-page", null))
+                .isInstanceOf(BusinessException.class)
+                .hasFieldOrPropertyWithValue("code", 404);
+
+        assertThatThrownBy(() -> service.cloneRecord("line", 5L, "order-page", null))
+                .isInstanceOf(BusinessException.class)
+                .hasFieldOrPropertyWithValue("code", 403);
+        verify(jdbcExecutor, never()).update(anyString());
+    }
+
+    private List<String> executedUpdates() {
+        ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
+        verify(jdbcExecutor, atLeastOnce()).update(captor.capture());
+        return captor.getAllValues().stream().map(String::trim).collect(Collectors.toList());
+    }
+
+    private static UsernamePasswordAuthenticationToken login() {
+        UsernamePasswordAuthenticationToken token = new UsernamePasswordAuthenticationToken(1L, null, List.of());
+        token.setDetails("zhangsan");
+        return token;
+    }
+
+    private static ColumnMetadataDTO column(String name) {
+        return new ColumnMetadataDTO(null, name, null, null, name, "text", 0, 100,
+                true, true, false, false, true, null, null, null, null, null, false);
+    }
+}
@@ -0,0 +1,104 @@
+package com.cost.costserver.dynamic.service;
+
+import com.cost.costserver.dynamic.jdbc.DynamicJdbcExecutor;
+import com.cost.costserver.dynamic.util.SqlTemplateUtils;
+import com.cost.costserver.dynamic.validation.ValidationReport;
+import com.cost.costserver.metadata.dto.TableMetadataDTO;
+import com.cost.costserver.metadata.service.MetadataService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class ValidationServiceTest {
+
+    private static final String RULES = """
+        [{"order":1,"code":"unique","group":"save","sql":"SELECT COUNT(*) FROM T_TEST WHERE CODE = :CODE AND ID <> NVL(:ID, 0)","condition":"result == 0","message":"编码重复","unique":true}]
+        """;
+
+    private final DynamicJdbcExecutor jdbcExecutor = mock(DynamicJdbcExecutor.class);
+    private final MetadataService metadataService = mock(MetadataService.class);
+    private final ValidationService service = new ValidationService(jdbcExecutor, metadataService, new ObjectMapper());
+
+    ValidationServiceTest() {
+        when(metadataService.getTableMetadata("test")).thenReturn(new TableMetadataDTO(
+            1L, "test", "测试", "T_TEST", "T_TEST", "SEQ_TEST", "ID", null, null, RULES, List.of()));
+    }
+
+    @Test
+    void validates_all_rows_with_one_query_per_rule() {
+        String sql = "SELECT 0 AS IDX, (SELECT COUNT(*) FROM T_TEST WHERE CODE = ? AND ID <> NVL(?, 0)) AS CNT FROM DUAL"
+            + " UNION ALL SELECT 1 AS IDX, (SELECT COUNT(*) FROM T_TEST WHERE CODE = ? AND ID <> NVL(?, 0)) AS CNT FROM DUAL";
+        when(jdbcExecutor.queryRows(sql, "A", null, "B", null)).thenReturn(List.of(
+            Map.of("IDX", new BigDecimal(0), "CNT", new BigDecimal(0)),
+            Map.of("IDX", new BigDecimal(1), "CNT", new BigDecimal(1))));
+
+        List<ValidationReport> reports = service.validateBatch("test", "save", List.of(
+            Map.of("CODE", "A"), Map.of("CODE", "B"), Map.of("CODE", "A")));
+
+        verify(jdbcExecutor, times(1)).queryRows(sql, "A", null, "B", null);
+        // 第三行与第一行编码相同：逐行写入时第一行已插入，同批重复应被拒绝
+        assertThat(reports).extracting(ValidationReport::isPassed).containsExactly(true, false, false);
+        assertThat(reports.get(1).getMessage()).isEqualTo("编码重复");
+        assertThat(reports.get(2).getMessage()).isEqualTo("编码重复");
+    }
+
+    @Test
+    void rows_sharing_args_pass_rules_not_declared_unique() {
+        // 读取目标表、要求计数为 0，但不是唯一性规则：同一父单据下的多行共享绑定值
+        when(metadataService.getTableMetadata("line")).thenReturn(new TableMetadataDTO(
+            2L, "line", "明细", "T_LINE", "T_LINE", "SEQ_LINE", "ID", null, null,
+            "[{\"order\":1,\"code\":\"locked\",\"sql\":\"SELECT COUNT(*) FROM T_LINE WHERE PARENT_ID = :PARENT_ID AND LOCKED = 1\","
+                + "\"condition\":\"result == 0\",\"message\":\"已锁定\"}]", List.of()));
+        String sql = "SELECT 0 AS IDX, (SELECT COUNT(*) FROM T_LINE WHERE PARENT_ID = ? AND LOCKED = 1) AS CNT FROM DUAL";
+        when(jdbcExecutor.queryRows(sql, 7L)).thenReturn(List.of(
+            Map.of("IDX", new BigDecimal(0), "CNT", new BigDecimal(0))));
+
+        List<ValidationReport> reports = service.validateBatch("line", "save", List.of(
+            Map.of("PARENT_ID", 7L), Map.of("PARENT_ID", 7L)));
+
+        assertThat(reports).extracting(ValidationReport::isPassed).containsExactly(true, true);
+    }
+
+    @Test
+    void runs_non_scalar_rules_once_per_distinct_args() {
+        when(metadataService.getTableMetadata("multi")).thenReturn(new TableMetadataDTO(
+            3L, "multi", "多列", "T_MULTI", "T_MULTI", "SEQ_MULTI", "ID", null, null,
+            "[{\"order\":1,\"code\":\"over\",\"sql\":\"SELECT COUNT(*), MAX(QTY) FROM T_STOCK WHERE CODE = :CODE ORDER BY 1\","
+                + "\"condition\":\"result == 0\",\"message\":\"库存不足\"}]", List.of()));
+        String sql = "SELECT COUNT(*), MAX(QTY) FROM T_STOCK WHERE CODE = ? ORDER BY 1";
+        when(jdbcExecutor.queryRows(sql, "A")).thenReturn(List.of(new LinkedHashMap<>(Map.of("COUNT(*)", new BigDecimal(0)))));
+        when(jdbcExecutor.queryRows(sql, "B")).thenReturn(List.of(new LinkedHashMap<>(Map.of("COUNT(*)", new BigDecimal(2)))));
+
+        List<ValidationReport> reports = service.validateBatch("multi", "save", List.of(
+            Map.of("CODE", "A"), Map.of("CODE", "B"), Map.of("CODE", "A")));
+
+        assertThat(reports).extracting(ValidationReport::isPassed).containsExactly(true, false, true);
+        verify(jdbcExecutor, times(1)).queryRows(sql, "A");
+    }
+
+    @Test
+    void detects_scalar_selects() {
+        assertThat(SqlTemplateUtils.isScalarSelect("SELECT COUNT(*) FROM T WHERE NAME = 'a,b' AND ID IN (SELECT ID FROM X ORDER BY 1)")).isTrue();
+        assertThat(SqlTemplateUtils.isScalarSelect("SELECT COUNT(*), 1 FROM T")).isFalse();
+        assertThat(SqlTemplateUtils.isScalarSelect("SELECT COUNT(*) FROM T ORDER BY 1")).isFalse();
+        assertThat(SqlTemplateUtils.selectColumnCount("SELECT NVL(a, 'x,y') FROM (SELECT a, b FROM t)")).isEqualTo(1);
+        assertThat(SqlTemplateUtils.selectColumnCount("SELECT * FROM T_DEPT_USER")).isEqualTo(-1);
+    }
+
+    @Test
+    void skips_rules_unrelated_to_changed_fields() {
+        ValidationReport report = service.validate("test", "save", Map.of("CODE", "A", "ID", 1L, "NAME", "x"),
+            Set.of("name"));
+
+        assertThat(report.isPassed()).isTrue();
+        verifyNoInteractions(jdbcExecutor);
+    }
+}
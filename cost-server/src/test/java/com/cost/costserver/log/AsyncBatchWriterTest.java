@@ -0,0 +1,119 @@
+package com.cost.costserver.log;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AsyncBatchWriterTest {
+
+    private RecordingWriter writer;
+
+    @AfterEach
+    void tearDown() {
+        if (writer != null) {
+            writer.release.countDown();
+            writer.stopWriter();
+        }
+    }
+
+    @Test
+    void flushes_when_batch_is_full() throws InterruptedException {
+        writer = new RecordingWriter(100, 3, 3_000, "caller-runs");
+        writer.startWriter();
+        writer.release.countDown();
+
+        writer.enqueue(1);
+        writer.enqueue(2);
+        writer.enqueue(3);
+
+        // 凑满一批即写入，不等到 flushInterval
+        assertThat(writer.written.await(1, TimeUnit.SECONDS)).isTrue();
+        assertThat(writer.batches).containsExactly(List.of(1, 2, 3));
+    }
+
+    @Test
+    void flushes_partial_batch_after_interval() throws InterruptedException {
+        writer = new RecordingWriter(100, 100, 50, "caller-runs");
+        writer.startWriter();
+        writer.release.countDown();
+
+        writer.enqueue(1);
+        writer.enqueue(2);
+
+        assertThat(writer.written.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(writer.batches).containsExactly(List.of(1, 2));
+    }
+
+    @Test
+    void caller_runs_writes_on_the_calling_thread_when_queue_is_full() throws InterruptedException {
+        writer = blockedWriter("caller-runs");
+
+        writer.enqueue(3);
+
+        assertThat(writer.threads).contains(Thread.currentThread().getName());
+        assertThat(writer.batches).contains(List.of(3));
+        assertThat(writer.getStats().callerRuns()).isEqualTo(1);
+        assertThat(writer.getStats().dropped()).isZero();
+    }
+
+    @Test
+    void drop_discards_items_when_queue_is_full() throws InterruptedException {
+        writer = blockedWriter("drop");
+
+        writer.enqueue(3);
+        writer.release.countDown();
+        writer.stopWriter();
+
+        assertThat(writer.batches).containsExactly(List.of(1), List.of(2));
+        assertThat(writer.getStats().dropped()).isEqualTo(1);
+        assertThat(writer.getStats().callerRuns()).isZero();
+    }
+
+    /**
+     * 写线程卡在第 1 条上、队列（容量 1）中已有第 2 条
+     */
+    private RecordingWriter blockedWriter(String overflowPolicy) throws InterruptedException {
+        RecordingWriter blocked = new RecordingWriter(1, 1, 100, overflowPolicy);
+        blocked.startWriter();
+        blocked.enqueue(1);
+        assertThat(blocked.entered.await(5, TimeUnit.SECONDS)).isTrue();
+        blocked.enqueue(2);
+        assertThat(blocked.getStats().queueDepth()).isEqualTo(1);
+        return blocked;
+    }
+
+    private static class RecordingWriter extends AsyncBatchWriter<Integer> {
+
+        final List<List<Integer>> batches = new CopyOnWriteArrayList<>();
+        final List<String> threads = new CopyOnWriteArrayList<>();
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch written = new CountDownLatch(1);
+
+        RecordingWriter(int queueCapacity, int batchSize, long flushIntervalMs, String overflowPolicy) {
+            super("test-writer", queueCapacity, batchSize, flushIntervalMs, overflowPolicy);
+        }
+
+        @Override
+        protected void writeBatch(List<Integer> items) {
+            String thread = Thread.currentThread().getName();
+            if (thread.equals("test-writer")) {
+                entered.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            threads.add(thread);
+            batches.add(List.copyOf(items));
+            written.countDown();
+        }
+    }
+}
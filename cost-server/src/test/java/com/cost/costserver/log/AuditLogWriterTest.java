@@ -0,0 +1,35 @@
+package com.cost.costserver.log;
+
+import com.cost.costserver.config.AuditLogProperties;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AuditLogWriterTest {
+
+    @Test
+    void writes_each_batch_in_its_own_transaction() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        AuditLogWriter writer = new AuditLogWriter(jdbcTemplate, transactionManager, new AuditLogProperties());
+
+        writer.writeBatch(List.of(new AuditLogEntry("zhangsan", "order-page", "order", "订单", 1L,
+                "INSERT", null, new Timestamp(0))));
+
+        ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager).getTransaction(definition.capture());
+        assertThat(definition.getValue().getPropagationBehavior())
+                .isEqualTo(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO T_COST_AUDIT_LOG"), anyList());
+        verify(transactionManager).commit(any());
+    }
+}
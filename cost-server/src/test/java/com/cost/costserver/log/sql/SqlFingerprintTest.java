@@ -0,0 +1,18 @@
+package com.cost.costserver.log.sql;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SqlFingerprintTest {
+
+    @Test
+    void strips_literals_and_collapses_lists() {
+        String a = SqlFingerprint.of("select *  from T_COST_PINGGU_LQ a\n where a.DELETED = 0 and a.ID in (1, 2, 3) and NAME = 'it''s'");
+        String b = SqlFingerprint.of("SELECT * FROM T_COST_PINGGU_LQ a WHERE a.DELETED = 1 AND a.ID IN (42) AND NAME = 'x'");
+
+        assertThat(a).isEqualTo("SELECT * FROM T_COST_PINGGU_LQ A WHERE A.DELETED = ? AND A.ID IN (?) AND NAME = ?");
+        assertThat(b).isEqualTo(a);
+        assertThat(SqlFingerprint.sqlType(a)).isEqualTo("SELECT");
+    }
+}
@@ -0,0 +1,73 @@
+package com.cost.costserver.metadata.controller;
+
+import cn.hutool.core.util.ZipUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VersionedResponseCacheTest {
+
+    private final VersionedResponseCache cache = new VersionedResponseCache(new ObjectMapper());
+    private final AtomicInteger loads = new AtomicInteger();
+    private final Supplier<Object> loader = () -> {
+        loads.incrementAndGet();
+        return List.of("A", "B");
+    };
+
+    @Test
+    void serves_cached_body_and_304_until_version_changes() throws Exception {
+        ResponseEntity<byte[]> first = cache.respond("dict:unit", 1L, "0", request(null, null), loader);
+        String etag = first.getHeaders().getETag();
+
+        assertThat(new String(first.getBody(), StandardCharsets.UTF_8)).contains("\"data\":[\"A\",\"B\"]");
+        assertThat(cache.respond("dict:unit", 1L, "0", request(etag, null), loader)).isNull();
+
+        ResponseEntity<byte[]> gzipped = cache.respond("dict:unit", 1L, "0", request(null, "gzip, deflate"), loader);
+        assertThat(gzipped.getHeaders().getFirst("Content-Encoding")).isEqualTo("gzip");
+        assertThat(ZipUtil.unGzip(gzipped.getBody())).isEqualTo(first.getBody());
+        assertThat(loads).hasValue(1);
+
+        ResponseEntity<byte[]> changed = cache.respond("dict:unit", 2L, "0", request(etag, null), loader);
+        assertThat(changed.getHeaders().getETag()).isNotEqualTo(etag);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void honours_accept_encoding_q_values() {
+        assertThat(VersionedResponseCache.acceptsGzip("gzip, deflate")).isTrue();
+        assertThat(VersionedResponseCache.acceptsGzip("gzip;q=0, deflate")).isFalse();
+        assertThat(VersionedResponseCache.acceptsGzip("deflate, *;q=0.5")).isTrue();
+        assertThat(VersionedResponseCache.acceptsGzip("*;q=0.5, gzip; q=0")).isFalse();
+        assertThat(VersionedResponseCache.acceptsGzip("br")).isFalse();
+    }
+
+    @Test
+    void stale_version_does_not_read_or_fill_newer_cache() throws Exception {
+        cache.respond("dict:unit", 2L, "0", request(null, null), loader);
+        cache.respond("dict:unit", 1L, "0", request(null, null), loader);
+        cache.respond("dict:unit", 2L, "0", request(null, null), loader);
+
+        assertThat(loads).hasValue(2);
+    }
+
+    private ServletWebRequest request(String ifNoneMatch, String acceptEncoding) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/metadata/dict/unit");
+        if (ifNoneMatch != null) {
+            request.addHeader("If-None-Match", ifNoneMatch);
+        }
+        if (acceptEncoding != null) {
+            request.addHeader("Accept-Encoding", acceptEncoding);
+        }
+        return new ServletWebRequest(request, new MockHttpServletResponse());
+    }
+}
@@ -0,0 +1,36 @@
+package com.cost.costserver.metadata.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TableMetadataIndexTest {
+
+    @Test
+    void indexes_columns_by_runtime_name_target_and_label() {
+        TableMetadataIndex index = TableMetadataIndex.of(new TableMetadataDTO(
+            1L, "order", "订单", "V_ORDER", "T_ORDER", "SEQ_ORDER", "ORDER_ID", null, null, null, List.of(
+                column("id", "ORDER_ID", "V_ID", "编号"),
+                column("goodsName", null, null, "物料名称"),
+                column("GOODSNAME", null, null, "重复列"),
+                column("remark", null, null, null))));
+
+        assertThat(index.columnsByRuntimeName()).containsOnlyKeys("ID", "GOODSNAME", "REMARK");
+        assertThat(index.column(" goodsname ").headerText()).isEqualTo("物料名称");
+        assertThat(index.resolveRuntimeColumnName("order_id")).isEqualTo("id");
+        assertThat(index.resolveRuntimeColumnName("unknown_col")).isEqualTo("UNKNOWN_COL");
+        assertThat(index.resolveRuntimeColumnName(" ")).isEmpty();
+        assertThat(index.resolveQueryColumnName("ORDER_ID")).isEqualTo("V_ID");
+        assertThat(index.resolveQueryColumnName("goodsName")).isEqualTo("goodsName");
+        assertThat(index.labels()).containsOnlyKeys("id", "goodsName", "GOODSNAME");
+        assertThat(TableMetadataIndex.isAuditColumn(" create_by")).isTrue();
+        assertThat(TableMetadataIndex.isAuditColumn(null)).isFalse();
+    }
+
+    private ColumnMetadataDTO column(String columnName, String targetColumn, String queryColumn, String header) {
+        return new ColumnMetadataDTO(null, columnName, queryColumn, targetColumn, header, "text", 0, 100,
+            true, true, false, false, true, null, null, null, null, null, false);
+    }
+}
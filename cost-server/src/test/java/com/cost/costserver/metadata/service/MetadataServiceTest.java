@@ -0,0 +1,128 @@
+package com.cost.costserver.metadata.service;
+
+import com.cost.costserver.grid.service.UserGridConfigService;
+import com.cost.costserver.metadata.dto.ColumnMetadataDTO;
+import com.cost.costserver.metadata.dto.PageComponentDTO;
+import com.cost.costserver.metadata.dto.TableMetadataIndex;
+import com.cost.costserver.metadata.entity.ColumnMetadata;
+import com.cost.costserver.metadata.entity.PageComponent;
+import com.cost.costserver.metadata.entity.TableMetadata;
+import com.cost.costserver.metadata.mapper.*;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class MetadataServiceTest {
+
+    private final TableMetadataMapper tableMetadataMapper = mock(TableMetadataMapper.class);
+    private final ColumnMetadataMapper columnMetadataMapper = mock(ColumnMetadataMapper.class);
+    private final PageComponentMapper pageComponentMapper = mock(PageComponentMapper.class);
+    private final PageRuleMapper pageRuleMapper = mock(PageRuleMapper.class);
+    private final MetadataService service = new MetadataService(tableMetadataMapper, columnMetadataMapper,
+            pageComponentMapper, pageRuleMapper, mock(DictionaryTypeMapper.class), mock(DictionaryItemMapper.class),
+            mock(LookupConfigMapper.class), new ObjectMapper(), mock(UserGridConfigService.class));
+
+    @Test
+    void page_component_trees_are_cached_per_button_set() {
+        when(pageComponentMapper.selectList(any())).thenReturn(List.of(
+                component("root", null, "LAYOUT", null, null),
+                component("masterGrid", "root", "GRID", "order",
+                        "{\"buttons\":[{\"action\":\"add\"},{\"action\":\"delete\"}]}")));
+        TableMetadata table = new TableMetadata();
+        table.setTableCode("order");
+        table.setTableName("订单");
+        when(tableMetadataMapper.selectList(any())).thenReturn(List.of(table));
+
+        List<PageComponentDTO> full = service.getPageComponents("cost-order", Set.of("*"));
+        List<PageComponentDTO> addOnly = service.getPageComponents("cost-order", Set.of("订单:add"));
+
+        assertThat(service.getPageComponents("cost-order", Set.of("订单:add"))).isSameAs(addOnly);
+        assertThat(service.getPageComponents("cost-order")).isSameAs(full);
+        assertThat(full.get(0).children().get(0).componentConfig()).contains("delete");
+        assertThat(addOnly.get(0).children().get(0).componentConfig()).contains("add").doesNotContain("delete");
+        verify(pageComponentMapper, times(1)).selectList(any());
+        verify(pageRuleMapper, times(1)).selectList(any());
+
+        service.clearCache(null);
+        service.getPageComponents("cost-order", Set.of("订单:add"));
+        verify(pageComponentMapper, times(2)).selectList(any());
+    }
+
+    @Test
+    void concurrent_misses_load_table_once() throws Exception {
+        AtomicReference<TableMetadataIndex> waiter = new AtomicReference<>();
+        when(tableMetadataMapper.selectOne(any())).thenAnswer(invocation -> {
+            Thread other = new Thread(() -> waiter.set(service.getTableIndex("order")));
+            other.start();
+            while (other.getState() != Thread.State.WAITING && other.isAlive()) {
+                Thread.sleep(1);
+            }
+            return table(1L, "order");
+        });
+        when(columnMetadataMapper.selectList(any())).thenReturn(List.of(column(1L, "GOODS_NAME", "{\"cellEditor\":\"text\"}")));
+
+        TableMetadataIndex index = service.getTableIndex("order");
+
+        await(() -> waiter.get() != null);
+        assertThat(waiter.get()).isSameAs(index);
+        assertThat(service.getTableIndex("order")).isSameAs(index);
+        verify(tableMetadataMapper, times(1)).selectOne(any());
+    }
+
+    @Test
+    void warm_up_loads_all_tables_with_one_column_query() {
+        when(tableMetadataMapper.selectList(any())).thenReturn(List.of(table(1L, "order"), table(2L, "order-line")));
+        when(columnMetadataMapper.selectList(any())).thenReturn(List.of(
+                column(1L, "ORDER_NO", null), column(2L, "GOODS_NAME", null), column(1L, "REMARK", null)));
+
+        assertThat(service.warmUp()).isEqualTo(2);
+
+        assertThat(service.getTableMetadata("order").columns())
+                .extracting(ColumnMetadataDTO::columnName).containsExactly("ORDER_NO", "REMARK");
+        assertThat(service.getTableMetadata("order-line").columns())
+                .extracting(ColumnMetadataDTO::columnName).containsExactly("GOODS_NAME");
+        verify(columnMetadataMapper, times(1)).selectList(any());
+        verify(tableMetadataMapper, never()).selectOne(any());
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+
+    private TableMetadata table(Long id, String tableCode) {
+        TableMetadata table = new TableMetadata();
+        table.setId(id);
+        table.setTableCode(tableCode);
+        return table;
+    }
+
+    private ColumnMetadata column(Long tableId, String columnName, String rulesConfig) {
+        ColumnMetadata column = new ColumnMetadata();
+        column.setTableMetadataId(tableId);
+        column.setColumnName(columnName);
+        column.setRulesConfig(rulesConfig);
+        return column;
+    }
+
+    private PageComponent component(String key, String parentKey, String type, String tableCode, String config) {
+        PageComponent component = new PageComponent();
+        component.setPageCode("cost-order");
+        component.setComponentKey(key);
+        component.setParentKey(parentKey);
+        component.setComponentType(type);
+        component.setRefTableCode(tableCode);
+        component.setComponentConfig(config);
+        return component;
+    }
+}
@@ -0,0 +1,63 @@
+package com.cost.costserver.metadata.service;
+
+import com.cost.costserver.auth.dto.PagePermission;
+import com.cost.costserver.grid.service.UserGridConfigService;
+import com.cost.costserver.metadata.dto.ColumnMetadataDTO;
+import com.cost.costserver.metadata.dto.PageBundleDTO;
+import com.cost.costserver.metadata.dto.PageComponentDTO;
+import com.cost.costserver.metadata.dto.TableMetadataDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class PageBundleServiceTest {
+
+    private final MetadataService metadataService = mock(MetadataService.class);
+    private final UserGridConfigService userGridConfigService = mock(UserGridConfigService.class);
+    private final PageBundleService service = new PageBundleService(metadataService, userGridConfigService, new ObjectMapper());
+
+    @Test
+    void assembles_grids_tabs_dicts_and_lookups_in_one_pass() {
+        PagePermission permission = new PagePermission("cost-order", Set.of("*"), null, null);
+        PageComponentDTO tabs = component("detailTabs", "TABS", null,
+                "{\"tabs\":[{\"key\":\"lines\",\"tableCode\":\"order-line\"},{\"key\":\"empty\"}]}");
+        PageComponentDTO master = component("masterGrid", "GRID", "order", null);
+        PageComponentDTO root = component("root", "LAYOUT", null, null).withChildren(List.of(master, tabs));
+        when(metadataService.getPageComponents("cost-order", Set.of("*"))).thenReturn(List.of(root));
+        when(userGridConfigService.getConfigDataByGrid(1001L, "cost-order")).thenReturn(Map.of("masterGrid", "[]"));
+        when(userGridConfigService.parseConfig("[]")).thenReturn(List.of());
+        when(metadataService.getTableMetadataWithPermission(eq("order"), eq("masterGrid"), same(permission), any()))
+                .thenReturn(table("order", column("STATUS", "order_status", null)));
+        when(metadataService.getTableMetadataWithPermission(eq("order-line"), eq("lines"), same(permission), any()))
+                .thenReturn(table("order-line", column("GOODS_ID", null, "{\"lookup\":{\"code\":\"goods\"}}")));
+
+        PageBundleDTO bundle = service.getPageBundle(1001L, "cost-order", permission);
+
+        assertThat(bundle.components()).containsExactly(root);
+        assertThat(bundle.tables()).containsOnlyKeys("masterGrid", "lines");
+        assertThat(bundle.gridConfigs()).containsOnlyKeys("masterGrid");
+        verify(metadataService).getDictItems(Set.of("order_status"));
+        verify(metadataService).getLookupConfigs(Set.of("goods"));
+        verify(userGridConfigService, never()).getColumnPreferences(any(), any(), any());
+    }
+
+    private PageComponentDTO component(String key, String type, String tableCode, String config) {
+        return new PageComponentDTO(null, "cost-order", key, type, null, config, tableCode, null, 0, null, null, null);
+    }
+
+    private TableMetadataDTO table(String tableCode, ColumnMetadataDTO column) {
+        return new TableMetadataDTO(1L, tableCode, tableCode, null, null, null, "ID", null, null, null, List.of(column));
+    }
+
+    private ColumnMetadataDTO column(String name, String dictType, String rulesConfig) {
+        return new ColumnMetadataDTO(1L, name, name, name, name, "text", 1, 100, true, true, false, false, true,
+                null, dictType, null, null, rulesConfig, false);
+    }
+}
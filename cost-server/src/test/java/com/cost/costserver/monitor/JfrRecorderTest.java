@@ -0,0 +1,51 @@
+package com.cost.costserver.monitor;
+
+import com.cost.costserver.config.JfrProperties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class JfrRecorderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void aggregates_stage_events_and_dumps_recent_window() throws Exception {
+        JfrProperties properties = new JfrProperties();
+        properties.setStageThreshold(Duration.ZERO);
+        properties.setDumpDir(tempDir.toString());
+        JfrRecorder recorder = new JfrRecorder(properties);
+        recorder.start();
+        try {
+            assertThat(recorder.isRunning()).isTrue();
+
+            DataStageEvent stage = DataStageEvent.begin("query", "FETCH", "CostGoods", "cost-goods");
+            Thread.sleep(2);
+            stage.rows(20).next("NORMALIZE").rows(20).commit();
+
+            await().atMost(Duration.ofSeconds(10)).untilAsserted(() ->
+                    assertThat(recorder.stageReports())
+                            .extracting(JfrRecorder.StageReport::stage)
+                            .contains("FETCH", "NORMALIZE"));
+            JfrRecorder.StageReport fetch = recorder.stageReports().stream()
+                    .filter(r -> r.stage().equals("FETCH")).findFirst().orElseThrow();
+            assertThat(fetch.operation()).isEqualTo("query");
+            assertThat(fetch.rows()).isEqualTo(20);
+            assertThat(fetch.maxMs()).isGreaterThanOrEqualTo(2);
+
+            Path dump = recorder.dump();
+            assertThat(dump).startsWith(tempDir);
+            assertThat(Files.size(dump)).isPositive();
+        } finally {
+            recorder.stop();
+        }
+        assertThat(recorder.isRunning()).isFalse();
+    }
+}
@@ -0,0 +1,28 @@
+package com.cost.costserver.monitor;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestProfileTest {
+
+    @AfterEach
+    void tearDown() {
+        RequestProfile.end();
+    }
+
+    @Test
+    void lap_excludes_sql_executed_inside_the_segment() {
+        RequestProfile profile = RequestProfile.start();
+        RequestProfile.recordSql("SELECT ?", 300_000_000L);
+
+        // 分段起点前移 1s，段内执行 400ms SQL（如 mergeHistoryData 的历史查询）
+        long start = RequestProfile.mark() - 1_000_000_000L;
+        RequestProfile.recordSql("SELECT ? FROM T_HIS", 400_000_000L);
+        RequestProfile.lap(RequestProfile.Phase.POST_PROCESS, start);
+
+        assertThat(profile.phase(RequestProfile.Phase.SQL)).isEqualTo(700_000_000L);
+        assertThat(profile.phase(RequestProfile.Phase.POST_PROCESS)).isBetween(600_000_000L, 700_000_000L);
+    }
+}
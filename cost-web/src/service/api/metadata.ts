@@ -35,3 +35,10 @@ export function fetchLookupConfig(lookupCode: string) {
     url: `/api/metadata/lookup/${lookupCode}`
   });
 }
+
+/** 获取页面启动包（组件树、表格元数据、列配置、字典、弹窗配置） */
+export function fetchPageBundle(pageCode: string) {
+  return request<Api.Metadata.PageBundle>({
+    url: `/api/metadata/bundle/${pageCode}`
+  });
+}
@@ -97,5 +97,19 @@ declare namespace Api {
       header: string;
       width?: number;
     }
+
+    /** 页面启动包（一次请求返回页面所需配置） */
+    interface PageBundle {
+      pageCode: string;
+      components: PageComponent[];
+      /** gridKey -> 合并权限和个人偏好的表元数据 */
+      tables: Record<string, TableMetadata>;
+      /** gridKey -> 用户列配置 */
+      gridConfigs: Record<string, any>;
+      /** dictType -> 字典项 */
+      dicts: Record<string, DictItem[]>;
+      /** lookupCode -> 弹窗选择器配置 */
+      lookups: Record<string, LookupConfig>;
+    }
   }
 }